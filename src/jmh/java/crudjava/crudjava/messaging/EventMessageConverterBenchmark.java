@@ -0,0 +1,113 @@
+package crudjava.crudjava.messaging;
+
+import crudjava.crudjava.dto.EmailNotificationDto;
+import crudjava.crudjava.dto.InventoryEventDto;
+import crudjava.crudjava.dto.OrderEventDto;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+
+/**
+ * Compares encode and decode throughput of the JSON and binary event formats.
+ * The {@code bytesPerMessage} auxiliary counter reports the body size of each
+ * format and payload combination next to the throughput figures.
+ *
+ * <p>Run with {@code ./gradlew jmh}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EventMessageConverterBenchmark {
+
+    @Param({ "json", "binary", "binary-deflate" })
+    public String format;
+
+    @Param({ "order", "inventory", "email" })
+    public String payload;
+
+    private MessageConverter converter;
+    private Object event;
+    private Message encoded;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        converter = switch (format) {
+            case "json" -> new Jackson2JsonMessageConverter();
+            case "binary" -> new BinaryEventMessageConverter(-1);
+            case "binary-deflate" -> new BinaryEventMessageConverter(0);
+            default -> throw new IllegalArgumentException(format);
+        };
+        event = switch (payload) {
+            case "order" -> OrderEventDto.builder()
+                .orderId(184_467L)
+                .orderNumber("ORD-20250812-004211")
+                .customerId(52_310L)
+                .customerEmail("jane.doe@example.com")
+                .status("CONFIRMED")
+                .totalAmount(new BigDecimal("1249.90"))
+                .eventTime(LocalDateTime.now())
+                .build();
+            case "inventory" -> InventoryEventDto.builder()
+                .productId(9_812L)
+                .productName("Wireless Noise Cancelling Headphones")
+                .sku("WH-1000XM5-BLK")
+                .oldQuantity(120)
+                .newQuantity(117)
+                .operation("RESERVE")
+                .reason("Order reservation")
+                .eventTime(LocalDateTime.now())
+                .build();
+            case "email" -> EmailNotificationDto.builder()
+                .recipientEmail("jane.doe@example.com")
+                .orderNumber("ORD-20250812-004211")
+                .subject("Order Confirmation - ORD-20250812-004211")
+                .message(
+                    "Your order ORD-20250812-004211 has been created " +
+                        "successfully. Total amount: $1249.90"
+                )
+                .eventType("ORDER_CREATED")
+                .build();
+            default -> throw new IllegalArgumentException(payload);
+        };
+        encoded = converter.toMessage(event, new MessageProperties());
+    }
+
+    @Benchmark
+    public Message encode(MessageSize size) {
+        Message message = converter.toMessage(event, new MessageProperties());
+        size.bytesPerMessage = message.getBody().length;
+        return message;
+    }
+
+    @Benchmark
+    public Object decode() {
+        return converter.fromMessage(encoded);
+    }
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class MessageSize {
+
+        public long bytesPerMessage;
+    }
+}
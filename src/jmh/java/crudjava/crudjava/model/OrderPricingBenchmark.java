@@ -0,0 +1,96 @@
+package crudjava.crudjava.model;
+
+import java.math.BigDecimal;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Prices an order of {@code items} lines (subtotal per line, then items plus
+ * shipping and tax minus discount) the way {@link OrderItem} and
+ * {@link Order} did with {@link BigDecimal} and the way they do now with
+ * {@link Money}. Run with {@code ./gradlew jmh}; the gc profiler reports
+ * allocation per operation next to the timings.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrderPricingBenchmark {
+
+    @Param({ "1", "5", "25" })
+    public int items;
+
+    private BigDecimal[] decimalPrices;
+    private BigDecimal[] decimalDiscounts;
+    private Money[] moneyPrices;
+    private Money[] moneyDiscounts;
+    private int[] quantities;
+
+    private final BigDecimal decimalShipping = new BigDecimal("9.99");
+    private final BigDecimal decimalTax = new BigDecimal("14.25");
+    private final BigDecimal decimalOrderDiscount = new BigDecimal("5.00");
+    private final Money moneyShipping = Money.of(decimalShipping);
+    private final Money moneyTax = Money.of(decimalTax);
+    private final Money moneyOrderDiscount = Money.of(decimalOrderDiscount);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        decimalPrices = new BigDecimal[items];
+        decimalDiscounts = new BigDecimal[items];
+        moneyPrices = new Money[items];
+        moneyDiscounts = new Money[items];
+        quantities = new int[items];
+        for (int i = 0; i < items; i++) {
+            decimalPrices[i] = BigDecimal.valueOf(random.nextLong(100, 250_000), 2);
+            decimalDiscounts[i] = BigDecimal.valueOf(random.nextLong(0, 100), 2);
+            moneyPrices[i] = Money.of(decimalPrices[i]);
+            moneyDiscounts[i] = Money.of(decimalDiscounts[i]);
+            quantities[i] = random.nextInt(1, 5);
+        }
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimal() {
+        BigDecimal itemsTotal = BigDecimal.ZERO;
+        for (int i = 0; i < items; i++) {
+            BigDecimal subtotal = decimalPrices[i]
+                .multiply(BigDecimal.valueOf(quantities[i]))
+                .subtract(decimalDiscounts[i]);
+            itemsTotal = itemsTotal.add(subtotal);
+        }
+        return itemsTotal
+            .add(decimalShipping)
+            .add(decimalTax)
+            .subtract(decimalOrderDiscount);
+    }
+
+    @Benchmark
+    public Money money() {
+        Money itemsTotal = Money.ZERO;
+        for (int i = 0; i < items; i++) {
+            Money subtotal = moneyPrices[i]
+                .times(quantities[i])
+                .minus(moneyDiscounts[i]);
+            itemsTotal = itemsTotal.plus(subtotal);
+        }
+        return itemsTotal
+            .plus(moneyShipping)
+            .plus(moneyTax)
+            .minus(moneyOrderDiscount);
+    }
+}
@@ -0,0 +1,344 @@
+package crudjava.crudjava.cache;
+
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.Counter;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.NullValue;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+
+/**
+ * Redis-backed cache that keeps serving from a bounded local cache while Redis
+ * is slow or down. Every Redis call goes through a circuit breaker; failures
+ * and open-circuit rejections fall back to the local copy instead of failing
+ * the request. Evictions that could not reach Redis are queued and replayed
+ * by {@link ResilientCacheManager} once the circuit lets calls through again,
+ * so Redis does not keep serving entries that changed during the outage.
+ *
+ * <p>{@link #getAll} and {@link #putAll} batch lookups and back-fills into a
+ * single MGET and a single pipeline when the remote cache is a
+ * {@link RedisCache}; values share the serializer of {@code redisTemplate}.
+ */
+@Slf4j
+public class ResilientCache implements Cache {
+
+    private final Cache remote;
+    private final Cache local;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final CircuitBreaker circuitBreaker;
+    private final Counter fallbackCounter;
+    private final int maxPendingEvictions;
+
+    private final Queue<Object> pendingEvictions = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingEvictionCount = new AtomicInteger();
+    private final AtomicBoolean pendingClear = new AtomicBoolean();
+
+    public ResilientCache(
+        Cache remote,
+        Cache local,
+        RedisTemplate<String, Object> redisTemplate,
+        CircuitBreaker circuitBreaker,
+        Counter fallbackCounter,
+        int maxPendingEvictions
+    ) {
+        this.remote = remote;
+        this.local = local;
+        this.redisTemplate = redisTemplate;
+        this.circuitBreaker = circuitBreaker;
+        this.fallbackCounter = fallbackCounter;
+        this.maxPendingEvictions = maxPendingEvictions;
+    }
+
+    @Override
+    public String getName() {
+        return remote.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return remote.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        if (hasPendingEvictions()) {
+            // Redis may still hold entries evicted during the outage.
+            return local.get(key);
+        }
+        try {
+            ValueWrapper value = circuitBreaker.executeSupplier(() ->
+                remote.get(key)
+            );
+            if (value != null) {
+                local.put(key, value.get());
+            }
+            return value;
+        } catch (RuntimeException e) {
+            onRemoteFailure("get", e);
+            return local.get(key);
+        }
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper value = get(key);
+        if (value == null) {
+            return null;
+        }
+        Object stored = value.get();
+        if (stored != null && type != null && !type.isInstance(stored)) {
+            throw new IllegalStateException(
+                "Cached value is not of required type [" +
+                    type.getName() +
+                    "]: " +
+                    stored
+            );
+        }
+        return type != null ? type.cast(stored) : null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper value = get(key);
+        if (value != null) {
+            return (T) value.get();
+        }
+        T loaded;
+        try {
+            loaded = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        put(key, loaded);
+        return loaded;
+    }
+
+    /**
+     * Looks up several keys at once. Misses, including cached nulls, are
+     * left out of the result for the caller to load.
+     */
+    public Map<Object, Object> getAll(Collection<?> keys) {
+        Map<Object, Object> found = new HashMap<>();
+        if (keys.isEmpty()) {
+            return found;
+        }
+        if (
+            !(remote instanceof RedisCache redisCache) || hasPendingEvictions()
+        ) {
+            keys.forEach(key -> collect(found, key, get(key)));
+            return found;
+        }
+
+        List<Object> ordered = new ArrayList<>(keys);
+        List<String> redisKeys = ordered
+            .stream()
+            .map(key -> redisKey(redisCache, key))
+            .toList();
+        try {
+            List<Object> values = circuitBreaker.executeSupplier(() ->
+                redisTemplate.opsForValue().multiGet(redisKeys)
+            );
+            for (int i = 0; i < ordered.size(); i++) {
+                Object value = values != null ? values.get(i) : null;
+                if (value != null && !(value instanceof NullValue)) {
+                    local.put(ordered.get(i), value);
+                    found.put(ordered.get(i), value);
+                }
+            }
+        } catch (RuntimeException e) {
+            onRemoteFailure("getAll", e);
+            keys.forEach(key -> collect(found, key, local.get(key)));
+        }
+        return found;
+    }
+
+    /** Stores several entries, written to Redis in one pipeline. */
+    public void putAll(Map<?, ?> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        entries.forEach(local::put);
+        if (hasPendingEvictions()) {
+            return;
+        }
+        if (!(remote instanceof RedisCache redisCache)) {
+            entries.forEach((key, value) ->
+                runRemote("put", () -> remote.put(key, value))
+            );
+            return;
+        }
+        runRemote("putAll", () ->
+            redisTemplate.executePipelined(
+                new SessionCallback<Object>() {
+                    @Override
+                    @SuppressWarnings("unchecked")
+                    public <K, V> Object execute(
+                        RedisOperations<K, V> operations
+                    ) throws DataAccessException {
+                        RedisOperations<String, Object> ops =
+                            (RedisOperations<String, Object>) operations;
+                        entries.forEach((key, value) -> {
+                            Duration ttl = redisCache
+                                .getCacheConfiguration()
+                                .getTtlFunction()
+                                .getTimeToLive(key, value);
+                            String redisKey = redisKey(redisCache, key);
+                            if (ttl.isZero() || ttl.isNegative()) {
+                                ops.opsForValue().set(redisKey, value);
+                            } else {
+                                ops.opsForValue().set(redisKey, value, ttl);
+                            }
+                        });
+                        return null;
+                    }
+                }
+            )
+        );
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        local.put(key, value);
+        if (hasPendingEvictions()) {
+            return;
+        }
+        runRemote("put", () -> remote.put(key, value));
+    }
+
+    @Override
+    public void evict(Object key) {
+        local.evict(key);
+        if (!runRemote("evict", () -> remote.evict(key))) {
+            queueEviction(key);
+        }
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        evict(key);
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        local.clear();
+        if (!runRemote("clear", remote::clear)) {
+            pendingClear.set(true);
+        }
+    }
+
+    /**
+     * Applies queued evictions to Redis. Stops at the first failure and keeps
+     * the rest queued for the next attempt.
+     */
+    void replayPendingEvictions() {
+        if (pendingClear.get()) {
+            if (!runRemote("clear", remote::clear)) {
+                return;
+            }
+            pendingClear.set(false);
+            pendingEvictions.clear();
+            pendingEvictionCount.set(0);
+            log.info("Replayed pending clear of cache {}", getName());
+            return;
+        }
+
+        int replayed = 0;
+        Object key;
+        while ((key = pendingEvictions.peek()) != null) {
+            Object evicted = key;
+            if (!runRemote("evict", () -> remote.evict(evicted))) {
+                break;
+            }
+            pendingEvictions.poll();
+            pendingEvictionCount.decrementAndGet();
+            replayed++;
+        }
+        if (replayed > 0) {
+            log.info(
+                "Replayed {} pending evictions of cache {}",
+                replayed,
+                getName()
+            );
+        }
+    }
+
+    boolean hasPendingEvictions() {
+        return pendingClear.get() || pendingEvictionCount.get() > 0;
+    }
+
+    int getPendingEvictionCount() {
+        return pendingClear.get() ? -1 : pendingEvictionCount.get();
+    }
+
+    private static void collect(
+        Map<Object, Object> found,
+        Object key,
+        ValueWrapper value
+    ) {
+        if (value != null && value.get() != null) {
+            found.put(key, value.get());
+        }
+    }
+
+    // Same layout as RedisCache's own keys: "<prefix><key>".
+    private static String redisKey(RedisCache cache, Object key) {
+        return (
+            cache.getCacheConfiguration().getKeyPrefixFor(cache.getName()) + key
+        );
+    }
+
+    private void queueEviction(Object key) {
+        if (pendingEvictionCount.incrementAndGet() > maxPendingEvictions) {
+            // Too many to track individually: clear the whole cache instead.
+            pendingClear.set(true);
+            return;
+        }
+        pendingEvictions.add(key);
+    }
+
+    private boolean runRemote(String operation, Runnable call) {
+        try {
+            circuitBreaker.executeRunnable(call);
+            return true;
+        } catch (RuntimeException e) {
+            onRemoteFailure(operation, e);
+            return false;
+        }
+    }
+
+    private void onRemoteFailure(String operation, RuntimeException e) {
+        fallbackCounter.increment();
+        if (e instanceof CallNotPermittedException) {
+            log.debug(
+                "Redis circuit open, cache {} {} served locally",
+                getName(),
+                operation
+            );
+        } else {
+            log.warn(
+                "Redis cache {} {} failed, falling back to local cache: {}",
+                getName(),
+                operation,
+                e.getMessage()
+            );
+        }
+    }
+}
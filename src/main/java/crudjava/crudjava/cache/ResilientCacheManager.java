@@ -0,0 +1,110 @@
+package crudjava.crudjava.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Wraps every cache of the Redis cache manager in a {@link ResilientCache}
+ * sharing one circuit breaker, each with its own bounded local fallback.
+ */
+public class ResilientCacheManager implements CacheManager {
+
+    private final CacheManager remoteCacheManager;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final CircuitBreaker circuitBreaker;
+    private final MeterRegistry meterRegistry;
+    private final long localMaxSize;
+    private final Duration localTtl;
+    private final int maxPendingEvictions;
+
+    private final Map<String, ResilientCache> caches = new ConcurrentHashMap<>();
+
+    public ResilientCacheManager(
+        CacheManager remoteCacheManager,
+        RedisTemplate<String, Object> redisTemplate,
+        CircuitBreaker circuitBreaker,
+        MeterRegistry meterRegistry,
+        long localMaxSize,
+        Duration localTtl,
+        int maxPendingEvictions
+    ) {
+        this.remoteCacheManager = remoteCacheManager;
+        this.redisTemplate = redisTemplate;
+        this.circuitBreaker = circuitBreaker;
+        this.meterRegistry = meterRegistry;
+        this.localMaxSize = localMaxSize;
+        this.localTtl = localTtl;
+        this.maxPendingEvictions = maxPendingEvictions;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        ResilientCache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        Cache remote = remoteCacheManager.getCache(name);
+        if (remote == null) {
+            return null;
+        }
+        return caches.computeIfAbsent(name, n -> wrap(remote));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return remoteCacheManager.getCacheNames();
+    }
+
+    // The replay calls go through the breaker rather than checking its state:
+    // with evictions pending, reads and writes skip Redis, so these calls are
+    // what moves an open breaker to half-open once its wait has passed.
+    @Scheduled(fixedDelayString = "${app.cache.eviction-replay-interval-ms:5000}")
+    public void replayPendingEvictions() {
+        caches
+            .values()
+            .stream()
+            .filter(ResilientCache::hasPendingEvictions)
+            .forEach(ResilientCache::replayPendingEvictions);
+    }
+
+    private ResilientCache wrap(Cache remote) {
+        String name = remote.getName();
+        CaffeineCache local = new CaffeineCache(
+            name,
+            Caffeine.newBuilder()
+                .maximumSize(localMaxSize)
+                .expireAfterWrite(localTtl)
+                .build()
+        );
+        ResilientCache cache = new ResilientCache(
+            remote,
+            local,
+            redisTemplate,
+            circuitBreaker,
+            Counter.builder("cache.redis.fallbacks")
+                .tag("cache", name)
+                .register(meterRegistry),
+            maxPendingEvictions
+        );
+        Gauge.builder(
+            "cache.redis.pending_evictions",
+            cache,
+            ResilientCache::getPendingEvictionCount
+        )
+            .tag("cache", name)
+            .register(meterRegistry);
+        return cache;
+    }
+}
@@ -0,0 +1,237 @@
+package crudjava.crudjava.catalog;
+
+import static crudjava.crudjava.catalog.CatalogSnapshotFormat.*;
+
+import crudjava.crudjava.dto.ProductDTO;
+import crudjava.crudjava.model.CodedEnum;
+import crudjava.crudjava.model.ProductStatus;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Read-only view of a memory-mapped catalog snapshot. Lookups walk the
+ * indexes in the mapping and only allocate the returned DTOs, so the catalog
+ * itself stays off the heap and is shared through the page cache by every
+ * process that maps the same file. Safe for concurrent use.
+ */
+public final class CatalogSnapshot {
+
+    private final ByteBuffer buffer;
+    private final Instant builtAt;
+    private final int productCount;
+    private final int idIndex;
+    private final int skuTable;
+    private final int skuSlots;
+    private final int categoryDirectory;
+    private final int categoryCount;
+
+    private CatalogSnapshot(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        if (
+            buffer.capacity() < HEADER_LENGTH ||
+            buffer.getInt(HEADER_MAGIC) != MAGIC
+        ) {
+            throw new IOException("Not a catalog snapshot");
+        }
+        if (buffer.getInt(HEADER_VERSION) != FORMAT_VERSION) {
+            throw new IOException(
+                "Unsupported catalog snapshot version " +
+                    buffer.getInt(HEADER_VERSION)
+            );
+        }
+        this.builtAt = Instant.ofEpochMilli(buffer.getLong(HEADER_BUILT_AT));
+        this.productCount = buffer.getInt(HEADER_PRODUCT_COUNT);
+        this.idIndex = buffer.getInt(HEADER_ID_INDEX);
+        this.skuTable = buffer.getInt(HEADER_SKU_TABLE);
+        this.skuSlots = buffer.getInt(HEADER_SKU_SLOTS);
+        this.categoryDirectory = buffer.getInt(HEADER_CATEGORIES);
+        this.categoryCount = buffer.getInt(HEADER_CATEGORY_COUNT);
+    }
+
+    public static CatalogSnapshot open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Catalog snapshot too large: " + path);
+            }
+            return new CatalogSnapshot(
+                channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size())
+            );
+        }
+    }
+
+    public Instant builtAt() {
+        return builtAt;
+    }
+
+    public int productCount() {
+        return productCount;
+    }
+
+    public Optional<ProductDTO> findById(long id) {
+        int low = 0;
+        int high = productCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int entry = idIndex + mid * ID_ENTRY_LENGTH;
+            long midId = buffer.getLong(entry);
+            if (midId < id) {
+                low = mid + 1;
+            } else if (midId > id) {
+                high = mid - 1;
+            } else {
+                return Optional.of(readProduct(buffer.getInt(entry + Long.BYTES)));
+            }
+        }
+        return Optional.empty();
+    }
+
+    public Optional<ProductDTO> findBySku(String sku) {
+        byte[] key = utf8(sku);
+        int hash = hash(key);
+        int mask = skuSlots - 1;
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            int entry = skuTable + slot * SKU_SLOT_LENGTH;
+            int record = buffer.getInt(entry + Integer.BYTES);
+            if (record == 0) {
+                return Optional.empty();
+            }
+            if (
+                buffer.getInt(entry) == hash &&
+                compareBytes(record + Long.BYTES, key) == 0
+            ) {
+                return Optional.of(readProduct(record));
+            }
+        }
+    }
+
+    public List<ProductDTO> findByCategory(String category) {
+        byte[] key = utf8(category);
+        int low = 0;
+        int high = categoryCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int entry = categoryDirectory + mid * CATEGORY_ENTRY_LENGTH;
+            int cmp = compareBytes(buffer.getInt(entry), key);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                int postings = buffer.getInt(entry + Integer.BYTES);
+                int size = buffer.getInt(entry + 2 * Integer.BYTES);
+                List<ProductDTO> products = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    products.add(
+                        readProduct(buffer.getInt(postings + i * Integer.BYTES))
+                    );
+                }
+                return products;
+            }
+        }
+        return List.of();
+    }
+
+    /** Compares the length-prefixed bytes at {@code offset} with {@code key}. */
+    private int compareBytes(int offset, byte[] key) {
+        int length = buffer.getInt(offset);
+        int common = Math.min(length, key.length);
+        for (int i = 0; i < common; i++) {
+            int cmp = Byte.compareUnsigned(
+                buffer.get(offset + Integer.BYTES + i),
+                key[i]
+            );
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return Integer.compare(length, key.length);
+    }
+
+    private ProductDTO readProduct(int offset) {
+        Cursor cursor = new Cursor(offset);
+        ProductDTO product = new ProductDTO();
+        product.setId(cursor.readLong());
+        product.setSku(cursor.readString());
+        long version = cursor.readLong();
+        product.setVersion(version != Long.MIN_VALUE ? version : null);
+        product.setPrice(cursor.readDecimal());
+        product.setWeightKg(cursor.readDecimal());
+        product.setStockQuantity(cursor.readInt());
+        product.setStatus(
+            CodedEnum.fromCode(ProductStatus.class, cursor.readByte()).name()
+        );
+        product.setCreatedAt(cursor.readTimestamp());
+        product.setUpdatedAt(cursor.readTimestamp());
+        product.setName(cursor.readString());
+        product.setCategory(cursor.readString());
+        product.setDescription(cursor.readString());
+        return product;
+    }
+
+    private final class Cursor {
+
+        private int position;
+
+        Cursor(int position) {
+            this.position = position;
+        }
+
+        long readLong() {
+            long value = buffer.getLong(position);
+            position += Long.BYTES;
+            return value;
+        }
+
+        int readInt() {
+            int value = buffer.getInt(position);
+            position += Integer.BYTES;
+            return value;
+        }
+
+        byte readByte() {
+            return buffer.get(position++);
+        }
+
+        String readString() {
+            int length = readInt();
+            if (length < 0) {
+                return null;
+            }
+            byte[] bytes = new byte[length];
+            buffer.get(position, bytes);
+            position += length;
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        BigDecimal readDecimal() {
+            byte scale = readByte();
+            if (scale == NULL_SCALE) {
+                return null;
+            }
+            return BigDecimal.valueOf(readLong(), scale);
+        }
+
+        LocalDateTime readTimestamp() {
+            long micros = readLong();
+            if (micros == NULL_TIMESTAMP) {
+                return null;
+            }
+            return LocalDateTime.ofEpochSecond(
+                Math.floorDiv(micros, 1_000_000),
+                (int) Math.floorMod(micros, 1_000_000) * 1_000,
+                ZoneOffset.UTC
+            );
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package crudjava.crudjava.catalog;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * File layout of a catalog snapshot. All integers are big-endian and all
+ * offsets are absolute positions in the file, which is limited to 2 GB so
+ * that it can be mapped as a single buffer.
+ *
+ * <pre>
+ * header     64 bytes, see the HEADER_* offsets
+ * records    per product: id, sku, version, price, weight, stock, status,
+ *            created, updated, name, category, description
+ * id index   productCount x (long id, int recordOffset), sorted by id
+ * sku table  open-addressing table of (int hash, int recordOffset) slots,
+ *            recordOffset 0 marks an empty slot
+ * categories categoryCount x (int nameOffset, int postingsOffset,
+ *            int postingsCount) sorted by UTF-8 name, followed by the names
+ *            and the postings (record offsets in id order)
+ * </pre>
+ *
+ * Strings are an int byte length (-1 for null) plus UTF-8, decimals a scale
+ * byte ({@link #NULL_SCALE} for null) plus the unscaled long, timestamps
+ * microseconds since the epoch in UTC ({@link Long#MIN_VALUE} for null).
+ */
+final class CatalogSnapshotFormat {
+
+    static final int MAGIC = 0x434A4353; // "CJCS"
+    static final int FORMAT_VERSION = 1;
+
+    static final int HEADER_LENGTH = 64;
+    static final int HEADER_MAGIC = 0;
+    static final int HEADER_VERSION = 4;
+    static final int HEADER_BUILT_AT = 8;
+    static final int HEADER_PRODUCT_COUNT = 16;
+    static final int HEADER_ID_INDEX = 20;
+    static final int HEADER_SKU_TABLE = 24;
+    static final int HEADER_SKU_SLOTS = 28;
+    static final int HEADER_CATEGORIES = 32;
+    static final int HEADER_CATEGORY_COUNT = 36;
+
+    static final int ID_ENTRY_LENGTH = 12;
+    static final int SKU_SLOT_LENGTH = 8;
+    static final int CATEGORY_ENTRY_LENGTH = 12;
+
+    static final byte NULL_SCALE = Byte.MIN_VALUE;
+    static final long NULL_TIMESTAMP = Long.MIN_VALUE;
+
+    private CatalogSnapshotFormat() {}
+
+    static byte[] utf8(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /** FNV-1a over the UTF-8 bytes of a SKU. */
+    static int hash(byte[] bytes) {
+        int hash = 0x811C9DC5;
+        for (byte b : bytes) {
+            hash ^= b & 0xFF;
+            hash *= 0x01000193;
+        }
+        return hash;
+    }
+
+    static int skuSlots(int productCount) {
+        int wanted = Math.max(2, productCount * 2);
+        return Integer.highestOneBit(wanted - 1) << 1;
+    }
+}
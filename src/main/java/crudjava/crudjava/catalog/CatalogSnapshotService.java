@@ -0,0 +1,304 @@
+package crudjava.crudjava.catalog;
+
+import crudjava.crudjava.dto.ProductDTO;
+import crudjava.crudjava.mapper.ProductMapper;
+import crudjava.crudjava.repository.ProductRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Serves product reads from a memory-mapped {@link CatalogSnapshot} that is
+ * rebuilt in the background. Products changed through this instance since
+ * the snapshot was built are read from the database until the next rebuild;
+ * created, deleted or recategorised products make category lookups go to the
+ * database as well. Changes made by other instances show up once the
+ * snapshot is rebuilt, at the latest after {@code max-age}. When another
+ * instance on the host has written a fresher file to the same path and
+ * nothing changed locally, that file is mapped instead of building a new one.
+ *
+ * <p>Lookups return {@code null} when the snapshot cannot answer and the
+ * caller has to ask the database.
+ */
+@Component
+@Slf4j
+public class CatalogSnapshotService {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ProductRepository productRepository;
+    private final TransactionTemplate buildTransaction;
+    private final boolean enabled;
+    private final Path path;
+    private final long refreshIntervalMs;
+    private final Duration maxAge;
+    private final int pageSize;
+    private final Timer buildTimer;
+
+    private final AtomicLong changeSequence = new AtomicLong();
+    private final Map<Long, Long> changedProducts = new ConcurrentHashMap<>();
+    private volatile long catalogChangedAt;
+    private volatile long snapshotSequence;
+    private volatile CatalogSnapshot current;
+    private ScheduledExecutorService refresher;
+
+    public CatalogSnapshotService(
+        JdbcTemplate jdbcTemplate,
+        ProductRepository productRepository,
+        PlatformTransactionManager transactionManager,
+        MeterRegistry meterRegistry,
+        @Value("${app.catalog.snapshot.enabled:false}") boolean enabled,
+        @Value(
+            "${app.catalog.snapshot.path:${java.io.tmpdir}/crudjava/catalog.snapshot}"
+        ) Path path,
+        @Value(
+            "${app.catalog.snapshot.refresh-interval-ms:30000}"
+        ) long refreshIntervalMs,
+        @Value("${app.catalog.snapshot.max-age:5m}") Duration maxAge,
+        @Value("${app.catalog.snapshot.page-size:1000}") int pageSize
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.productRepository = productRepository;
+        this.enabled = enabled;
+        this.path = path;
+        this.refreshIntervalMs = refreshIntervalMs;
+        this.maxAge = maxAge;
+        this.pageSize = pageSize;
+
+        // One consistent view of the table across all pages.
+        this.buildTransaction = new TransactionTemplate(transactionManager);
+        buildTransaction.setReadOnly(true);
+        buildTransaction.setIsolationLevel(
+            TransactionDefinition.ISOLATION_REPEATABLE_READ
+        );
+
+        this.buildTimer = Timer.builder("catalog.snapshot.build").register(
+            meterRegistry
+        );
+        Gauge.builder("catalog.snapshot.products", this, s ->
+            s.current != null ? s.current.productCount() : 0
+        ).register(meterRegistry);
+        Gauge.builder("catalog.snapshot.changed_products", changedProducts, Map::size)
+            .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        // Own thread: a large rebuild must not hold up the shared scheduler.
+        refresher = Executors.newSingleThreadScheduledExecutor(runnable ->
+            Thread.ofPlatform().name("catalog-snapshot").daemon(true).unstarted(runnable)
+        );
+        refresher.scheduleWithFixedDelay(
+            this::refresh,
+            0,
+            refreshIntervalMs,
+            TimeUnit.MILLISECONDS
+        );
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (refresher != null) {
+            refresher.shutdownNow();
+        }
+    }
+
+    public boolean isServing() {
+        return current != null;
+    }
+
+    public ProductDTO findById(Long id) {
+        CatalogSnapshot snapshot = current;
+        if (snapshot == null || id == null || changedProducts.containsKey(id)) {
+            return null;
+        }
+        return snapshot.findById(id).orElse(null);
+    }
+
+    public ProductDTO findBySku(String sku) {
+        CatalogSnapshot snapshot = current;
+        if (snapshot == null || sku == null) {
+            return null;
+        }
+        return snapshot
+            .findBySku(sku)
+            .filter(product -> !changedProducts.containsKey(product.getId()))
+            .orElse(null);
+    }
+
+    public List<ProductDTO> findByCategory(String category) {
+        CatalogSnapshot snapshot = current;
+        if (
+            snapshot == null ||
+            category == null ||
+            catalogChangedAt > snapshotSequence
+        ) {
+            return null;
+        }
+        List<ProductDTO> products = snapshot.findByCategory(category);
+        List<Long> changed = products
+            .stream()
+            .map(ProductDTO::getId)
+            .filter(changedProducts::containsKey)
+            .toList();
+        if (changed.isEmpty()) {
+            return products;
+        }
+
+        Map<Long, ProductDTO> reloaded = productRepository
+            .findAllById(changed)
+            .stream()
+            .map(ProductMapper::toDTO)
+            .collect(Collectors.toMap(ProductDTO::getId, Function.identity()));
+        List<ProductDTO> merged = new ArrayList<>(products.size());
+        for (ProductDTO product : products) {
+            ProductDTO fresh = changedProducts.containsKey(product.getId())
+                ? reloaded.get(product.getId())
+                : product;
+            if (fresh != null && category.equals(fresh.getCategory())) {
+                merged.add(fresh);
+            }
+        }
+        return merged;
+    }
+
+    /** Records a change to one product's fields, e.g. its stock. */
+    public void productChanged(Long productId) {
+        if (!enabled || productId == null) {
+            return;
+        }
+        markProduct(productId);
+        // Marked again after commit so that a build whose transaction started
+        // before the commit cannot clear the mark.
+        afterCommit(() -> markProduct(productId));
+    }
+
+    /** Records a change to the set of products or their categories. */
+    public void catalogChanged() {
+        if (!enabled) {
+            return;
+        }
+        catalogChangedAt = changeSequence.incrementAndGet();
+        afterCommit(() -> catalogChangedAt = changeSequence.incrementAndGet());
+    }
+
+    void refresh() {
+        try {
+            CatalogSnapshot snapshot = current;
+            boolean changed =
+                !changedProducts.isEmpty() || catalogChangedAt > snapshotSequence;
+            boolean expired =
+                snapshot == null ||
+                snapshot.builtAt().plus(maxAge).isBefore(Instant.now());
+            if (!changed && !expired) {
+                return;
+            }
+            if (!changed && adoptSharedSnapshot(snapshot)) {
+                return;
+            }
+            rebuild();
+        } catch (Exception e) {
+            log.warn("Catalog snapshot refresh failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private void rebuild() throws IOException {
+        long sequence = changeSequence.get();
+        long started = System.nanoTime();
+        CatalogSnapshotWriter writer = new CatalogSnapshotWriter(
+            jdbcTemplate,
+            pageSize
+        );
+        IOException failure = buildTransaction.execute(status -> {
+            try {
+                writer.write(path);
+                return null;
+            } catch (IOException e) {
+                return e;
+            }
+        });
+        if (failure != null) {
+            throw failure;
+        }
+        CatalogSnapshot snapshot = CatalogSnapshot.open(path);
+        swap(snapshot, sequence);
+        buildTimer.record(Duration.ofNanos(System.nanoTime() - started));
+        log.info(
+            "Built catalog snapshot with {} products in {} ms",
+            snapshot.productCount(),
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started)
+        );
+    }
+
+    private boolean adoptSharedSnapshot(CatalogSnapshot snapshot) {
+        if (!Files.exists(path)) {
+            return false;
+        }
+        try {
+            CatalogSnapshot shared = CatalogSnapshot.open(path);
+            boolean fresher =
+                shared.builtAt().plus(maxAge).isAfter(Instant.now()) &&
+                (snapshot == null || shared.builtAt().isAfter(snapshot.builtAt()));
+            if (fresher) {
+                swap(shared, changeSequence.get());
+                log.info("Mapped catalog snapshot built at {}", shared.builtAt());
+            }
+            return fresher;
+        } catch (IOException e) {
+            log.debug("Ignoring unreadable catalog snapshot {}: {}", path, e.getMessage());
+            return false;
+        }
+    }
+
+    private void swap(CatalogSnapshot snapshot, long sequence) {
+        current = snapshot;
+        snapshotSequence = sequence;
+        changedProducts.values().removeIf(changedAt -> changedAt <= sequence);
+    }
+
+    private void markProduct(Long productId) {
+        changedProducts.put(productId, changeSequence.incrementAndGet());
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(
+            new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            }
+        );
+    }
+}
@@ -0,0 +1,292 @@
+package crudjava.crudjava.catalog;
+
+import static crudjava.crudjava.catalog.CatalogSnapshotFormat.*;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Writes a catalog snapshot from the products table. Products are read in
+ * id order with keyset paging so that only the index entries, not the
+ * products, are held in memory. The file is written next to the target and
+ * moved into place atomically; readers of the previous file keep their
+ * mapping.
+ */
+final class CatalogSnapshotWriter {
+
+    private static final String SELECT_PAGE = """
+        SELECT id, sku, version, price, weight_kg, stock_quantity, status,
+               created_at, updated_at, name, category, description
+        FROM products
+        WHERE id > ?
+        ORDER BY id
+        LIMIT ?
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int pageSize;
+
+    private DataOutputStream out;
+    private long[] ids;
+    private int[] offsets;
+    private int[] skuHashes;
+    private int count;
+    private long lastId;
+    private Map<byte[], IntList> categories;
+
+    CatalogSnapshotWriter(JdbcTemplate jdbcTemplate, int pageSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.pageSize = pageSize;
+    }
+
+    void write(Path target) throws IOException {
+        Files.createDirectories(target.toAbsolutePath().getParent());
+        Path temp = Files.createTempFile(
+            target.toAbsolutePath().getParent(),
+            target.getFileName().toString(),
+            ".tmp"
+        );
+        try {
+            writeTo(temp);
+            Files.move(
+                temp,
+                target,
+                StandardCopyOption.ATOMIC_MOVE,
+                StandardCopyOption.REPLACE_EXISTING
+            );
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private void writeTo(Path file) throws IOException {
+        ids = new long[1024];
+        offsets = new int[1024];
+        skuHashes = new int[1024];
+        count = 0;
+        lastId = 0;
+        categories = new TreeMap<>(Arrays::compareUnsigned);
+
+        try (
+            FileChannel channel = FileChannel.open(
+                file,
+                StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING
+            )
+        ) {
+            out = new DataOutputStream(
+                new BufferedOutputStream(
+                    Channels.newOutputStream(channel),
+                    1 << 16
+                )
+            );
+            out.write(new byte[HEADER_LENGTH]);
+
+            int fetched;
+            do {
+                int before = count;
+                try {
+                    jdbcTemplate.query(
+                        SELECT_PAGE,
+                        this::writeRecord,
+                        lastId,
+                        pageSize
+                    );
+                } catch (UncheckedIOException e) {
+                    throw e.getCause();
+                }
+                fetched = count - before;
+            } while (fetched == pageSize);
+
+            int idIndex = position();
+            for (int i = 0; i < count; i++) {
+                out.writeLong(ids[i]);
+                out.writeInt(offsets[i]);
+            }
+
+            int skuTable = position();
+            int skuSlots = skuSlots(count);
+            writeSkuTable(skuSlots);
+
+            int categoryDirectory = position();
+            writeCategories(categoryDirectory);
+            position();
+            out.flush();
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+            header.putInt(HEADER_MAGIC, MAGIC);
+            header.putInt(HEADER_VERSION, FORMAT_VERSION);
+            header.putLong(HEADER_BUILT_AT, System.currentTimeMillis());
+            header.putInt(HEADER_PRODUCT_COUNT, count);
+            header.putInt(HEADER_ID_INDEX, idIndex);
+            header.putInt(HEADER_SKU_TABLE, skuTable);
+            header.putInt(HEADER_SKU_SLOTS, skuSlots);
+            header.putInt(HEADER_CATEGORIES, categoryDirectory);
+            header.putInt(HEADER_CATEGORY_COUNT, categories.size());
+            channel.write(header, 0);
+            channel.force(false);
+        } finally {
+            out = null;
+            categories = null;
+        }
+    }
+
+    private void writeRecord(ResultSet rs) throws SQLException {
+        try {
+            if (count == ids.length) {
+                ids = Arrays.copyOf(ids, count * 2);
+                offsets = Arrays.copyOf(offsets, count * 2);
+                skuHashes = Arrays.copyOf(skuHashes, count * 2);
+            }
+            int offset = position();
+            long id = rs.getLong("id");
+            String sku = rs.getString("sku");
+            String category = rs.getString("category");
+
+            out.writeLong(id);
+            writeString(sku);
+            long version = rs.getLong("version");
+            out.writeLong(rs.wasNull() ? Long.MIN_VALUE : version);
+            writeDecimal(rs.getBigDecimal("price"));
+            writeDecimal(rs.getBigDecimal("weight_kg"));
+            out.writeInt(rs.getInt("stock_quantity"));
+            out.writeByte(rs.getShort("status"));
+            writeTimestamp(rs.getTimestamp("created_at"));
+            writeTimestamp(rs.getTimestamp("updated_at"));
+            writeString(rs.getString("name"));
+            writeString(category);
+            writeString(rs.getString("description"));
+
+            ids[count] = id;
+            offsets[count] = offset;
+            skuHashes[count] = sku != null ? hash(utf8(sku)) : 0;
+            if (category != null) {
+                categories
+                    .computeIfAbsent(utf8(category), c -> new IntList())
+                    .add(offset);
+            }
+            count++;
+            lastId = id;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeSkuTable(int slots) throws IOException {
+        int[] slotHashes = new int[slots];
+        int[] slotOffsets = new int[slots];
+        int mask = slots - 1;
+        for (int i = 0; i < count; i++) {
+            int slot = skuHashes[i] & mask;
+            while (slotOffsets[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slotHashes[slot] = skuHashes[i];
+            slotOffsets[slot] = offsets[i];
+        }
+        for (int slot = 0; slot < slots; slot++) {
+            out.writeInt(slotHashes[slot]);
+            out.writeInt(slotOffsets[slot]);
+        }
+    }
+
+    private void writeCategories(int directory) throws IOException {
+        int cursor = directory + categories.size() * CATEGORY_ENTRY_LENGTH;
+        int[] nameOffsets = new int[categories.size()];
+        int i = 0;
+        for (byte[] name : categories.keySet()) {
+            nameOffsets[i++] = cursor;
+            cursor += Integer.BYTES + name.length;
+        }
+        i = 0;
+        for (IntList postings : categories.values()) {
+            out.writeInt(nameOffsets[i++]);
+            out.writeInt(cursor);
+            out.writeInt(postings.size);
+            cursor += postings.size * Integer.BYTES;
+        }
+        for (byte[] name : categories.keySet()) {
+            out.writeInt(name.length);
+            out.write(name);
+        }
+        for (IntList postings : categories.values()) {
+            for (int p = 0; p < postings.size; p++) {
+                out.writeInt(postings.values[p]);
+            }
+        }
+    }
+
+    private void writeString(String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = utf8(value);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private void writeDecimal(BigDecimal value) throws IOException {
+        if (value == null) {
+            out.writeByte(NULL_SCALE);
+            return;
+        }
+        out.writeByte(value.scale());
+        out.writeLong(value.unscaledValue().longValueExact());
+    }
+
+    private void writeTimestamp(Timestamp value) throws IOException {
+        if (value == null) {
+            out.writeLong(NULL_TIMESTAMP);
+            return;
+        }
+        LocalDateTime time = value.toLocalDateTime();
+        out.writeLong(
+            time.toEpochSecond(ZoneOffset.UTC) * 1_000_000 +
+                time.getNano() / 1_000
+        );
+    }
+
+    /** Current write position; fails once the file outgrows one mapping. */
+    private int position() {
+        int size = out.size();
+        if (size == Integer.MAX_VALUE) {
+            throw new IllegalStateException(
+                "Catalog does not fit into a single snapshot file"
+            );
+        }
+        return size;
+    }
+
+    private static final class IntList {
+
+        private int[] values = new int[8];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package crudjava.crudjava.concurrency;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Concurrency limit that follows latency, in the style of the gradient
+ * algorithm from Netflix concurrency-limits. A slow moving average of the
+ * round-trip time is compared with each new sample; when samples get slower
+ * than the long-term average the limit shrinks proportionally, and when they
+ * are not slower it grows by roughly the square root of the limit. Dropped
+ * calls (errors, timeouts) cut the limit by 10%. The limit never leaves
+ * [minLimit, maxLimit], so maxLimit doubles as a static bulkhead.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final int LONG_WINDOW = 600;
+    private static final double LONG_RTT_DECAY = 2.0 / (LONG_WINDOW + 1);
+    private static final double BACKOFF_RATIO = 0.9;
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double smoothing;
+    private final double rttTolerance;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile double limit;
+    private double longRttNanos;
+
+    public AdaptiveConcurrencyLimiter(
+        String name,
+        int initialLimit,
+        int minLimit,
+        int maxLimit,
+        double smoothing,
+        double rttTolerance
+    ) {
+        this.name = name;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.smoothing = smoothing;
+        this.rttTolerance = rttTolerance;
+        this.limit = Math.max(minLimit, Math.min(initialLimit, maxLimit));
+    }
+
+    /**
+     * @return a permit that must be released exactly once, or {@code null}
+     *     when the limit is reached
+     */
+    public Permit tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                return null;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return new Permit(current + 1);
+            }
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private void onSample(long rttNanos, int inFlightAtStart, boolean dropped) {
+        lock.lock();
+        try {
+            double currentLimit = limit;
+            if (dropped) {
+                limit = Math.max(minLimit, currentLimit * BACKOFF_RATIO);
+                return;
+            }
+            if (longRttNanos == 0) {
+                longRttNanos = rttNanos;
+            } else {
+                longRttNanos += (rttNanos - longRttNanos) * LONG_RTT_DECAY;
+            }
+            // Let the baseline recover after a sustained slowdown instead of
+            // treating the new, higher latency as normal forever.
+            if (longRttNanos / rttNanos > 2) {
+                longRttNanos *= 0.95;
+            }
+
+            double gradient = Math.max(
+                0.5,
+                Math.min(1.0, (rttTolerance * longRttNanos) / rttNanos)
+            );
+            double newLimit = currentLimit * gradient + Math.sqrt(currentLimit);
+            if (newLimit > currentLimit && inFlightAtStart < currentLimit / 2) {
+                // Not using the current limit, so latency says nothing about it.
+                return;
+            }
+            newLimit = currentLimit * (1 - smoothing) + newLimit * smoothing;
+            limit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public final class Permit {
+
+        private final long startNanos = System.nanoTime();
+        private final int inFlightAtStart;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(int inFlightAtStart) {
+            this.inFlightAtStart = inFlightAtStart;
+        }
+
+        public void release() {
+            release(false);
+        }
+
+        public void releaseDropped() {
+            release(true);
+        }
+
+        private void release(boolean dropped) {
+            if (!released.compareAndSet(false, true)) {
+                return;
+            }
+            inFlight.decrementAndGet();
+            onSample(System.nanoTime() - startNanos, inFlightAtStart, dropped);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package crudjava.crudjava.concurrency;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.sql.DataSource;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * Admits at most as many callers into the connection pool as it has
+ * connections. With virtual threads there is no thread pool left to bound
+ * concurrency, so thousands of requests could otherwise pile into the pool's
+ * wait queue; here they queue fairly on a semaphore and the permit is
+ * returned when the connection is closed.
+ */
+public class ConnectionLimitingDataSource extends DelegatingDataSource {
+
+    private final Semaphore permits;
+    private final long acquireTimeoutNanos;
+
+    public ConnectionLimitingDataSource(
+        DataSource target,
+        int maxConnections,
+        Duration acquireTimeout
+    ) {
+        super(target);
+        this.permits = new Semaphore(maxConnections, true);
+        this.acquireTimeoutNanos = acquireTimeout.toNanos();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquire();
+        try {
+            return releasingOnClose(obtainTargetDataSource().getConnection());
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password)
+        throws SQLException {
+        acquire();
+        try {
+            return releasingOnClose(
+                obtainTargetDataSource().getConnection(username, password)
+            );
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    public int getAvailablePermits() {
+        return permits.availablePermits();
+    }
+
+    public int getWaitingThreads() {
+        return permits.getQueueLength();
+    }
+
+    private void acquire() throws SQLException {
+        try {
+            if (!permits.tryAcquire(acquireTimeoutNanos, TimeUnit.NANOSECONDS)) {
+                throw new SQLTransientConnectionException(
+                    "Timed out waiting for a database connection permit"
+                );
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException(
+                "Interrupted while waiting for a database connection permit",
+                e
+            );
+        }
+    }
+
+    private Connection releasingOnClose(Connection connection) {
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(
+            Connection.class.getClassLoader(),
+            new Class<?>[] { Connection.class },
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "equals":
+                        return proxy == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    default:
+                        break;
+                }
+                if (
+                    "close".equals(method.getName()) &&
+                    released.compareAndSet(false, true)
+                ) {
+                    try {
+                        connection.close();
+                    } finally {
+                        permits.release();
+                    }
+                    return null;
+                }
+                if (
+                    "unwrap".equals(method.getName()) &&
+                    Connection.class.equals(args[0])
+                ) {
+                    return connection;
+                }
+                try {
+                    return method.invoke(connection, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getTargetException();
+                }
+            }
+        );
+    }
+}
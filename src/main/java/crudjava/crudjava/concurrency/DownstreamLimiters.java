@@ -0,0 +1,103 @@
+package crudjava.crudjava.concurrency;
+
+import crudjava.crudjava.config.ConcurrencyLimitProperties;
+import crudjava.crudjava.exception.ConcurrencyLimitExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One {@link AdaptiveConcurrencyLimiter} per downstream system, configured
+ * under {@code app.concurrency.downstreams.<name>}.
+ */
+public class DownstreamLimiters {
+
+    public static final String POSTGRES = "postgres";
+    public static final String REDIS = "redis";
+    public static final String RABBITMQ = "rabbitmq";
+
+    private final ConcurrencyLimitProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, AdaptiveConcurrencyLimiter> limiters =
+        new ConcurrentHashMap<>();
+    private final Map<String, Counter> rejectedCounters =
+        new ConcurrentHashMap<>();
+
+    public DownstreamLimiters(
+        ConcurrencyLimitProperties properties,
+        MeterRegistry meterRegistry
+    ) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public AdaptiveConcurrencyLimiter limiter(String downstream) {
+        return limiters.computeIfAbsent(downstream, this::createLimiter);
+    }
+
+    /**
+     * Acquires a permit or sheds the call with
+     * {@link ConcurrencyLimitExceededException}.
+     */
+    public AdaptiveConcurrencyLimiter.Permit acquire(String downstream) {
+        AdaptiveConcurrencyLimiter.Permit permit = limiter(downstream).tryAcquire();
+        if (permit == null) {
+            throw rejected(downstream);
+        }
+        return permit;
+    }
+
+    public ConcurrencyLimitExceededException rejected(String downstream) {
+        rejectedCounters
+            .computeIfAbsent(downstream, name ->
+                Counter.builder("downstream.concurrency.rejected")
+                    .tag("downstream", name)
+                    .register(meterRegistry)
+            )
+            .increment();
+        return new ConcurrencyLimitExceededException(
+            downstream,
+            properties.getRetryAfterSeconds()
+        );
+    }
+
+    private AdaptiveConcurrencyLimiter createLimiter(String downstream) {
+        ConcurrencyLimitProperties.Downstream config = properties.downstream(
+            downstream
+        );
+        AdaptiveConcurrencyLimiter limiter = properties.isEnabled()
+            ? new AdaptiveConcurrencyLimiter(
+                downstream,
+                config.getInitialLimit(),
+                config.getMinLimit(),
+                config.getMaxLimit(),
+                config.getSmoothing(),
+                config.getRttTolerance()
+            )
+            : new AdaptiveConcurrencyLimiter(
+                downstream,
+                Integer.MAX_VALUE,
+                Integer.MAX_VALUE,
+                Integer.MAX_VALUE,
+                config.getSmoothing(),
+                config.getRttTolerance()
+            );
+        Gauge.builder(
+            "downstream.concurrency.limit",
+            limiter,
+            AdaptiveConcurrencyLimiter::getLimit
+        )
+            .tag("downstream", downstream)
+            .register(meterRegistry);
+        Gauge.builder(
+            "downstream.concurrency.in_flight",
+            limiter,
+            AdaptiveConcurrencyLimiter::getInFlight
+        )
+            .tag("downstream", downstream)
+            .register(meterRegistry);
+        return limiter;
+    }
+}
@@ -0,0 +1,104 @@
+package crudjava.crudjava.concurrency;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+
+/**
+ * Streams {@code jdk.VirtualThreadPinned} JFR events, which the JVM emits when
+ * a virtual thread blocks while it cannot unmount from its carrier, typically
+ * inside a {@code synchronized} block or a native frame such as a JDBC driver
+ * call. Each event is logged with its top application frames and counted per
+ * frame so the offending code shows up in metrics.
+ */
+@Slf4j
+public class VirtualThreadPinningMonitor
+    implements InitializingBean, DisposableBean {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int LOGGED_FRAMES = 8;
+
+    private final MeterRegistry meterRegistry;
+    private final Duration threshold;
+    private RecordingStream recordingStream;
+
+    public VirtualThreadPinningMonitor(
+        MeterRegistry meterRegistry,
+        Duration threshold
+    ) {
+        this.meterRegistry = meterRegistry;
+        this.threshold = threshold;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        recordingStream = new RecordingStream();
+        recordingStream.enable(PINNED_EVENT)
+            .withThreshold(threshold)
+            .withStackTrace();
+        recordingStream.onEvent(PINNED_EVENT, this::onPinned);
+        recordingStream.startAsync();
+        log.info("Monitoring virtual thread pinning longer than {}", threshold);
+    }
+
+    @Override
+    public void destroy() {
+        if (recordingStream != null) {
+            recordingStream.close();
+        }
+    }
+
+    private void onPinned(RecordedEvent event) {
+        List<RecordedFrame> frames = event.getStackTrace() != null
+            ? event.getStackTrace().getFrames()
+            : List.of();
+        String site = frames
+            .stream()
+            .filter(frame -> frame.isJavaFrame() && !isJdkFrame(frame))
+            .findFirst()
+            .map(VirtualThreadPinningMonitor::describe)
+            .orElse("unknown");
+
+        meterRegistry
+            .counter("jvm.threads.virtual.pinned", "site", site)
+            .increment();
+        log.warn(
+            "Virtual thread pinned for {} ms at {}:\n\t{}",
+            event.getDuration().toMillis(),
+            site,
+            String.join(
+                "\n\t",
+                frames
+                    .stream()
+                    .limit(LOGGED_FRAMES)
+                    .map(VirtualThreadPinningMonitor::describe)
+                    .toList()
+            )
+        );
+    }
+
+    private static boolean isJdkFrame(RecordedFrame frame) {
+        String type = frame.getMethod().getType().getName();
+        return (
+            type.startsWith("java.") ||
+            type.startsWith("jdk.") ||
+            type.startsWith("sun.")
+        );
+    }
+
+    private static String describe(RecordedFrame frame) {
+        return (
+            frame.getMethod().getType().getName() +
+            "." +
+            frame.getMethod().getName() +
+            ":" +
+            frame.getLineNumber()
+        );
+    }
+}
@@ -0,0 +1,153 @@
+package crudjava.crudjava.config;
+
+import crudjava.crudjava.concurrency.AdaptiveConcurrencyLimiter;
+import crudjava.crudjava.concurrency.DownstreamLimiters;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.sql.Connection;
+import javax.sql.DataSource;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+
+/**
+ * Puts adaptive concurrency limits in front of Postgres and Redis by wrapping
+ * their connection factories: a permit is taken when a connection is obtained
+ * and released, with the hold time as latency sample, when it is closed.
+ * Calls over the limit fail immediately and surface as 503 with Retry-After.
+ * RabbitMQ publishing is limited inside {@code EventPublisher}.
+ */
+@Configuration
+@EnableConfigurationProperties(ConcurrencyLimitProperties.class)
+public class ConcurrencyLimitConfig {
+
+    @Bean
+    public DownstreamLimiters downstreamLimiters(
+        ConcurrencyLimitProperties properties,
+        MeterRegistry meterRegistry
+    ) {
+        return new DownstreamLimiters(properties, meterRegistry);
+    }
+
+    @Bean
+    public static BeanPostProcessor downstreamLimitingPostProcessor(
+        ObjectProvider<DownstreamLimiters> downstreamLimiters,
+        @Value("${app.concurrency.enabled:true}") boolean enabled
+    ) {
+        return new DownstreamLimitingPostProcessor(downstreamLimiters, enabled);
+    }
+
+    /**
+     * Ordered, so it runs after the PriorityOrdered connection limiter in
+     * {@link VirtualThreadConfig} and proxies the already wrapped pool.
+     */
+    private static final class DownstreamLimitingPostProcessor
+        implements BeanPostProcessor, Ordered {
+
+        private final ObjectProvider<DownstreamLimiters> downstreamLimiters;
+        private final boolean enabled;
+
+        private DownstreamLimitingPostProcessor(
+            ObjectProvider<DownstreamLimiters> downstreamLimiters,
+            boolean enabled
+        ) {
+            this.downstreamLimiters = downstreamLimiters;
+            this.enabled = enabled;
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.LOWEST_PRECEDENCE;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(
+            Object bean,
+            String beanName
+        ) {
+            if (!enabled) {
+                return bean;
+            }
+            if (bean instanceof DataSource) {
+                return limited(
+                    bean,
+                    "getConnection",
+                    Connection.class,
+                    DownstreamLimiters.POSTGRES,
+                    downstreamLimiters
+                );
+            }
+            if (bean instanceof RedisConnectionFactory) {
+                return limited(
+                    bean,
+                    "getConnection",
+                    RedisConnection.class,
+                    DownstreamLimiters.REDIS,
+                    downstreamLimiters
+                );
+            }
+            return bean;
+        }
+    }
+
+    private static Object limited(
+        Object target,
+        String acquireMethod,
+        Class<?> resourceType,
+        String downstream,
+        ObjectProvider<DownstreamLimiters> downstreamLimiters
+    ) {
+        ProxyFactory factory = new ProxyFactory(target);
+        factory.addAdvice(
+            (MethodInterceptor) invocation -> {
+                if (
+                    !acquireMethod.equals(invocation.getMethod().getName()) ||
+                    !resourceType.isAssignableFrom(
+                        invocation.getMethod().getReturnType()
+                    )
+                ) {
+                    return invocation.proceed();
+                }
+                AdaptiveConcurrencyLimiter.Permit permit = downstreamLimiters
+                    .getObject()
+                    .acquire(downstream);
+                Object resource;
+                try {
+                    resource = invocation.proceed();
+                } catch (Throwable e) {
+                    permit.releaseDropped();
+                    throw e;
+                }
+                return releasingOnClose(resource, permit);
+            }
+        );
+        return factory.getProxy();
+    }
+
+    private static Object releasingOnClose(
+        Object resource,
+        AdaptiveConcurrencyLimiter.Permit permit
+    ) {
+        ProxyFactory factory = new ProxyFactory(resource);
+        factory.addAdvice(
+            (MethodInterceptor) invocation -> {
+                if (!"close".equals(invocation.getMethod().getName())) {
+                    return invocation.proceed();
+                }
+                try {
+                    return invocation.proceed();
+                } finally {
+                    permit.release();
+                }
+            }
+        );
+        return factory.getProxy();
+    }
+}
@@ -0,0 +1,29 @@
+package crudjava.crudjava.config;
+
+import java.util.HashMap;
+import java.util.Map;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "app.concurrency")
+public class ConcurrencyLimitProperties {
+
+    private boolean enabled = true;
+    private int retryAfterSeconds = 1;
+    private Map<String, Downstream> downstreams = new HashMap<>();
+
+    public Downstream downstream(String name) {
+        return downstreams.getOrDefault(name, new Downstream());
+    }
+
+    @Data
+    public static class Downstream {
+
+        private int initialLimit = 20;
+        private int minLimit = 2;
+        private int maxLimit = 100;
+        private double smoothing = 0.2;
+        private double rttTolerance = 1.5;
+    }
+}
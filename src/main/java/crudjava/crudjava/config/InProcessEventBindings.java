@@ -0,0 +1,59 @@
+package crudjava.crudjava.config;
+
+import crudjava.crudjava.dto.EmailNotificationDto;
+import crudjava.crudjava.dto.InventoryEventDto;
+import crudjava.crudjava.dto.OrderEventDto;
+import crudjava.crudjava.listener.InventoryEventListener;
+import crudjava.crudjava.listener.OrderEventListener;
+import crudjava.crudjava.live.LiveUpdateHub;
+import crudjava.crudjava.messaging.InProcessEventTransport;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+@Configuration
+@Profile(InProcessEventTransport.PROFILE)
+public class InProcessEventBindings {
+
+    public InProcessEventBindings(
+        InProcessEventTransport transport,
+        OrderEventListener orderEventListener,
+        InventoryEventListener inventoryEventListener,
+        LiveUpdateHub liveUpdateHub
+    ) {
+        transport.subscribe(
+            RabbitConfig.ORDER_CREATED_ROUTING_KEY,
+            OrderEventDto.class,
+            events -> events.forEach(orderEventListener::handleOrderCreated)
+        );
+        transport.subscribe(
+            RabbitConfig.ORDER_STATUS_CHANGED_ROUTING_KEY,
+            OrderEventDto.class,
+            events ->
+                events.forEach(event -> {
+                    liveUpdateHub.onOrderEvent(event);
+                    orderEventListener.handleOrderStatusChanged(event);
+                })
+        );
+        transport.subscribe(
+            RabbitConfig.INVENTORY_UPDATE_ROUTING_KEY,
+            InventoryEventDto.class,
+            events -> {
+                events.forEach(liveUpdateHub::onInventoryEvent);
+                inventoryEventListener.processInventoryUpdates(
+                    RabbitConfig.INVENTORY_UPDATE_QUEUE,
+                    events
+                );
+            }
+        );
+        transport.subscribe(
+            RabbitConfig.LOW_STOCK_ALERT_ROUTING_KEY,
+            InventoryEventDto.class,
+            events -> events.forEach(inventoryEventListener::handleLowStockAlert)
+        );
+        transport.subscribe(
+            RabbitConfig.EMAIL_NOTIFICATION_ROUTING_KEY,
+            EmailNotificationDto.class,
+            events -> events.forEach(inventoryEventListener::handleEmailNotification)
+        );
+    }
+}
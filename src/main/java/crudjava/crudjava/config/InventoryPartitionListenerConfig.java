@@ -0,0 +1,65 @@
+package crudjava.crudjava.config;
+
+import crudjava.crudjava.dto.InventoryEventDto;
+import crudjava.crudjava.listener.InventoryEventListener;
+import crudjava.crudjava.messaging.InventoryPartitioner;
+import java.util.List;
+import org.springframework.amqp.core.BatchMessageListener;
+import org.springframework.amqp.rabbit.annotation.RabbitListenerConfigurer;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerEndpoint;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistrar;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class InventoryPartitionListenerConfig implements RabbitListenerConfigurer {
+
+    private final InventoryPartitioner partitioner;
+    private final InventoryEventListener inventoryEventListener;
+    private final MessageConverter messageConverter;
+    private final SimpleRabbitListenerContainerFactory containerFactory;
+
+    public InventoryPartitionListenerConfig(
+        InventoryPartitioner partitioner,
+        InventoryEventListener inventoryEventListener,
+        MessageConverter messageConverter,
+        @Qualifier(
+            RabbitListenerConfig.INVENTORY_PARTITION_FACTORY
+        ) SimpleRabbitListenerContainerFactory containerFactory
+    ) {
+        this.partitioner = partitioner;
+        this.inventoryEventListener = inventoryEventListener;
+        this.messageConverter = messageConverter;
+        this.containerFactory = containerFactory;
+    }
+
+    @Override
+    public void configureRabbitListeners(RabbitListenerEndpointRegistrar registrar) {
+        for (String queue : partitioner.queueNames()) {
+            SimpleRabbitListenerEndpoint endpoint =
+                new SimpleRabbitListenerEndpoint();
+            endpoint.setId(queue);
+            endpoint.setQueueNames(queue);
+            endpoint.setBatchListener(true);
+            endpoint.setMessageListener(
+                (BatchMessageListener) messages -> {
+                    List<InventoryEventDto> events = messages
+                        .stream()
+                        .map(message ->
+                            (InventoryEventDto) messageConverter.fromMessage(
+                                message
+                            )
+                        )
+                        .toList();
+                    inventoryEventListener.processInventoryUpdates(
+                        queue,
+                        events
+                    );
+                }
+            );
+            registrar.registerEndpoint(endpoint, containerFactory);
+        }
+    }
+}
@@ -1,10 +1,17 @@
 package crudjava.crudjava.config;
 
+import crudjava.crudjava.messaging.BinaryEventMessageConverter;
+import crudjava.crudjava.messaging.InventoryPartitioner;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import org.springframework.amqp.core.*;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.ContentTypeDelegatingMessageConverter;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -14,6 +21,7 @@ public class RabbitConfig {
     public static final String ORDER_EXCHANGE = "order.exchange";
     public static final String INVENTORY_EXCHANGE = "inventory.exchange";
     public static final String NOTIFICATION_EXCHANGE = "notification.exchange";
+    public static final String INVENTORY_PARTITIONED_EXCHANGE = "inventory.partitioned.exchange";
 
     public static final String ORDER_CREATED_QUEUE = "order.created.queue";
     public static final String ORDER_STATUS_CHANGED_QUEUE = "order.status.changed.queue";
@@ -27,15 +35,65 @@ public class RabbitConfig {
     public static final String LOW_STOCK_ALERT_ROUTING_KEY = "low.stock.alert";
     public static final String EMAIL_NOTIFICATION_ROUTING_KEY = "email.notification";
 
+    public static final String WIRE_FORMAT_BINARY = "binary";
+
+    public static final String PARKING_LOT_QUEUE = "parking.lot.queue";
+
+    public static final String RETRY_ATTEMPT_HEADER = "x-retry-attempt";
+    public static final String ORIGINAL_QUEUE_HEADER = "x-original-queue";
+    public static final String FAILURE_REASON_HEADER = "x-failure-reason";
+
+    public static final List<String> CONSUMER_QUEUES = List.of(
+        ORDER_CREATED_QUEUE,
+        ORDER_STATUS_CHANGED_QUEUE,
+        INVENTORY_UPDATE_QUEUE,
+        LOW_STOCK_ALERT_QUEUE,
+        EMAIL_NOTIFICATION_QUEUE
+    );
+
+    public static String deadLetterExchangeName(String queue) {
+        return queue + ".dlx";
+    }
+
+    public static String deadLetterQueueName(String queue) {
+        return queue + ".dlq";
+    }
+
+    public static String retryQueueName(String queue, int tier) {
+        return queue + ".retry." + tier;
+    }
+
+    /**
+     * Inbound messages are decoded by their content type, so JSON and binary
+     * producers can coexist during a rollout; outbound messages use the
+     * format selected by {@code app.messaging.wire-format}.
+     */
     @Bean
-    public MessageConverter jsonMessageConverter() {
-        return new Jackson2JsonMessageConverter();
+    public MessageConverter messageConverter(
+        @Value("${app.messaging.wire-format:json}") String wireFormat,
+        @Value("${app.messaging.binary.compression-threshold:512}") int compressionThreshold
+    ) {
+        MessageConverter json = new Jackson2JsonMessageConverter();
+        MessageConverter binary = new BinaryEventMessageConverter(
+            compressionThreshold
+        );
+        ContentTypeDelegatingMessageConverter converter =
+            new ContentTypeDelegatingMessageConverter(
+                WIRE_FORMAT_BINARY.equals(wireFormat) ? binary : json
+            );
+        converter.addDelegate(MessageProperties.CONTENT_TYPE_JSON, json);
+        converter.addDelegate(BinaryEventMessageConverter.CONTENT_TYPE, binary);
+        return converter;
     }
 
     @Bean
-    public RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory) {
+    public RabbitTemplate rabbitTemplate(
+        ConnectionFactory connectionFactory,
+        MessageConverter messageConverter
+    ) {
         RabbitTemplate rabbitTemplate = new RabbitTemplate(connectionFactory);
-        rabbitTemplate.setMessageConverter(jsonMessageConverter());
+        rabbitTemplate.setMessageConverter(messageConverter);
+        rabbitTemplate.setMandatory(true);
         return rabbitTemplate;
     }
 
@@ -56,27 +114,27 @@ public class RabbitConfig {
 
     @Bean
     public Queue orderCreatedQueue() {
-        return QueueBuilder.durable(ORDER_CREATED_QUEUE).build();
+        return consumerQueue(ORDER_CREATED_QUEUE);
     }
 
     @Bean
     public Queue orderStatusChangedQueue() {
-        return QueueBuilder.durable(ORDER_STATUS_CHANGED_QUEUE).build();
+        return consumerQueue(ORDER_STATUS_CHANGED_QUEUE);
     }
 
     @Bean
     public Queue inventoryUpdateQueue() {
-        return QueueBuilder.durable(INVENTORY_UPDATE_QUEUE).build();
+        return consumerQueue(INVENTORY_UPDATE_QUEUE);
     }
 
     @Bean
     public Queue lowStockAlertQueue() {
-        return QueueBuilder.durable(LOW_STOCK_ALERT_QUEUE).build();
+        return consumerQueue(LOW_STOCK_ALERT_QUEUE);
     }
 
     @Bean
     public Queue emailNotificationQueue() {
-        return QueueBuilder.durable(EMAIL_NOTIFICATION_QUEUE).build();
+        return consumerQueue(EMAIL_NOTIFICATION_QUEUE);
     }
 
     @Bean
@@ -113,4 +171,73 @@ public class RabbitConfig {
                 .to(notificationExchange())
                 .with(EMAIL_NOTIFICATION_ROUTING_KEY);
     }
+
+    @Bean
+    public Queue parkingLotQueue() {
+        return QueueBuilder.durable(PARKING_LOT_QUEUE).build();
+    }
+
+    @Bean
+    public Declarables inventoryPartitionTopology(InventoryPartitioner partitioner) {
+        if (!partitioner.isEnabled()) {
+            return new Declarables();
+        }
+        List<Declarable> declarables = new ArrayList<>();
+        TopicExchange exchange = new TopicExchange(INVENTORY_PARTITIONED_EXCHANGE);
+        declarables.add(exchange);
+        for (int partition = 0; partition < partitioner.getPartitions(); partition++) {
+            Queue queue = QueueBuilder.durable(partitioner.queueName(partition))
+                .deadLetterExchange(deadLetterExchangeName(partitioner.queueName(partition)))
+                .singleActiveConsumer()
+                .build();
+            declarables.add(queue);
+            declarables.add(
+                BindingBuilder.bind(queue)
+                    .to(exchange)
+                    .with(InventoryPartitioner.PARTITION_ROUTING_KEY_PREFIX + partition)
+            );
+        }
+        return new Declarables(declarables);
+    }
+
+    @Bean
+    public Declarables deadLetterTopology(
+        InventoryPartitioner partitioner,
+        @Value("${app.messaging.retry.delays:1s,10s,60s}") List<Duration> retryDelays
+    ) {
+        List<String> queues = new ArrayList<>(CONSUMER_QUEUES);
+        queues.addAll(partitioner.queueNames());
+
+        List<Declarable> declarables = new ArrayList<>();
+        for (String queue : queues) {
+            FanoutExchange deadLetterExchange = new FanoutExchange(
+                deadLetterExchangeName(queue)
+            );
+            Queue deadLetterQueue = QueueBuilder.durable(
+                deadLetterQueueName(queue)
+            ).build();
+            declarables.add(deadLetterExchange);
+            declarables.add(deadLetterQueue);
+            declarables.add(
+                BindingBuilder.bind(deadLetterQueue).to(deadLetterExchange)
+            );
+
+            for (int tier = 0; tier < retryDelays.size(); tier++) {
+                declarables.add(
+                    QueueBuilder.durable(retryQueueName(queue, tier))
+                        .ttl((int) retryDelays.get(tier).toMillis())
+                        .deadLetterExchange("")
+                        .deadLetterRoutingKey(queue)
+                        .build()
+                );
+            }
+        }
+        return new Declarables(declarables);
+    }
+
+    private Queue consumerQueue(String name) {
+        return QueueBuilder.durable(name)
+            .deadLetterExchange(deadLetterExchangeName(name))
+            .build();
+    }
 }
@@ -0,0 +1,138 @@
+package crudjava.crudjava.config;
+
+import crudjava.crudjava.messaging.DelayedRetryRecoverer;
+import org.springframework.amqp.rabbit.config.RetryInterceptorBuilder;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.retry.MessageBatchRecoverer;
+import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+@Configuration
+public class RabbitListenerConfig {
+
+    public static final String ORDER_CREATED_FACTORY =
+        "orderCreatedListenerContainerFactory";
+    public static final String ORDER_STATUS_CHANGED_FACTORY =
+        "orderStatusChangedListenerContainerFactory";
+    public static final String INVENTORY_UPDATE_FACTORY =
+        "inventoryUpdateListenerContainerFactory";
+    public static final String LOW_STOCK_ALERT_FACTORY =
+        "lowStockAlertListenerContainerFactory";
+    public static final String EMAIL_NOTIFICATION_FACTORY =
+        "emailNotificationListenerContainerFactory";
+    public static final String INVENTORY_PARTITION_FACTORY =
+        "inventoryPartitionListenerContainerFactory";
+
+    private static final String PROPERTY_PREFIX = "app.messaging.listener.";
+
+    private final SimpleRabbitListenerContainerFactoryConfigurer configurer;
+    private final ConnectionFactory connectionFactory;
+    private final Environment environment;
+    private final DelayedRetryRecoverer retryRecoverer;
+
+    public RabbitListenerConfig(
+        SimpleRabbitListenerContainerFactoryConfigurer configurer,
+        ConnectionFactory connectionFactory,
+        Environment environment,
+        DelayedRetryRecoverer retryRecoverer
+    ) {
+        this.configurer = configurer;
+        this.connectionFactory = connectionFactory;
+        this.environment = environment;
+        this.retryRecoverer = retryRecoverer;
+    }
+
+    @Bean(ORDER_CREATED_FACTORY)
+    public SimpleRabbitListenerContainerFactory orderCreatedListenerContainerFactory() {
+        return containerFactory("order-created");
+    }
+
+    @Bean(ORDER_STATUS_CHANGED_FACTORY)
+    public SimpleRabbitListenerContainerFactory orderStatusChangedListenerContainerFactory() {
+        return containerFactory("order-status-changed");
+    }
+
+    @Bean(INVENTORY_UPDATE_FACTORY)
+    public SimpleRabbitListenerContainerFactory inventoryUpdateListenerContainerFactory() {
+        SimpleRabbitListenerContainerFactory factory = containerFactory(
+            "inventory-update"
+        );
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(property("inventory-update", "batch-size", 100));
+        factory.setReceiveTimeout(
+            (long) property("inventory-update", "receive-timeout-ms", 100)
+        );
+        return factory;
+    }
+
+    // Partitions keep per-product order, so a failed batch is retried in
+    // place, blocking its partition, and parked rather than sent through the
+    // delay queues, from where it would return behind newer events.
+    @Bean(INVENTORY_PARTITION_FACTORY)
+    public SimpleRabbitListenerContainerFactory inventoryPartitionListenerContainerFactory() {
+        SimpleRabbitListenerContainerFactory factory = containerFactory(
+            "inventory-partition"
+        );
+        factory.setAdviceChain(
+            RetryInterceptorBuilder.stateless()
+                .maxAttempts(property("inventory-partition", "retry-attempts", 5))
+                .backOffOptions(
+                    property("inventory-partition", "retry-initial-interval-ms", 1000),
+                    2.0,
+                    property("inventory-partition", "retry-max-interval-ms", 30000)
+                )
+                .recoverer((MessageBatchRecoverer) retryRecoverer::park)
+                .build()
+        );
+        factory.setConcurrentConsumers(1);
+        factory.setMaxConcurrentConsumers(1);
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(property("inventory-partition", "batch-size", 100));
+        factory.setReceiveTimeout(
+            (long) property("inventory-partition", "receive-timeout-ms", 100)
+        );
+        return factory;
+    }
+
+    @Bean(LOW_STOCK_ALERT_FACTORY)
+    public SimpleRabbitListenerContainerFactory lowStockAlertListenerContainerFactory() {
+        return containerFactory("low-stock-alert");
+    }
+
+    @Bean(EMAIL_NOTIFICATION_FACTORY)
+    public SimpleRabbitListenerContainerFactory emailNotificationListenerContainerFactory() {
+        return containerFactory("email-notification");
+    }
+
+    private SimpleRabbitListenerContainerFactory containerFactory(String queue) {
+        SimpleRabbitListenerContainerFactory factory =
+            new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        factory.setConcurrentConsumers(property(queue, "concurrency", 1));
+        factory.setMaxConcurrentConsumers(
+            property(queue, "max-concurrency", 1)
+        );
+        factory.setPrefetchCount(property(queue, "prefetch", 250));
+        factory.setDefaultRequeueRejected(false);
+        factory.setAdviceChain(
+            RetryInterceptorBuilder.stateless()
+                .maxAttempts(1)
+                .recoverer(retryRecoverer)
+                .build()
+        );
+        return factory;
+    }
+
+    private int property(String queue, String name, int defaultValue) {
+        return environment.getProperty(
+            PROPERTY_PREFIX + queue + "." + name,
+            Integer.class,
+            defaultValue
+        );
+    }
+}
@@ -2,15 +2,26 @@ package crudjava.crudjava.config;
 
 import java.time.Duration;
 
+import crudjava.crudjava.cache.ResilientCacheManager;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CachingConfigurer;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.interceptor.CacheErrorHandler;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
@@ -21,7 +32,10 @@ import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 
 @Configuration
 @EnableCaching
-public class RedisConfig {
+@Slf4j
+public class RedisConfig implements CachingConfigurer {
+
+    public static final String REDIS_CACHE_CIRCUIT_BREAKER = "redisCache";
 
     @Value("${spring.data.redis.host}")
     private String redisHost;
@@ -41,12 +55,18 @@ public class RedisConfig {
         return new GenericJackson2JsonRedisSerializer(redisObjectMapper);
     }
 
+    @Value("${app.redis.command-timeout:500ms}")
+    private Duration commandTimeout;
+
     @Bean
     public RedisConnectionFactory redisConnectionFactory() {
         RedisStandaloneConfiguration configuration = new RedisStandaloneConfiguration();
         configuration.setHostName(redisHost);
         configuration.setPort(redisPort);
-        return new LettuceConnectionFactory(configuration);
+        LettuceClientConfiguration clientConfiguration = LettuceClientConfiguration.builder()
+                .commandTimeout(commandTimeout)
+                .build();
+        return new LettuceConnectionFactory(configuration, clientConfiguration);
     }
 
     @Bean
@@ -64,7 +84,14 @@ public class RedisConfig {
     }
 
     @Bean
-    public CacheManager cacheManager(GenericJackson2JsonRedisSerializer redisSerializer) {
+    public CacheManager cacheManager(
+            GenericJackson2JsonRedisSerializer redisSerializer,
+            RedisTemplate<String, Object> redisTemplate,
+            ObjectProvider<CircuitBreakerRegistry> circuitBreakerRegistry,
+            MeterRegistry meterRegistry,
+            @Value("${app.cache.local.max-size:10000}") long localMaxSize,
+            @Value("${app.cache.local.ttl:60s}") Duration localTtl,
+            @Value("${app.cache.max-pending-evictions:10000}") int maxPendingEvictions) {
         RedisCacheConfiguration config = RedisCacheConfiguration.defaultCacheConfig()
                 .entryTtl(Duration.ofHours(1))
                 .serializeKeysWith(org.springframework.data.redis.serializer.RedisSerializationContext.SerializationPair
@@ -72,10 +99,49 @@ public class RedisConfig {
                 .serializeValuesWith(org.springframework.data.redis.serializer.RedisSerializationContext.SerializationPair
                         .fromSerializer(redisSerializer));
 
-        return RedisCacheManager.builder(redisConnectionFactory())
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(redisConnectionFactory())
                 .cacheDefaults(config)
                 .withCacheConfiguration("products", config.entryTtl(Duration.ofMinutes(30)))
                 .withCacheConfiguration("lowStockProducts", config.entryTtl(Duration.ofMinutes(5)))
+                .withCacheConfiguration("stockAvailability", config.entryTtl(Duration.ofSeconds(30)))
                 .build();
+        redisCacheManager.afterPropertiesSet();
+
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry
+                .getIfAvailable(CircuitBreakerRegistry::ofDefaults)
+                .circuitBreaker(REDIS_CACHE_CIRCUIT_BREAKER);
+        return new ResilientCacheManager(
+                redisCacheManager,
+                redisTemplate,
+                circuitBreaker,
+                meterRegistry,
+                localMaxSize,
+                localTtl,
+                maxPendingEvictions);
+    }
+
+    @Override
+    public CacheErrorHandler errorHandler() {
+        return new CacheErrorHandler() {
+            @Override
+            public void handleCacheGetError(RuntimeException exception, Cache cache, Object key) {
+                log.warn("Cache get failed for {}::{}: {}", cache.getName(), key, exception.getMessage());
+            }
+
+            @Override
+            public void handleCachePutError(RuntimeException exception, Cache cache, Object key, Object value) {
+                log.warn("Cache put failed for {}::{}: {}", cache.getName(), key, exception.getMessage());
+            }
+
+            @Override
+            public void handleCacheEvictError(RuntimeException exception, Cache cache, Object key) {
+                log.warn("Cache evict failed for {}::{}: {}", cache.getName(), key, exception.getMessage());
+            }
+
+            @Override
+            public void handleCacheClearError(RuntimeException exception, Cache cache) {
+                log.warn("Cache clear failed for {}: {}", cache.getName(), exception.getMessage());
+            }
+        };
     }
 }
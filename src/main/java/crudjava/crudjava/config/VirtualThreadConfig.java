@@ -0,0 +1,123 @@
+package crudjava.crudjava.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import crudjava.crudjava.concurrency.ConnectionLimitingDataSource;
+import crudjava.crudjava.concurrency.VirtualThreadPinningMonitor;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.sql.SQLException;
+import java.time.Duration;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.PriorityOrdered;
+
+/**
+ * Extras for {@code spring.threads.virtual.enabled=true}. Boot itself then
+ * runs Tomcat requests, the Rabbit listener containers (through the shared
+ * container factory configurer), {@code @Scheduled} tasks and the
+ * {@code applicationTaskExecutor} on virtual threads.
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfig {
+
+    @Bean
+    @ConditionalOnProperty(
+        name = "app.threads.pinning-monitor.enabled",
+        havingValue = "true",
+        matchIfMissing = true
+    )
+    public VirtualThreadPinningMonitor virtualThreadPinningMonitor(
+        MeterRegistry meterRegistry,
+        @Value("${app.threads.pinning-monitor.threshold:20ms}") Duration threshold
+    ) {
+        return new VirtualThreadPinningMonitor(meterRegistry, threshold);
+    }
+
+    @Bean
+    public static BeanPostProcessor connectionLimitingDataSourcePostProcessor(
+        ObjectProvider<MeterRegistry> meterRegistry,
+        @Value("${app.threads.db-permit-timeout:5s}") Duration permitTimeout
+    ) {
+        return new ConnectionLimitingPostProcessor(meterRegistry, permitTimeout);
+    }
+
+    /**
+     * Runs before the Ordered post-processors, so the pool is wrapped while
+     * it is still reachable as a Hikari data source; later proxies then wrap
+     * this limiter rather than hiding the pool from it.
+     */
+    private static final class ConnectionLimitingPostProcessor
+        implements BeanPostProcessor, PriorityOrdered {
+
+        private final ObjectProvider<MeterRegistry> meterRegistry;
+        private final Duration permitTimeout;
+
+        private ConnectionLimitingPostProcessor(
+            ObjectProvider<MeterRegistry> meterRegistry,
+            Duration permitTimeout
+        ) {
+            this.meterRegistry = meterRegistry;
+            this.permitTimeout = permitTimeout;
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(
+            Object bean,
+            String beanName
+        ) {
+            if (
+                !(bean instanceof DataSource dataSource) ||
+                bean instanceof ConnectionLimitingDataSource
+            ) {
+                return bean;
+            }
+            HikariDataSource hikari = unwrapHikari(dataSource);
+            if (hikari == null) {
+                return bean;
+            }
+            ConnectionLimitingDataSource limited =
+                new ConnectionLimitingDataSource(
+                    dataSource,
+                    hikari.getMaximumPoolSize(),
+                    permitTimeout
+                );
+            meterRegistry.ifAvailable(registry -> {
+                Gauge.builder(
+                    "db.connection.permits.available",
+                    limited,
+                    ConnectionLimitingDataSource::getAvailablePermits
+                ).register(registry);
+                Gauge.builder(
+                    "db.connection.permits.waiting",
+                    limited,
+                    ConnectionLimitingDataSource::getWaitingThreads
+                ).register(registry);
+            });
+            return limited;
+        }
+
+        private static HikariDataSource unwrapHikari(DataSource dataSource) {
+            try {
+                return dataSource.isWrapperFor(HikariDataSource.class)
+                    ? dataSource.unwrap(HikariDataSource.class)
+                    : null;
+            } catch (SQLException e) {
+                return null;
+            }
+        }
+    }
+}
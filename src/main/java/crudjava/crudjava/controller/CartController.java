@@ -0,0 +1,72 @@
+package crudjava.crudjava.controller;
+
+import crudjava.crudjava.dto.CartCheckoutRequestDTO;
+import crudjava.crudjava.dto.CartDTO;
+import crudjava.crudjava.dto.CartItemRequestDTO;
+import crudjava.crudjava.dto.OrderDTO;
+import crudjava.crudjava.dto.StockHoldDTO;
+import crudjava.crudjava.service.CartService;
+import jakarta.servlet.http.HttpSession;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/cart")
+@RequiredArgsConstructor
+public class CartController {
+
+    private final CartService cartService;
+
+    @GetMapping
+    public ResponseEntity<CartDTO> getCart(HttpSession session) {
+        return ResponseEntity.ok(cartService.preview(session.getId()));
+    }
+
+    @PostMapping("/items")
+    public ResponseEntity<CartDTO> addItem(
+        HttpSession session,
+        @Valid @RequestBody CartItemRequestDTO request
+    ) {
+        return ResponseEntity.ok(cartService.addItem(session.getId(), request));
+    }
+
+    @DeleteMapping("/items/{productId}")
+    public ResponseEntity<CartDTO> removeItem(
+        HttpSession session,
+        @PathVariable Long productId
+    ) {
+        return ResponseEntity.ok(
+            cartService.removeItem(session.getId(), productId)
+        );
+    }
+
+    @DeleteMapping
+    public ResponseEntity<Void> clearCart(HttpSession session) {
+        cartService.clear(session.getId());
+        return ResponseEntity.noContent().build();
+    }
+
+    @PostMapping("/hold")
+    public ResponseEntity<StockHoldDTO> holdStock(HttpSession session) {
+        StockHoldDTO hold = cartService.holdStock(session.getId());
+        return ResponseEntity.status(HttpStatus.CREATED).body(hold);
+    }
+
+    @PostMapping("/checkout")
+    public ResponseEntity<OrderDTO> checkout(
+        HttpSession session,
+        @Valid @RequestBody CartCheckoutRequestDTO request
+    ) {
+        OrderDTO order = cartService.checkout(session.getId(), request);
+        return ResponseEntity.status(HttpStatus.CREATED).body(order);
+    }
+}
@@ -0,0 +1,30 @@
+package crudjava.crudjava.controller;
+
+import crudjava.crudjava.dto.ChangeFeedDTO;
+import crudjava.crudjava.service.ChangeFeedService;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/changes")
+@RequiredArgsConstructor
+public class ChangeFeedController {
+
+    private final ChangeFeedService changeFeedService;
+
+    @GetMapping
+    public ResponseEntity<ChangeFeedDTO> getChanges(
+        @RequestParam(required = false) String since,
+        @RequestParam(required = false) List<String> types,
+        @RequestParam(defaultValue = "500") int limit
+    ) {
+        return ResponseEntity.ok(
+            changeFeedService.getChanges(since, types, limit)
+        );
+    }
+}
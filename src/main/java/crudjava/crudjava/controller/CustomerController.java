@@ -4,13 +4,16 @@ import crudjava.crudjava.dto.CreateCustomerRequestDTO;
 import crudjava.crudjava.dto.CustomerDTO;
 import crudjava.crudjava.dto.UpdateCustomerRequestDTO;
 import crudjava.crudjava.service.CustomerService;
+import crudjava.crudjava.util.ETags;
 import jakarta.validation.Valid;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -19,6 +22,7 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
@@ -39,10 +43,29 @@ public class CustomerController {
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<CustomerDTO> getCustomer(@PathVariable Long id) {
+    public ResponseEntity<CustomerDTO> getCustomer(
+        @PathVariable Long id,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+        String ifNoneMatch
+    ) {
+        if (ifNoneMatch != null) {
+            Optional<Long> version = customerService.findVersion(id);
+            if (version.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+            if (ETags.matchesIfNoneMatch(ifNoneMatch, ETags.of(version.get()))) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(ETags.of(version.get()))
+                    .build();
+            }
+        }
         return customerService
             .findById(id)
-            .map(ResponseEntity::ok)
+            .map(customerDTO ->
+                ResponseEntity.ok()
+                    .eTag(ETags.of(customerDTO.getVersion()))
+                    .body(customerDTO)
+            )
             .orElse(ResponseEntity.notFound().build());
     }
 
@@ -54,6 +77,13 @@ public class CustomerController {
         return ResponseEntity.ok(customers);
     }
 
+    @GetMapping(params = "ids")
+    public ResponseEntity<List<CustomerDTO>> getCustomersByIds(
+        @RequestParam List<Long> ids
+    ) {
+        return ResponseEntity.ok(customerService.findByIds(ids));
+    }
+
     @GetMapping("/search")
     public ResponseEntity<Page<CustomerDTO>> searchCustomersByName(
         @RequestParam String name,
@@ -138,10 +168,18 @@ public class CustomerController {
     @PutMapping("/{id}")
     public ResponseEntity<CustomerDTO> updateCustomer(
         @PathVariable Long id,
-        @Valid @RequestBody UpdateCustomerRequestDTO request
+        @Valid @RequestBody UpdateCustomerRequestDTO request,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false)
+        String ifMatch
     ) {
-        CustomerDTO customerDTO = customerService.updateCustomer(id, request);
-        return ResponseEntity.ok(customerDTO);
+        CustomerDTO customerDTO = customerService.updateCustomer(
+            id,
+            request,
+            ETags.parseIfMatch(ifMatch)
+        );
+        return ResponseEntity.ok()
+            .eTag(ETags.of(customerDTO.getVersion()))
+            .body(customerDTO);
     }
 
     @DeleteMapping("/{id}")
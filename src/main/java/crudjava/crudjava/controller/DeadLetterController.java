@@ -0,0 +1,43 @@
+package crudjava.crudjava.controller;
+
+import crudjava.crudjava.dto.DeadLetterReplayDTO;
+import crudjava.crudjava.messaging.InProcessEventTransport;
+import crudjava.crudjava.service.DeadLetterService;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@Profile("!" + InProcessEventTransport.PROFILE)
+@RequestMapping("/api/dead-letters")
+@RequiredArgsConstructor
+public class DeadLetterController {
+
+    private final DeadLetterService deadLetterService;
+
+    @GetMapping
+    public ResponseEntity<Map<String, Long>> getDeadLetterCounts() {
+        return ResponseEntity.ok(deadLetterService.getMessageCounts());
+    }
+
+    @PostMapping("/{queue}/replay")
+    public ResponseEntity<DeadLetterReplayDTO> replay(
+        @PathVariable String queue,
+        @RequestParam(defaultValue = "parking-lot") String source,
+        @RequestParam(defaultValue = "100") int limit
+    ) {
+        DeadLetterReplayDTO result = deadLetterService.replay(
+            queue,
+            source,
+            limit
+        );
+        return ResponseEntity.ok(result);
+    }
+}
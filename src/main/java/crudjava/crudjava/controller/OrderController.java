@@ -2,25 +2,34 @@ package crudjava.crudjava.controller;
 
 import crudjava.crudjava.dto.CreateOrderRequestDTO;
 import crudjava.crudjava.dto.OrderDTO;
+import crudjava.crudjava.dto.OrderStatusUpdateDTO;
+import crudjava.crudjava.exception.OrderNotFoundException;
+import crudjava.crudjava.live.LiveUpdateHub;
 import crudjava.crudjava.service.OrderService;
+import crudjava.crudjava.util.ETags;
 import jakarta.validation.Valid;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 @RequestMapping("/api/orders")
@@ -28,6 +37,7 @@ import org.springframework.web.bind.annotation.RestController;
 public class OrderController {
 
     private final OrderService orderService;
+    private final LiveUpdateHub liveUpdateHub;
 
     @PostMapping
     public ResponseEntity<OrderDTO> createOrder(
@@ -44,13 +54,51 @@ public class OrderController {
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<OrderDTO> getOrder(@PathVariable Long id) {
+    public ResponseEntity<OrderDTO> getOrder(
+        @PathVariable Long id,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+        String ifNoneMatch
+    ) {
+        if (ifNoneMatch != null) {
+            Optional<Long> version = orderService.findVersion(id);
+            if (version.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+            if (ETags.matchesIfNoneMatch(ifNoneMatch, ETags.of(version.get()))) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(ETags.of(version.get()))
+                    .build();
+            }
+        }
         return orderService
             .findById(id)
-            .map(orderDTO -> ResponseEntity.ok(orderDTO))
+            .map(orderDTO ->
+                ResponseEntity.ok()
+                    .eTag(ETags.of(orderDTO.getVersion()))
+                    .body(orderDTO)
+            )
             .orElse(ResponseEntity.notFound().build());
     }
 
+    @GetMapping(
+        value = "/{id}/events",
+        produces = MediaType.TEXT_EVENT_STREAM_VALUE
+    )
+    public SseEmitter streamOrderStatus(@PathVariable Long id) {
+        OrderDTO order = orderService
+            .findById(id)
+            .orElseThrow(() -> new OrderNotFoundException(id));
+        return liveUpdateHub.subscribeToOrder(
+            id,
+            OrderStatusUpdateDTO.builder()
+                .orderId(order.getId())
+                .orderNumber(order.getOrderNumber())
+                .status(order.getStatus())
+                .updatedAt(order.getUpdatedAt())
+                .build()
+        );
+    }
+
     @GetMapping("/number/{orderNumber}")
     public ResponseEntity<OrderDTO> getOrderByNumber(
         @PathVariable String orderNumber
@@ -125,9 +173,17 @@ public class OrderController {
     @PatchMapping("/{id}/status")
     public ResponseEntity<OrderDTO> updateOrderStatus(
         @PathVariable Long id,
-        @RequestParam String status
+        @RequestParam String status,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false)
+        String ifMatch
     ) {
-        OrderDTO updatedOrder = orderService.updateOrderStatus(id, status);
-        return ResponseEntity.ok(updatedOrder);
+        OrderDTO updatedOrder = orderService.updateOrderStatus(
+            id,
+            status,
+            ETags.parseIfMatch(ifMatch)
+        );
+        return ResponseEntity.ok()
+            .eTag(ETags.of(updatedOrder.getVersion()))
+            .body(updatedOrder);
     }
 }
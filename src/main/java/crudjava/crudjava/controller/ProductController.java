@@ -2,15 +2,24 @@ package crudjava.crudjava.controller;
 
 import crudjava.crudjava.dto.CreateProductRequestDTO;
 import crudjava.crudjava.dto.ProductDTO;
+import crudjava.crudjava.dto.StockUpdateDTO;
+import crudjava.crudjava.dto.WarehouseStockDTO;
+import crudjava.crudjava.exception.ProductNotFoundException;
+import crudjava.crudjava.live.LiveUpdateHub;
 import crudjava.crudjava.service.InventoryService;
 import crudjava.crudjava.service.ProductService;
+import crudjava.crudjava.service.StockHoldService;
+import crudjava.crudjava.util.ETags;
 import jakarta.validation.Valid;
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Optional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -19,9 +28,11 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 @RequestMapping("/api/products")
@@ -30,6 +41,8 @@ public class ProductController {
 
     private final ProductService productService;
     private final InventoryService inventoryService;
+    private final StockHoldService stockHoldService;
+    private final LiveUpdateHub liveUpdateHub;
 
     @PostMapping
     public ResponseEntity<ProductDTO> createProduct(
@@ -40,16 +53,52 @@ public class ProductController {
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<ProductDTO> getProduct(@PathVariable Long id) {
+    public ResponseEntity<ProductDTO> getProduct(
+        @PathVariable Long id,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+        String ifNoneMatch
+    ) {
+        if (ifNoneMatch != null) {
+            Optional<Long> version = productService.findVersion(id);
+            if (version.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+            String etag = ETags.of(
+                version.get(),
+                stockHoldService.heldQuantity(id)
+            );
+            if (ETags.matchesIfNoneMatch(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .build();
+            }
+        }
+        // availableQuantity depends on held stock, which the version does
+        // not cover, so the held quantity is folded into the tag.
         return productService
             .findById(id)
-            .map(productDTO -> ResponseEntity.ok(productDTO))
+            .map(productDTO -> {
+                int held = stockHoldService.heldQuantity(id);
+                return ResponseEntity.ok()
+                    .eTag(ETags.of(productDTO.getVersion(), held))
+                    .body(stockHoldService.withAvailability(productDTO, held));
+            })
             .orElse(ResponseEntity.notFound().build());
     }
 
     @GetMapping
     public ResponseEntity<Page<ProductDTO>> getAllProducts(Pageable pageable) {
         Page<ProductDTO> products = productService.findAll(pageable);
+        stockHoldService.withAvailability(products.getContent());
+        return ResponseEntity.ok(products);
+    }
+
+    @GetMapping(params = "ids")
+    public ResponseEntity<List<ProductDTO>> getProductsByIds(
+        @RequestParam List<Long> ids
+    ) {
+        List<ProductDTO> products = productService.findByIds(ids);
+        stockHoldService.withAvailability(products);
         return ResponseEntity.ok(products);
     }
 
@@ -59,6 +108,7 @@ public class ProductController {
     ) {
         return productService
             .findBySku(sku)
+            .map(stockHoldService::withAvailability)
             .map(productDTO -> ResponseEntity.ok(productDTO))
             .orElse(ResponseEntity.notFound().build());
     }
@@ -68,7 +118,7 @@ public class ProductController {
         @PathVariable String category
     ) {
         List<ProductDTO> products = productService.findByCategory(category);
-        return ResponseEntity.ok(products);
+        return ResponseEntity.ok(stockHoldService.withAvailability(products));
     }
 
     @GetMapping("/status/{status}")
@@ -86,6 +136,7 @@ public class ProductController {
     ) {
         Page<ProductDTO> products =
             productService.findByNameContainingAndActive(name, pageable);
+        stockHoldService.withAvailability(products.getContent());
         return ResponseEntity.ok(products);
     }
 
@@ -102,6 +153,7 @@ public class ProductController {
             maxPrice,
             pageable
         );
+        stockHoldService.withAvailability(products.getContent());
         return ResponseEntity.ok(products);
     }
 
@@ -140,28 +192,79 @@ public class ProductController {
     )
     public ResponseEntity<ProductDTO> updateProduct(
         @PathVariable Long id,
-        @Valid @RequestBody CreateProductRequestDTO request
+        @Valid @RequestBody CreateProductRequestDTO request,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false)
+        String ifMatch
     ) {
-        ProductDTO productDTO = productService.updateProduct(id, request);
-        return ResponseEntity.ok(productDTO);
+        ProductDTO productDTO = productService.updateProduct(
+            id,
+            request,
+            ETags.parseIfMatch(ifMatch)
+        );
+        return ResponseEntity.ok()
+            .eTag(ETags.of(productDTO.getVersion()))
+            .body(productDTO);
     }
 
     @PatchMapping("/{id}/status")
     public ResponseEntity<ProductDTO> updateProductStatus(
         @PathVariable Long id,
-        @RequestParam String status
+        @RequestParam String status,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false)
+        String ifMatch
+    ) {
+        ProductDTO productDTO = productService.updateProductStatus(
+            id,
+            status,
+            ETags.parseIfMatch(ifMatch)
+        );
+        return ResponseEntity.ok()
+            .eTag(ETags.of(productDTO.getVersion()))
+            .body(productDTO);
+    }
+
+    @GetMapping(
+        value = "/{id}/stock/events",
+        produces = MediaType.TEXT_EVENT_STREAM_VALUE
+    )
+    public SseEmitter streamStock(@PathVariable Long id) {
+        ProductDTO product = productService
+            .findById(id)
+            .orElseThrow(() -> new ProductNotFoundException(id));
+        return liveUpdateHub.subscribeToStock(
+            id,
+            StockUpdateDTO.builder()
+                .productId(product.getId())
+                .stockQuantity(product.getStockQuantity())
+                .updatedAt(product.getUpdatedAt())
+                .build()
+        );
+    }
+
+    @GetMapping("/{id}/stock/warehouses")
+    public ResponseEntity<List<WarehouseStockDTO>> getWarehouseStock(
+        @PathVariable Long id
     ) {
-        ProductDTO productDTO = productService.updateProductStatus(id, status);
-        return ResponseEntity.ok(productDTO);
+        return ResponseEntity.ok(inventoryService.getWarehouseStock(id));
     }
 
     @PatchMapping("/{id}/stock")
     public ResponseEntity<Void> updateStock(
         @PathVariable Long id,
         @RequestParam Integer quantity,
+        @RequestParam(required = false) String warehouse,
         @RequestParam(defaultValue = "Manual update") String reason
     ) {
-        inventoryService.updateStock(id, quantity, reason);
+        if (warehouse != null) {
+            inventoryService.updateWarehouseStock(
+                id,
+                warehouse,
+                quantity,
+                reason
+            );
+        } else {
+            inventoryService.updateStock(id, quantity, reason);
+        }
         return ResponseEntity.ok().build();
     }
 
@@ -0,0 +1,50 @@
+package crudjava.crudjava.controller;
+
+import crudjava.crudjava.dto.StockHoldDTO;
+import crudjava.crudjava.dto.StockHoldRequestDTO;
+import crudjava.crudjava.service.StockHoldService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/stock-holds")
+@RequiredArgsConstructor
+public class StockHoldController {
+
+    private final StockHoldService stockHoldService;
+
+    @PostMapping
+    public ResponseEntity<StockHoldDTO> placeHold(
+        @Valid @RequestBody StockHoldRequestDTO request
+    ) {
+        StockHoldDTO hold = stockHoldService.placeHold(request.getItems());
+        return ResponseEntity.status(HttpStatus.CREATED).body(hold);
+    }
+
+    @GetMapping("/{reservationId}")
+    public ResponseEntity<StockHoldDTO> getHold(
+        @PathVariable String reservationId
+    ) {
+        return stockHoldService
+            .findHold(reservationId)
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
+    }
+
+    @DeleteMapping("/{reservationId}")
+    public ResponseEntity<Void> releaseHold(
+        @PathVariable String reservationId
+    ) {
+        stockHoldService.releaseHold(reservationId);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,19 @@
+package crudjava.crudjava.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartCheckoutRequestDTO {
+
+    @NotNull(message = "Customer ID is required")
+    private Long customerId;
+
+    private String shippingAddress;
+}
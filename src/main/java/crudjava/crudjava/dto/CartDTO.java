@@ -0,0 +1,36 @@
+package crudjava.crudjava.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartDTO {
+
+    private List<CartItemDTO> items;
+    private Integer itemCount;
+    private BigDecimal totalAmount;
+    private boolean checkoutReady;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CartItemDTO {
+
+        private Long productId;
+        private String productName;
+        private String productSku;
+        private Integer quantity;
+        private BigDecimal unitPrice;
+        private BigDecimal totalPrice;
+        private Integer stockQuantity;
+        private boolean available;
+    }
+}
@@ -0,0 +1,32 @@
+package crudjava.crudjava.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChangeFeedDTO {
+
+    private List<EntityChangeDTO> changes;
+    private String nextCursor;
+    private boolean hasMore;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class EntityChangeDTO {
+
+        private String type;
+        private Long id;
+        private String operation;
+        private Long version;
+        private LocalDateTime changedAt;
+    }
+}
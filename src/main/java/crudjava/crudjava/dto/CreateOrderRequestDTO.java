@@ -14,5 +14,6 @@ public class CreateOrderRequestDTO {
 
     private Long customerId;
     private String shippingAddress;
+    private String reservationId;
     private List<OrderItemRequestDTO> orderItems;
 }
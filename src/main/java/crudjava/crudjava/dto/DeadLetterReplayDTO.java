@@ -0,0 +1,18 @@
+package crudjava.crudjava.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeadLetterReplayDTO {
+
+    private String queue;
+    private String source;
+    private int replayed;
+    private int skipped;
+}
@@ -11,7 +11,9 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 public class EmailNotificationDto {
 
+    private String eventId;
     private String recipientEmail;
+    private String orderNumber;
     private String subject;
     private String message;
     private String eventType;
@@ -12,6 +12,7 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 public class InventoryEventDto {
 
+    private String eventId;
     private Long productId;
     private String productName;
     private String sku;
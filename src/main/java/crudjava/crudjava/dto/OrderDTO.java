@@ -23,6 +23,7 @@ public class OrderDTO {
     private LocalDateTime orderDate;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    private Long version;
     private List<OrderItemDTO> items;
 
     @Data
@@ -13,6 +13,7 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 public class OrderEventDto {
 
+    private String eventId;
     private Long orderId;
     private String orderNumber;
     private Long customerId;
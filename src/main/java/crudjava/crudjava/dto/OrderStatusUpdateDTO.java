@@ -0,0 +1,19 @@
+package crudjava.crudjava.dto;
+
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderStatusUpdateDTO {
+
+    private Long orderId;
+    private String orderNumber;
+    private String status;
+    private LocalDateTime updatedAt;
+}
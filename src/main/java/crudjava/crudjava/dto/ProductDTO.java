@@ -19,6 +19,7 @@ public class ProductDTO {
     private BigDecimal price;
     private String category;
     private Integer stockQuantity;
+    private Integer availableQuantity;
     private String sku;
     private BigDecimal weightKg;
     private String status;
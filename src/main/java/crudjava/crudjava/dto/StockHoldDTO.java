@@ -0,0 +1,29 @@
+package crudjava.crudjava.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockHoldDTO {
+
+    private String reservationId;
+    private LocalDateTime expiresAt;
+    private List<HeldItemDTO> items;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class HeldItemDTO {
+
+        private Long productId;
+        private Integer quantity;
+    }
+}
@@ -0,0 +1,18 @@
+package crudjava.crudjava.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockHoldRequestDTO {
+
+    @NotEmpty(message = "Hold must contain items")
+    private List<OrderItemRequestDTO> items;
+}
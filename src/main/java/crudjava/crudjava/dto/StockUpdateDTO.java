@@ -0,0 +1,18 @@
+package crudjava.crudjava.dto;
+
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockUpdateDTO {
+
+    private Long productId;
+    private Integer stockQuantity;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,19 @@
+package crudjava.crudjava.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WarehouseStockDTO {
+
+    private Long warehouseId;
+    private String warehouseCode;
+    private String warehouseName;
+    private String country;
+    private Integer quantity;
+}
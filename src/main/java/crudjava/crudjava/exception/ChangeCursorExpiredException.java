@@ -0,0 +1,9 @@
+package crudjava.crudjava.exception;
+
+public class ChangeCursorExpiredException extends RuntimeException {
+    public ChangeCursorExpiredException(String cursor) {
+        super(
+            "Позиция " + cursor + " старше хранимой истории изменений, требуется полная синхронизация"
+        );
+    }
+}
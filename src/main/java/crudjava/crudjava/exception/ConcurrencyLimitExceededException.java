@@ -0,0 +1,20 @@
+package crudjava.crudjava.exception;
+
+public class ConcurrencyLimitExceededException extends RuntimeException {
+    private final String downstream;
+    private final int retryAfterSeconds;
+
+    public ConcurrencyLimitExceededException(String downstream, int retryAfterSeconds) {
+        super("Превышен лимит одновременных обращений к " + downstream + ". Повторите запрос позже");
+        this.downstream = downstream;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public String getDownstream() {
+        return downstream;
+    }
+
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
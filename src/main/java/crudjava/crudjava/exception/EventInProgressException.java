@@ -0,0 +1,7 @@
+package crudjava.crudjava.exception;
+
+public class EventInProgressException extends RuntimeException {
+    public EventInProgressException(String queue, String eventId) {
+        super("Событие " + eventId + " из очереди " + queue + " уже обрабатывается");
+    }
+}
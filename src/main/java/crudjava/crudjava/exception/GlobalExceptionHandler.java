@@ -1,9 +1,12 @@
 package crudjava.crudjava.exception;
 
+import jakarta.persistence.OptimisticLockException;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -88,6 +91,42 @@ public class GlobalExceptionHandler {
         );
     }
 
+    @ExceptionHandler(InvalidStatusTransitionException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidStatusTransition(
+        InvalidStatusTransitionException ex
+    ) {
+        log.warn("Invalid status transition: {}", ex.getMessage());
+        return createErrorResponse(
+            HttpStatus.CONFLICT,
+            "Недопустимая смена статуса",
+            ex.getMessage()
+        );
+    }
+
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<ErrorResponse> handlePreconditionFailed(
+        PreconditionFailedException ex
+    ) {
+        log.warn("Precondition failed: {}", ex.getMessage());
+        return createErrorResponse(
+            HttpStatus.PRECONDITION_FAILED,
+            "Условие запроса не выполнено",
+            ex.getMessage()
+        );
+    }
+
+    @ExceptionHandler(ChangeCursorExpiredException.class)
+    public ResponseEntity<ErrorResponse> handleChangeCursorExpired(
+        ChangeCursorExpiredException ex
+    ) {
+        log.warn("Expired change cursor: {}", ex.getMessage());
+        return createErrorResponse(
+            HttpStatus.GONE,
+            "История изменений удалена",
+            ex.getMessage()
+        );
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ValidationErrorResponse> handleValidationExceptions(
         MethodArgumentNotValidException ex
@@ -139,8 +178,48 @@ public class GlobalExceptionHandler {
         );
     }
 
+    @ExceptionHandler(
+        { OptimisticLockingFailureException.class, OptimisticLockException.class }
+    )
+    public ResponseEntity<ErrorResponse> handleOptimisticLock(Exception ex) {
+        log.warn("Concurrent modification conflict: {}", ex.getMessage());
+        return createErrorResponse(
+            HttpStatus.CONFLICT,
+            "Конфликт одновременного изменения",
+            "Данные были изменены другим запросом. Повторите попытку"
+        );
+    }
+
+    @ExceptionHandler(ConcurrencyLimitExceededException.class)
+    public ResponseEntity<ErrorResponse> handleConcurrencyLimitExceeded(
+        ConcurrencyLimitExceededException ex
+    ) {
+        log.warn("Request shed: {}", ex.getMessage());
+        ErrorResponse error = new ErrorResponse(
+            HttpStatus.SERVICE_UNAVAILABLE.value(),
+            "Сервис перегружен",
+            ex.getMessage(),
+            LocalDateTime.now()
+        );
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(
+                HttpHeaders.RETRY_AFTER,
+                String.valueOf(ex.getRetryAfterSeconds())
+            )
+            .body(error);
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorResponse> handleGenericException(Exception ex) {
+        // Limits on connection acquisition surface wrapped, e.g. in
+        // CannotCreateTransactionException or a Redis access exception.
+        ConcurrencyLimitExceededException limitExceeded = findCause(
+            ex,
+            ConcurrencyLimitExceededException.class
+        );
+        if (limitExceeded != null) {
+            return handleConcurrencyLimitExceeded(limitExceeded);
+        }
         log.error("Unexpected error occurred", ex);
         return createErrorResponse(
             HttpStatus.INTERNAL_SERVER_ERROR,
@@ -162,4 +241,20 @@ public class GlobalExceptionHandler {
         );
         return ResponseEntity.status(status).body(error);
     }
+
+    private static <T extends Throwable> T findCause(
+        Throwable ex,
+        Class<T> type
+    ) {
+        for (
+            Throwable cause = ex;
+            cause != null;
+            cause = cause.getCause() == cause ? null : cause.getCause()
+        ) {
+            if (type.isInstance(cause)) {
+                return type.cast(cause);
+            }
+        }
+        return null;
+    }
 }
@@ -0,0 +1,7 @@
+package crudjava.crudjava.exception;
+
+public class InvalidStatusTransitionException extends RuntimeException {
+    public InvalidStatusTransitionException(String orderNumber, Object from, Object to) {
+        super("Невозможно перевести заказ " + orderNumber + " из статуса " + from + " в статус " + to);
+    }
+}
@@ -0,0 +1,7 @@
+package crudjava.crudjava.exception;
+
+public class PreconditionFailedException extends RuntimeException {
+    public PreconditionFailedException(String etag) {
+        super("Ресурс изменился: версия " + etag + " больше не актуальна");
+    }
+}
@@ -1,13 +1,16 @@
 package crudjava.crudjava.listener;
 
 import crudjava.crudjava.config.RabbitConfig;
+import crudjava.crudjava.config.RabbitListenerConfig;
 import crudjava.crudjava.dto.EmailNotificationDto;
 import crudjava.crudjava.dto.InventoryEventDto;
 import crudjava.crudjava.dto.ProcurementAlertDto;
+import crudjava.crudjava.messaging.EventDeduplicator;
+import crudjava.crudjava.notification.EmailDispatcher;
+import java.util.List;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -15,10 +18,49 @@ import org.springframework.stereotype.Component;
 @Slf4j
 public class InventoryEventListener {
 
-    private final RabbitTemplate rabbitTemplate;
+    private final ListenerMetrics listenerMetrics;
+    private final EmailDispatcher emailDispatcher;
+    private final EventDeduplicator eventDeduplicator;
 
-    @RabbitListener(queues = RabbitConfig.INVENTORY_UPDATE_QUEUE)
-    public void handleInventoryUpdate(InventoryEventDto inventoryEvent) {
+    @RabbitListener(
+        queues = RabbitConfig.INVENTORY_UPDATE_QUEUE,
+        containerFactory = RabbitListenerConfig.INVENTORY_UPDATE_FACTORY
+    )
+    public void handleInventoryUpdates(List<InventoryEventDto> inventoryEvents) {
+        processInventoryUpdates(
+            RabbitConfig.INVENTORY_UPDATE_QUEUE,
+            inventoryEvents
+        );
+    }
+
+    public void processInventoryUpdates(
+        String queue,
+        List<InventoryEventDto> inventoryEvents
+    ) {
+        long startNanos = System.nanoTime();
+        log.debug(
+            "Processing batch of {} inventory update events from {}",
+            inventoryEvents.size(),
+            queue
+        );
+
+        for (InventoryEventDto inventoryEvent : inventoryEvents) {
+            if (!eventDeduplicator.tryClaim(queue, inventoryEvent.getEventId())) {
+                continue;
+            }
+            try {
+                handleInventoryUpdate(inventoryEvent);
+            } catch (RuntimeException e) {
+                eventDeduplicator.release(queue, inventoryEvent.getEventId());
+                throw e;
+            }
+            eventDeduplicator.complete(queue, inventoryEvent.getEventId());
+        }
+
+        listenerMetrics.record(queue, inventoryEvents.size(), startNanos);
+    }
+
+    private void handleInventoryUpdate(InventoryEventDto inventoryEvent) {
         log.info(
             "Processing inventory update event: Product {} {} from {} to {}",
             inventoryEvent.getSku(),
@@ -37,17 +79,30 @@ public class InventoryEventListener {
                 inventoryEvent.getNewQuantity(),
                 inventoryEvent.getReason()
             );
-        } catch (Exception e) {
+        } catch (RuntimeException e) {
             log.error(
                 "Failed to process inventory update event for product {}: {}",
                 inventoryEvent.getSku(),
                 e.getMessage()
             );
+            throw e;
         }
     }
 
-    @RabbitListener(queues = RabbitConfig.LOW_STOCK_ALERT_QUEUE)
+    @RabbitListener(
+        queues = RabbitConfig.LOW_STOCK_ALERT_QUEUE,
+        containerFactory = RabbitListenerConfig.LOW_STOCK_ALERT_FACTORY
+    )
     public void handleLowStockAlert(InventoryEventDto inventoryEvent) {
+        long startNanos = System.nanoTime();
+        if (
+            !eventDeduplicator.tryClaim(
+                RabbitConfig.LOW_STOCK_ALERT_QUEUE,
+                inventoryEvent.getEventId()
+            )
+        ) {
+            return;
+        }
         log.warn(
             "Processing low stock alert: Product {} has only {} units remaining",
             inventoryEvent.getSku(),
@@ -84,42 +139,66 @@ public class InventoryEventListener {
                     inventoryEvent.getSku()
                 );
             }
-        } catch (Exception e) {
+        } catch (RuntimeException e) {
             log.error(
                 "Failed to process low stock alert for product {}: {}",
                 inventoryEvent.getSku(),
                 e.getMessage()
             );
+            eventDeduplicator.release(
+                RabbitConfig.LOW_STOCK_ALERT_QUEUE,
+                inventoryEvent.getEventId()
+            );
+            throw e;
         }
+        eventDeduplicator.complete(
+            RabbitConfig.LOW_STOCK_ALERT_QUEUE,
+            inventoryEvent.getEventId()
+        );
+
+        listenerMetrics.record(RabbitConfig.LOW_STOCK_ALERT_QUEUE, 1, startNanos);
     }
 
-    @RabbitListener(queues = RabbitConfig.EMAIL_NOTIFICATION_QUEUE)
+    @RabbitListener(
+        queues = RabbitConfig.EMAIL_NOTIFICATION_QUEUE,
+        containerFactory = RabbitListenerConfig.EMAIL_NOTIFICATION_FACTORY
+    )
     public void handleEmailNotification(
         EmailNotificationDto emailNotification
     ) {
+        long startNanos = System.nanoTime();
+        if (
+            !eventDeduplicator.tryClaim(
+                RabbitConfig.EMAIL_NOTIFICATION_QUEUE,
+                emailNotification.getEventId()
+            )
+        ) {
+            return;
+        }
         log.info(
-            "Processing email notification: {} to {}",
+            "Sending email notification: {} to {}",
             emailNotification.getSubject(),
             emailNotification.getRecipientEmail()
         );
 
         try {
-            log.info(
-                "EMAIL SENT: To={}, Subject={}, Type={}",
-                emailNotification.getRecipientEmail(),
-                emailNotification.getSubject(),
-                emailNotification.getEventType()
-            );
-
-            Thread.sleep(100);
-
-            log.info("Email notification processed successfully");
-        } catch (Exception e) {
-            log.error(
-                "Failed to send email notification to {}: {}",
-                emailNotification.getRecipientEmail(),
-                e.getMessage()
+            emailDispatcher.dispatch(emailNotification);
+        } catch (RuntimeException e) {
+            eventDeduplicator.release(
+                RabbitConfig.EMAIL_NOTIFICATION_QUEUE,
+                emailNotification.getEventId()
             );
+            throw e;
         }
+        eventDeduplicator.complete(
+            RabbitConfig.EMAIL_NOTIFICATION_QUEUE,
+            emailNotification.getEventId()
+        );
+
+        listenerMetrics.record(
+            RabbitConfig.EMAIL_NOTIFICATION_QUEUE,
+            1,
+            startNanos
+        );
     }
 }
@@ -0,0 +1,38 @@
+package crudjava.crudjava.listener;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class ListenerMetrics {
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, Counter> messageCounters =
+        new ConcurrentHashMap<>();
+    private final Map<String, Timer> deliveryTimers = new ConcurrentHashMap<>();
+
+    public void record(String queue, int messages, long startNanos) {
+        messageCounters
+            .computeIfAbsent(queue, name ->
+                Counter.builder("events.consumer.messages")
+                    .tag("queue", name)
+                    .register(meterRegistry)
+            )
+            .increment(messages);
+        deliveryTimers
+            .computeIfAbsent(queue, name ->
+                Timer.builder("events.consumer.delivery")
+                    .tag("queue", name)
+                    .register(meterRegistry)
+            )
+            .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+}
@@ -1,12 +1,15 @@
 package crudjava.crudjava.listener;
 
 import crudjava.crudjava.config.RabbitConfig;
+import crudjava.crudjava.config.RabbitListenerConfig;
 import crudjava.crudjava.dto.EmailNotificationDto;
 import crudjava.crudjava.dto.OrderEventDto;
+import crudjava.crudjava.messaging.EventDeduplicator;
+import crudjava.crudjava.messaging.EventTransport;
+import java.util.UUID;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -14,10 +17,24 @@ import org.springframework.stereotype.Component;
 @Slf4j
 public class OrderEventListener {
 
-    private final RabbitTemplate rabbitTemplate;
+    private final EventTransport eventTransport;
+    private final ListenerMetrics listenerMetrics;
+    private final EventDeduplicator eventDeduplicator;
 
-    @RabbitListener(queues = RabbitConfig.ORDER_CREATED_QUEUE)
+    @RabbitListener(
+        queues = RabbitConfig.ORDER_CREATED_QUEUE,
+        containerFactory = RabbitListenerConfig.ORDER_CREATED_FACTORY
+    )
     public void handleOrderCreated(OrderEventDto orderEvent) {
+        long startNanos = System.nanoTime();
+        if (
+            !eventDeduplicator.tryClaim(
+                RabbitConfig.ORDER_CREATED_QUEUE,
+                orderEvent.getEventId()
+            )
+        ) {
+            return;
+        }
         log.info(
             "Processing order created event: Order {} for customer {}",
             orderEvent.getOrderNumber(),
@@ -28,6 +45,7 @@ public class OrderEventListener {
             EmailNotificationDto emailNotification =
                 EmailNotificationDto.builder()
                     .recipientEmail(orderEvent.getCustomerEmail())
+                    .orderNumber(orderEvent.getOrderNumber())
                     .subject(
                         "Order Confirmation - " + orderEvent.getOrderNumber()
                     )
@@ -38,10 +56,11 @@ public class OrderEventListener {
                             "Total amount: $" +
                             orderEvent.getTotalAmount()
                     )
+                    .eventId(emailEventId(orderEvent))
                     .eventType("ORDER_CREATED")
                     .build();
 
-            rabbitTemplate.convertAndSend(
+            eventTransport.send(
                 RabbitConfig.NOTIFICATION_EXCHANGE,
                 RabbitConfig.EMAIL_NOTIFICATION_ROUTING_KEY,
                 emailNotification
@@ -51,17 +70,40 @@ public class OrderEventListener {
                 "Email notification sent for order: {}",
                 orderEvent.getOrderNumber()
             );
-        } catch (Exception e) {
+        } catch (RuntimeException e) {
             log.error(
                 "Failed to process order created event for order {}: {}",
                 orderEvent.getOrderNumber(),
                 e.getMessage()
             );
+            eventDeduplicator.release(
+                RabbitConfig.ORDER_CREATED_QUEUE,
+                orderEvent.getEventId()
+            );
+            throw e;
         }
+        eventDeduplicator.complete(
+            RabbitConfig.ORDER_CREATED_QUEUE,
+            orderEvent.getEventId()
+        );
+
+        listenerMetrics.record(RabbitConfig.ORDER_CREATED_QUEUE, 1, startNanos);
     }
 
-    @RabbitListener(queues = RabbitConfig.ORDER_STATUS_CHANGED_QUEUE)
+    @RabbitListener(
+        queues = RabbitConfig.ORDER_STATUS_CHANGED_QUEUE,
+        containerFactory = RabbitListenerConfig.ORDER_STATUS_CHANGED_FACTORY
+    )
     public void handleOrderStatusChanged(OrderEventDto orderEvent) {
+        long startNanos = System.nanoTime();
+        if (
+            !eventDeduplicator.tryClaim(
+                RabbitConfig.ORDER_STATUS_CHANGED_QUEUE,
+                orderEvent.getEventId()
+            )
+        ) {
+            return;
+        }
         log.info(
             "Processing order status change event: Order {} status changed to {}",
             orderEvent.getOrderNumber(),
@@ -92,12 +134,14 @@ public class OrderEventListener {
             EmailNotificationDto emailNotification =
                 EmailNotificationDto.builder()
                     .recipientEmail(orderEvent.getCustomerEmail())
+                    .orderNumber(orderEvent.getOrderNumber())
                     .subject(subject)
                     .message(message)
+                    .eventId(emailEventId(orderEvent))
                     .eventType("ORDER_STATUS_CHANGED")
                     .build();
 
-            rabbitTemplate.convertAndSend(
+            eventTransport.send(
                 RabbitConfig.NOTIFICATION_EXCHANGE,
                 RabbitConfig.EMAIL_NOTIFICATION_ROUTING_KEY,
                 emailNotification
@@ -107,12 +151,35 @@ public class OrderEventListener {
                 "Status change notification sent for order: {}",
                 orderEvent.getOrderNumber()
             );
-        } catch (Exception e) {
+        } catch (RuntimeException e) {
             log.error(
                 "Failed to process order status change event for order {}: {}",
                 orderEvent.getOrderNumber(),
                 e.getMessage()
             );
+            eventDeduplicator.release(
+                RabbitConfig.ORDER_STATUS_CHANGED_QUEUE,
+                orderEvent.getEventId()
+            );
+            throw e;
         }
+        eventDeduplicator.complete(
+            RabbitConfig.ORDER_STATUS_CHANGED_QUEUE,
+            orderEvent.getEventId()
+        );
+
+        listenerMetrics.record(
+            RabbitConfig.ORDER_STATUS_CHANGED_QUEUE,
+            1,
+            startNanos
+        );
+    }
+
+    // Derived from the order event so a redelivered order event produces the
+    // same notification ID and the email consumer can drop the repeat.
+    private static String emailEventId(OrderEventDto orderEvent) {
+        return orderEvent.getEventId() != null
+            ? orderEvent.getEventId() + ":email"
+            : UUID.randomUUID().toString();
     }
 }
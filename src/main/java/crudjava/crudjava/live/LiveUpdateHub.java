@@ -0,0 +1,270 @@
+package crudjava.crudjava.live;
+
+import crudjava.crudjava.dto.InventoryEventDto;
+import crudjava.crudjava.dto.OrderEventDto;
+import crudjava.crudjava.dto.OrderStatusUpdateDTO;
+import crudjava.crudjava.dto.StockUpdateDTO;
+import crudjava.crudjava.exception.ConcurrencyLimitExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Pushes order status and stock changes to Server-Sent Events subscribers
+ * connected to this instance. Emitters run in async servlet mode, so an open
+ * but idle connection holds a socket and no request thread. Each subscriber
+ * has its own queue, drained by at most one virtual thread at a time, so a
+ * slow client delays only itself and sees its events, heartbeats included,
+ * in the order they were published.
+ */
+@Component
+@Slf4j
+public class LiveUpdateHub {
+
+    public static final String ORDER_STATUS_EVENT = "order-status";
+    public static final String STOCK_EVENT = "stock";
+
+    private static final int RETRY_AFTER_SECONDS = 5;
+
+    private final Map<Long, Set<Subscriber>> orderSubscribers =
+        new ConcurrentHashMap<>();
+    private final Map<Long, Set<Subscriber>> stockSubscribers =
+        new ConcurrentHashMap<>();
+    private final AtomicInteger connections = new AtomicInteger();
+    private final ExecutorService sender =
+        Executors.newVirtualThreadPerTaskExecutor();
+
+    private final long timeoutMillis;
+    private final int maxConnections;
+    private final Counter rejected;
+
+    public LiveUpdateHub(
+        MeterRegistry meterRegistry,
+        @Value("${app.live-updates.timeout:30m}") Duration timeout,
+        @Value("${app.live-updates.max-connections:50000}") int maxConnections
+    ) {
+        this.timeoutMillis = timeout.toMillis();
+        this.maxConnections = maxConnections;
+        Gauge.builder(
+            "live_updates.connections",
+            connections,
+            AtomicInteger::get
+        ).register(meterRegistry);
+        this.rejected = Counter.builder("live_updates.rejected").register(
+            meterRegistry
+        );
+    }
+
+    public SseEmitter subscribeToOrder(
+        Long orderId,
+        OrderStatusUpdateDTO current
+    ) {
+        return subscribe(orderSubscribers, orderId, ORDER_STATUS_EVENT, current);
+    }
+
+    public SseEmitter subscribeToStock(Long productId, StockUpdateDTO current) {
+        return subscribe(stockSubscribers, productId, STOCK_EVENT, current);
+    }
+
+    public void onOrderEvent(OrderEventDto event) {
+        if (event.getOrderId() == null) {
+            return;
+        }
+        publish(
+            orderSubscribers,
+            event.getOrderId(),
+            ORDER_STATUS_EVENT,
+            OrderStatusUpdateDTO.builder()
+                .orderId(event.getOrderId())
+                .orderNumber(event.getOrderNumber())
+                .status(event.getStatus())
+                .updatedAt(event.getEventTime())
+                .build()
+        );
+    }
+
+    public void onInventoryEvent(InventoryEventDto event) {
+        if (event.getProductId() == null || event.getNewQuantity() == null) {
+            return;
+        }
+        publish(
+            stockSubscribers,
+            event.getProductId(),
+            STOCK_EVENT,
+            StockUpdateDTO.builder()
+                .productId(event.getProductId())
+                .stockQuantity(event.getNewQuantity())
+                .updatedAt(event.getEventTime())
+                .build()
+        );
+    }
+
+    /** Comments keep proxies and load balancers from closing idle streams. */
+    @Scheduled(
+        fixedDelayString = "${app.live-updates.heartbeat-interval-ms:20000}"
+    )
+    public void sendHeartbeats() {
+        heartbeat(orderSubscribers);
+        heartbeat(stockSubscribers);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        orderSubscribers
+            .values()
+            .forEach(subscribers -> subscribers.forEach(Subscriber::complete));
+        stockSubscribers
+            .values()
+            .forEach(subscribers -> subscribers.forEach(Subscriber::complete));
+        sender.shutdown();
+    }
+
+    private SseEmitter subscribe(
+        Map<Long, Set<Subscriber>> subscribers,
+        Long key,
+        String eventName,
+        Object current
+    ) {
+        if (connections.incrementAndGet() > maxConnections) {
+            connections.decrementAndGet();
+            rejected.increment();
+            throw new ConcurrencyLimitExceededException(
+                "live-updates",
+                RETRY_AFTER_SECONDS
+            );
+        }
+
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(emitter);
+        AtomicBoolean removed = new AtomicBoolean();
+        Runnable unsubscribe = () -> {
+            if (removed.compareAndSet(false, true)) {
+                connections.decrementAndGet();
+                subscribers.computeIfPresent(key, (k, set) -> {
+                    set.remove(subscriber);
+                    return set.isEmpty() ? null : set;
+                });
+            }
+        };
+        emitter.onCompletion(unsubscribe);
+        emitter.onTimeout(unsubscribe);
+        emitter.onError(e -> unsubscribe.run());
+
+        // Queued before registering, so later updates cannot overtake it.
+        if (current != null) {
+            subscriber.enqueue(
+                SseEmitter.event().name(eventName).data(current)
+            );
+        }
+        subscribers.compute(key, (k, set) -> {
+            Set<Subscriber> members = set != null
+                ? set
+                : ConcurrentHashMap.newKeySet();
+            members.add(subscriber);
+            return members;
+        });
+        return emitter;
+    }
+
+    private void publish(
+        Map<Long, Set<Subscriber>> subscribers,
+        Long key,
+        String eventName,
+        Object update
+    ) {
+        Set<Subscriber> members = subscribers.get(key);
+        if (members == null) {
+            return;
+        }
+        for (Subscriber subscriber : members) {
+            subscriber.enqueue(SseEmitter.event().name(eventName).data(update));
+        }
+    }
+
+    private void heartbeat(Map<Long, Set<Subscriber>> subscribers) {
+        for (Set<Subscriber> members : subscribers.values()) {
+            for (Subscriber subscriber : members) {
+                // A pending write keeps the stream alive just as well.
+                if (subscriber.isIdle()) {
+                    subscriber.enqueue(SseEmitter.event().comment("keep-alive"));
+                }
+            }
+        }
+    }
+
+    /**
+     * One connection and its outgoing events. Whoever enqueues onto an idle
+     * subscriber starts the drain; the drain re-checks the queue after
+     * clearing the flag so an event added in between is not stranded.
+     */
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final Queue<SseEmitter.SseEventBuilder> pending =
+            new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean closed;
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        boolean isIdle() {
+            return pending.isEmpty() && !draining.get();
+        }
+
+        void enqueue(SseEmitter.SseEventBuilder event) {
+            if (closed) {
+                return;
+            }
+            pending.add(event);
+            if (draining.compareAndSet(false, true)) {
+                sender.execute(this::drain);
+            }
+        }
+
+        void complete() {
+            emitter.complete();
+        }
+
+        private void drain() {
+            do {
+                SseEmitter.SseEventBuilder event;
+                while ((event = pending.poll()) != null) {
+                    if (!closed) {
+                        send(event);
+                    }
+                }
+                draining.set(false);
+            } while (!pending.isEmpty() && draining.compareAndSet(false, true));
+        }
+
+        private void send(SseEmitter.SseEventBuilder event) {
+            try {
+                emitter.send(event);
+            } catch (IOException | IllegalStateException e) {
+                // The client went away; completing triggers the unsubscribe.
+                log.debug("Dropping live update subscriber: {}", e.getMessage());
+                closed = true;
+                emitter.completeWithError(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package crudjava.crudjava.live;
+
+import crudjava.crudjava.config.RabbitConfig;
+import crudjava.crudjava.dto.InventoryEventDto;
+import crudjava.crudjava.dto.OrderEventDto;
+import crudjava.crudjava.messaging.InProcessEventTransport;
+import lombok.RequiredArgsConstructor;
+import org.springframework.amqp.core.ExchangeTypes;
+import org.springframework.amqp.rabbit.annotation.Exchange;
+import org.springframework.amqp.rabbit.annotation.Queue;
+import org.springframework.amqp.rabbit.annotation.QueueBinding;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+/**
+ * Feeds {@link LiveUpdateHub} from the broker. Every instance binds its own
+ * exclusive, auto-deleted queue, since each instance holds different client
+ * connections and must see every event, unlike the work queues that
+ * instances share. Missed events are not redelivered: a client reconnecting
+ * after an outage receives the current state first.
+ */
+@Component
+@Profile("!" + InProcessEventTransport.PROFILE)
+@RequiredArgsConstructor
+public class LiveUpdateListener {
+
+    private final LiveUpdateHub liveUpdateHub;
+
+    @RabbitListener(
+        bindings = @QueueBinding(
+            value = @Queue(exclusive = "true", autoDelete = "true"),
+            exchange = @Exchange(
+                value = RabbitConfig.ORDER_EXCHANGE,
+                type = ExchangeTypes.TOPIC
+            ),
+            key = RabbitConfig.ORDER_STATUS_CHANGED_ROUTING_KEY
+        )
+    )
+    public void onOrderStatusChanged(OrderEventDto event) {
+        liveUpdateHub.onOrderEvent(event);
+    }
+
+    @RabbitListener(
+        bindings = {
+            @QueueBinding(
+                value = @Queue(exclusive = "true", autoDelete = "true"),
+                exchange = @Exchange(
+                    value = RabbitConfig.INVENTORY_EXCHANGE,
+                    type = ExchangeTypes.TOPIC
+                ),
+                key = RabbitConfig.INVENTORY_UPDATE_ROUTING_KEY
+            ),
+            @QueueBinding(
+                value = @Queue(exclusive = "true", autoDelete = "true"),
+                exchange = @Exchange(
+                    value = RabbitConfig.INVENTORY_PARTITIONED_EXCHANGE,
+                    type = ExchangeTypes.TOPIC
+                ),
+                key = RabbitConfig.INVENTORY_UPDATE_ROUTING_KEY + ".*"
+            ),
+        }
+    )
+    public void onInventoryUpdate(InventoryEventDto event) {
+        liveUpdateHub.onInventoryEvent(event);
+    }
+}
@@ -19,7 +19,7 @@ public class CustomerMapper {
             .lastName(customer.getLastName())
             .email(customer.getEmail())
             .phone(customer.getPhone())
-            .customerType(customer.getCustomerType())
+            .customerType(customer.getCustomerType().name())
             .addresses(
                 customer.getAddresses() != null
                     ? customer
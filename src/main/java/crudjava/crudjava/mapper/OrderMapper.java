@@ -23,11 +23,12 @@ public class OrderMapper {
                     " " +
                     order.getCustomer().getLastName()
             )
-            .totalAmount(order.getTotalAmount())
-            .status(order.getStatus())
+            .totalAmount(order.getTotalAmount().toBigDecimal())
+            .status(order.getStatus().name())
             .orderDate(order.getCreatedAt())
             .createdAt(order.getCreatedAt())
             .updatedAt(order.getUpdatedAt())
+            .version(order.getVersion())
             .items(
                 order.getOrderItems() != null
                     ? order.getOrderItems()
@@ -50,8 +51,8 @@ public class OrderMapper {
             .productName(item.getProduct().getName())
             .productSku(item.getProduct().getSku())
             .quantity(item.getQuantity())
-            .unitPrice(item.getUnitPrice())
-            .totalPrice(item.getTotalPrice())
+            .unitPrice(item.getUnitPrice().toBigDecimal())
+            .totalPrice(item.getTotalPrice().toBigDecimal())
             .build();
     }
 }
@@ -21,7 +21,7 @@ public class ProductMapper {
             .stockQuantity(product.getStockQuantity())
             .sku(product.getSku())
             .weightKg(product.getWeightKg())
-            .status(product.getStatus())
+            .status(product.getStatus().name())
             .createdAt(product.getCreatedAt())
             .updatedAt(product.getUpdatedAt())
             .version(product.getVersion())
@@ -0,0 +1,354 @@
+package crudjava.crudjava.messaging;
+
+import crudjava.crudjava.dto.EmailNotificationDto;
+import crudjava.crudjava.dto.InventoryEventDto;
+import crudjava.crudjava.dto.OrderEventDto;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.AbstractMessageConverter;
+import org.springframework.amqp.support.converter.MessageConversionException;
+
+/**
+ * Encodes event DTOs as a compact binary frame:
+ * {@code [schema version][type tag][flags][fields...]}. Fields are written in
+ * declaration order; strings as varint length (zero meaning null) plus UTF-8,
+ * other nullable fields prefixed by a presence byte. Bodies
+ * larger than the compression threshold are deflated and flagged so the
+ * consumer knows to inflate them. A consumer rejects frames with a schema
+ * version newer than its own; adding fields therefore means bumping
+ * {@link #SCHEMA_VERSION} and keeping the decoder able to read older versions.
+ *
+ * <p>Version 2 appends the event ID to every type.
+ */
+public class BinaryEventMessageConverter extends AbstractMessageConverter {
+
+    public static final String CONTENT_TYPE = "application/x-crudjava-event";
+    public static final byte SCHEMA_VERSION = 2;
+
+    private static final byte TYPE_ORDER_EVENT = 1;
+    private static final byte TYPE_INVENTORY_EVENT = 2;
+    private static final byte TYPE_EMAIL_NOTIFICATION = 3;
+
+    private static final byte FLAG_DEFLATED = 1;
+    private static final int HEADER_LENGTH = 3;
+
+    private final int compressionThreshold;
+
+    /**
+     * @param compressionThreshold body size in bytes above which the fields
+     *     are deflated; a negative value disables compression
+     */
+    public BinaryEventMessageConverter(int compressionThreshold) {
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    @Override
+    protected Message createMessage(
+        Object object,
+        MessageProperties messageProperties
+    ) {
+        try {
+            ByteArrayOutputStream fieldBytes = new ByteArrayOutputStream(128);
+            DataOutputStream out = new DataOutputStream(fieldBytes);
+            byte type = writeFields(object, out);
+            out.flush();
+
+            byte flags = 0;
+            byte[] fields = fieldBytes.toByteArray();
+            if (compressionThreshold >= 0 && fields.length > compressionThreshold) {
+                fields = deflate(fields);
+                flags |= FLAG_DEFLATED;
+            }
+
+            byte[] body = new byte[HEADER_LENGTH + fields.length];
+            body[0] = SCHEMA_VERSION;
+            body[1] = type;
+            body[2] = flags;
+            System.arraycopy(fields, 0, body, HEADER_LENGTH, fields.length);
+
+            messageProperties.setContentType(CONTENT_TYPE);
+            messageProperties.setContentLength(body.length);
+            return new Message(body, messageProperties);
+        } catch (IOException e) {
+            throw new MessageConversionException(
+                "Failed to encode " + object.getClass().getSimpleName(),
+                e
+            );
+        }
+    }
+
+    @Override
+    public Object fromMessage(Message message) {
+        byte[] body = message.getBody();
+        if (body.length < HEADER_LENGTH) {
+            throw new MessageConversionException(
+                "Binary event frame too short: " + body.length + " bytes"
+            );
+        }
+        byte version = body[0];
+        if (version < 1 || version > SCHEMA_VERSION) {
+            throw new MessageConversionException(
+                "Unsupported binary event schema version " + version
+            );
+        }
+
+        InputStream fields = new ByteArrayInputStream(
+            body,
+            HEADER_LENGTH,
+            body.length - HEADER_LENGTH
+        );
+        if ((body[2] & FLAG_DEFLATED) != 0) {
+            fields = new InflaterInputStream(fields);
+        }
+
+        try (DataInputStream in = new DataInputStream(fields)) {
+            return switch (body[1]) {
+                case TYPE_ORDER_EVENT -> readOrderEvent(in, version);
+                case TYPE_INVENTORY_EVENT -> readInventoryEvent(in, version);
+                case TYPE_EMAIL_NOTIFICATION -> readEmailNotification(in, version);
+                default -> throw new MessageConversionException(
+                    "Unknown binary event type " + body[1]
+                );
+            };
+        } catch (IOException e) {
+            throw new MessageConversionException(
+                "Failed to decode binary event",
+                e
+            );
+        }
+    }
+
+    private byte writeFields(Object object, DataOutputStream out)
+        throws IOException {
+        if (object instanceof OrderEventDto event) {
+            writeLong(out, event.getOrderId());
+            writeString(out, event.getOrderNumber());
+            writeLong(out, event.getCustomerId());
+            writeString(out, event.getCustomerEmail());
+            writeString(out, event.getStatus());
+            writeDecimal(out, event.getTotalAmount());
+            writeDateTime(out, event.getEventTime());
+            writeString(out, event.getEventId());
+            return TYPE_ORDER_EVENT;
+        }
+        if (object instanceof InventoryEventDto event) {
+            writeLong(out, event.getProductId());
+            writeString(out, event.getProductName());
+            writeString(out, event.getSku());
+            writeInt(out, event.getOldQuantity());
+            writeInt(out, event.getNewQuantity());
+            writeString(out, event.getOperation());
+            writeString(out, event.getReason());
+            writeDateTime(out, event.getEventTime());
+            writeString(out, event.getEventId());
+            return TYPE_INVENTORY_EVENT;
+        }
+        if (object instanceof EmailNotificationDto notification) {
+            writeString(out, notification.getRecipientEmail());
+            writeString(out, notification.getOrderNumber());
+            writeString(out, notification.getSubject());
+            writeString(out, notification.getMessage());
+            writeString(out, notification.getEventType());
+            writeString(out, notification.getEventId());
+            return TYPE_EMAIL_NOTIFICATION;
+        }
+        throw new MessageConversionException(
+            "No binary encoding for " + object.getClass().getName()
+        );
+    }
+
+    private OrderEventDto readOrderEvent(DataInputStream in, byte version)
+        throws IOException {
+        OrderEventDto event = OrderEventDto.builder()
+            .orderId(readLong(in))
+            .orderNumber(readString(in))
+            .customerId(readLong(in))
+            .customerEmail(readString(in))
+            .status(readString(in))
+            .totalAmount(readDecimal(in))
+            .eventTime(readDateTime(in))
+            .build();
+        if (version >= 2) {
+            event.setEventId(readString(in));
+        }
+        return event;
+    }
+
+    private InventoryEventDto readInventoryEvent(
+        DataInputStream in,
+        byte version
+    ) throws IOException {
+        InventoryEventDto event = InventoryEventDto.builder()
+            .productId(readLong(in))
+            .productName(readString(in))
+            .sku(readString(in))
+            .oldQuantity(readInt(in))
+            .newQuantity(readInt(in))
+            .operation(readString(in))
+            .reason(readString(in))
+            .eventTime(readDateTime(in))
+            .build();
+        if (version >= 2) {
+            event.setEventId(readString(in));
+        }
+        return event;
+    }
+
+    private EmailNotificationDto readEmailNotification(
+        DataInputStream in,
+        byte version
+    ) throws IOException {
+        EmailNotificationDto notification = EmailNotificationDto.builder()
+            .recipientEmail(readString(in))
+            .orderNumber(readString(in))
+            .subject(readString(in))
+            .message(readString(in))
+            .eventType(readString(in))
+            .build();
+        if (version >= 2) {
+            notification.setEventId(readString(in));
+        }
+        return notification;
+    }
+
+    private static byte[] deflate(byte[] bytes) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(
+            bytes.length
+        );
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try (
+            DeflaterOutputStream out = new DeflaterOutputStream(
+                compressed,
+                deflater
+            )
+        ) {
+            out.write(bytes);
+        } finally {
+            deflater.end();
+        }
+        return compressed.toByteArray();
+    }
+
+    private static void writeString(DataOutputStream out, String value)
+        throws IOException {
+        if (value == null) {
+            writeVarInt(out, 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, bytes.length + 1);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = readVarInt(in);
+        if (length == 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length - 1];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value)
+        throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    private static void writeLong(DataOutputStream out, Long value)
+        throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value);
+        }
+    }
+
+    private static Long readLong(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readLong() : null;
+    }
+
+    private static void writeInt(DataOutputStream out, Integer value)
+        throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeInt(value);
+        }
+    }
+
+    private static Integer readInt(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readInt() : null;
+    }
+
+    private static void writeDecimal(DataOutputStream out, BigDecimal value)
+        throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            byte[] unscaled = value.unscaledValue().toByteArray();
+            out.writeByte(value.scale());
+            out.writeByte(unscaled.length);
+            out.write(unscaled);
+        }
+    }
+
+    private static BigDecimal readDecimal(DataInputStream in)
+        throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        int scale = in.readByte();
+        byte[] unscaled = new byte[in.readUnsignedByte()];
+        in.readFully(unscaled);
+        return new BigDecimal(new BigInteger(unscaled), scale);
+    }
+
+    private static void writeDateTime(DataOutputStream out, LocalDateTime value)
+        throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value.toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(value.getNano());
+        }
+    }
+
+    private static LocalDateTime readDateTime(DataInputStream in)
+        throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(
+            in.readLong(),
+            in.readInt(),
+            ZoneOffset.UTC
+        );
+    }
+}
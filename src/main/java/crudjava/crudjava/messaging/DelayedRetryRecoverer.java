@@ -0,0 +1,121 @@
+package crudjava.crudjava.messaging;
+
+import crudjava.crudjava.config.RabbitConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.rabbit.retry.MessageBatchRecoverer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Recovers failed deliveries by republishing them to the TTL delay queue of
+ * the next backoff tier, from where the broker dead-letters them back to the
+ * source queue. After {@code app.messaging.retry.max-attempts} the message is
+ * moved to the parking lot queue instead of being redelivered again.
+ *
+ * <p>Queues that must keep their order cannot go through the delay queues,
+ * which would put a failed message behind newer ones; their listeners retry
+ * in place and hand what still fails to {@link #park}.
+ */
+@Component
+@Slf4j
+public class DelayedRetryRecoverer implements MessageBatchRecoverer {
+
+    private final RabbitTemplate rabbitTemplate;
+    private final MeterRegistry meterRegistry;
+    private final int retryTiers;
+    private final int maxAttempts;
+
+    public DelayedRetryRecoverer(
+        RabbitTemplate rabbitTemplate,
+        MeterRegistry meterRegistry,
+        @Value("${app.messaging.retry.delays:1s,10s,60s}") List<Duration> retryDelays,
+        @Value("${app.messaging.retry.max-attempts:5}") int maxAttempts
+    ) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.meterRegistry = meterRegistry;
+        this.retryTiers = retryDelays.size();
+        this.maxAttempts = maxAttempts;
+    }
+
+    @Override
+    public void recover(Message message, Throwable cause) {
+        MessageProperties properties = message.getMessageProperties();
+        String queue = properties.getConsumerQueue();
+        Integer previousAttempts = properties.getHeader(
+            RabbitConfig.RETRY_ATTEMPT_HEADER
+        );
+        int attempt = previousAttempts != null ? previousAttempts + 1 : 1;
+        String reason = rootCauseMessage(cause);
+
+        properties.setHeader(RabbitConfig.RETRY_ATTEMPT_HEADER, attempt);
+        properties.setHeader(RabbitConfig.ORIGINAL_QUEUE_HEADER, queue);
+        properties.setHeader(RabbitConfig.FAILURE_REASON_HEADER, reason);
+
+        if (attempt >= maxAttempts || retryTiers == 0) {
+            moveToParkingLot(message, queue, attempt, reason);
+            return;
+        }
+
+        int tier = Math.min(attempt - 1, retryTiers - 1);
+        log.warn(
+            "Message from {} failed (attempt {}), retrying via tier {}: {}",
+            queue,
+            attempt,
+            tier,
+            reason
+        );
+        rabbitTemplate.send(
+            "",
+            RabbitConfig.retryQueueName(queue, tier),
+            message
+        );
+        meterRegistry.counter("events.consumer.retried", "queue", queue).increment();
+    }
+
+    @Override
+    public void recover(List<Message> messages, Throwable cause) {
+        messages.forEach(message -> recover(message, cause));
+    }
+
+    /** Moves messages straight to the parking lot, skipping the delay tiers. */
+    public void park(List<Message> messages, Throwable cause) {
+        String reason = rootCauseMessage(cause);
+        for (Message message : messages) {
+            MessageProperties properties = message.getMessageProperties();
+            String queue = properties.getConsumerQueue();
+            properties.setHeader(RabbitConfig.ORIGINAL_QUEUE_HEADER, queue);
+            properties.setHeader(RabbitConfig.FAILURE_REASON_HEADER, reason);
+            moveToParkingLot(message, queue, maxAttempts, reason);
+        }
+    }
+
+    private void moveToParkingLot(
+        Message message,
+        String queue,
+        int attempt,
+        String reason
+    ) {
+        log.error(
+            "Message from {} failed {} times, moving to parking lot: {}",
+            queue,
+            attempt,
+            reason
+        );
+        rabbitTemplate.send("", RabbitConfig.PARKING_LOT_QUEUE, message);
+        meterRegistry.counter("events.consumer.parked", "queue", queue).increment();
+    }
+
+    private String rootCauseMessage(Throwable cause) {
+        Throwable root = cause;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        return root.getClass().getSimpleName() + ": " + root.getMessage();
+    }
+}
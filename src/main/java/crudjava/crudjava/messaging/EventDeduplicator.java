@@ -0,0 +1,168 @@
+package crudjava.crudjava.messaging;
+
+import crudjava.crudjava.exception.EventInProgressException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Remembers which events a queue's consumer has already processed so that
+ * redeliveries are skipped. A consumer claims an event with a single
+ * {@code SET NX EX} holding a short processing lease, so two consumers cannot
+ * both pass, and marks it done with the full TTL once handling succeeded. A
+ * failed handler releases the claim; a consumer that dies mid-way leaves a
+ * lease that expires, so the broker's redelivery is processed rather than
+ * skipped. A delivery that finds another consumer's lease fails with
+ * {@link EventInProgressException} and goes through the retry path instead
+ * of being acked.
+ *
+ * <p>Recently completed IDs are also kept in a local window; Redis holds them
+ * for the full TTL and is shared between instances. Redis failures are
+ * treated as a successful claim, so an outage degrades to at-least-once
+ * rather than blocking consumption.
+ */
+@Component
+@Slf4j
+public class EventDeduplicator {
+
+    private static final String KEY_PREFIX = "events:processed:";
+    private static final String PROCESSING = "processing";
+    private static final String DONE = "done";
+
+    private final StringRedisTemplate redisTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Duration ttl;
+    private final Duration processingLease;
+    private final long localWindowNanos;
+    private final int localMaxEntries;
+
+    private final Map<String, Long> recentlyProcessed = new ConcurrentHashMap<>();
+    private final Map<String, Counter> hitCounters = new ConcurrentHashMap<>();
+    private final Map<String, Counter> missCounters = new ConcurrentHashMap<>();
+
+    public EventDeduplicator(
+        StringRedisTemplate redisTemplate,
+        MeterRegistry meterRegistry,
+        @Value("${app.messaging.dedup.ttl:24h}") Duration ttl,
+        @Value("${app.messaging.dedup.processing-lease:2m}") Duration processingLease,
+        @Value("${app.messaging.dedup.local-window:10m}") Duration localWindow,
+        @Value("${app.messaging.dedup.local-max-entries:100000}") int localMaxEntries
+    ) {
+        this.redisTemplate = redisTemplate;
+        this.meterRegistry = meterRegistry;
+        this.ttl = ttl;
+        this.processingLease = processingLease;
+        this.localWindowNanos = localWindow.toNanos();
+        this.localMaxEntries = localMaxEntries;
+    }
+
+    /**
+     * Claims the event for this consumer. Returns {@code false} when it was
+     * already processed and throws {@link EventInProgressException} when
+     * another consumer holds the processing lease.
+     */
+    public boolean tryClaim(String queue, String eventId) {
+        if (eventId == null) {
+            return true;
+        }
+        String key = key(queue, eventId);
+        Long expiresAt = recentlyProcessed.get(key);
+        boolean claimed =
+            (expiresAt == null || expiresAt - System.nanoTime() <= 0) &&
+            claimInRedis(queue, eventId, key);
+
+        if (claimed) {
+            counter(missCounters, "events.dedup.misses", queue).increment();
+        } else {
+            log.info("Skipping duplicate event {} on {}", eventId, queue);
+            counter(hitCounters, "events.dedup.hits", queue).increment();
+        }
+        return claimed;
+    }
+
+    /** Marks a claimed event as processed for the full TTL. */
+    public void complete(String queue, String eventId) {
+        if (eventId == null) {
+            return;
+        }
+        String key = key(queue, eventId);
+        if (recentlyProcessed.size() < localMaxEntries) {
+            recentlyProcessed.put(key, System.nanoTime() + localWindowNanos);
+        }
+        try {
+            redisTemplate.opsForValue().set(key, DONE, ttl);
+        } catch (RuntimeException e) {
+            log.warn(
+                "Failed to mark event {} as processed in Redis: {}",
+                eventId,
+                e.getMessage()
+            );
+        }
+    }
+
+    /** Gives up a claim after handling failed, so the redelivery is processed. */
+    public void release(String queue, String eventId) {
+        if (eventId == null) {
+            return;
+        }
+        String key = key(queue, eventId);
+        recentlyProcessed.remove(key);
+        try {
+            redisTemplate.delete(key);
+        } catch (RuntimeException e) {
+            log.warn(
+                "Failed to release claim on event {} in Redis: {}",
+                eventId,
+                e.getMessage()
+            );
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.messaging.dedup.cleanup-interval-ms:30000}")
+    public void evictExpired() {
+        long now = System.nanoTime();
+        recentlyProcessed.values().removeIf(expiresAt -> expiresAt - now <= 0);
+    }
+
+    private boolean claimInRedis(String queue, String eventId, String key) {
+        String state;
+        try {
+            if (
+                !Boolean.FALSE.equals(
+                    redisTemplate
+                        .opsForValue()
+                        .setIfAbsent(key, PROCESSING, processingLease)
+                )
+            ) {
+                return true;
+            }
+            state = redisTemplate.opsForValue().get(key);
+        } catch (RuntimeException e) {
+            log.warn("Dedup claim in Redis failed: {}", e.getMessage());
+            return true;
+        }
+        if (DONE.equals(state)) {
+            return false;
+        }
+        // Either another consumer's lease, or one that just expired; in both
+        // cases a later retry settles it.
+        throw new EventInProgressException(queue, eventId);
+    }
+
+    private Counter counter(Map<String, Counter> counters, String name, String queue) {
+        return counters.computeIfAbsent(queue, q ->
+            Counter.builder(name).tag("queue", q).register(meterRegistry)
+        );
+    }
+
+    private static String key(String queue, String eventId) {
+        return KEY_PREFIX + queue + ":" + eventId;
+    }
+}
@@ -0,0 +1,342 @@
+package crudjava.crudjava.messaging;
+
+import crudjava.crudjava.concurrency.AdaptiveConcurrencyLimiter;
+import crudjava.crudjava.concurrency.DownstreamLimiters;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Buffers outgoing events per exchange and publishes them in batches over a
+ * single channel with correlated publisher confirms. A batch is sent once it
+ * reaches {@code app.messaging.publisher.batch-size} or when the linger timer
+ * fires. Nacked or failed messages are put back into the buffer until
+ * {@code app.messaging.publisher.max-attempts} is reached.
+ *
+ * <p>Unconfirmed messages count against the adaptive {@code rabbitmq}
+ * concurrency limit, with the confirm latency as its signal. Messages that do
+ * not get a permit stay buffered for the next flush; once the buffers exceed
+ * {@code app.messaging.publisher.max-buffered}, new events are rejected.
+ *
+ * <p>A batch stops at the first message that is denied a permit or fails to
+ * send, and that message and everything after it go back to the head of the
+ * buffer, so those messages keep their publish order. A nack only arrives
+ * after newer messages may already have been sent. The nacked message is
+ * requeued at the head but can then reach the broker after later events for
+ * its routing key, so confirms do not guarantee per-key order.
+ */
+@Component
+@Profile("!" + InProcessEventTransport.PROFILE)
+@Slf4j
+public class EventPublisher {
+
+    private final RabbitTemplate rabbitTemplate;
+    private final MeterRegistry meterRegistry;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final int maxBuffered;
+    private final DownstreamLimiters downstreamLimiters;
+    private final AdaptiveConcurrencyLimiter limiter;
+
+    private final Map<String, ExchangeBuffer> buffers =
+        new ConcurrentHashMap<>();
+    private final Map<String, Timer> confirmTimers = new ConcurrentHashMap<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Counter nackCounter;
+    private final Counter droppedCounter;
+
+    public EventPublisher(
+        RabbitTemplate rabbitTemplate,
+        MeterRegistry meterRegistry,
+        @Value("${app.messaging.publisher.batch-size:50}") int batchSize,
+        @Value("${app.messaging.publisher.max-attempts:5}") int maxAttempts,
+        @Value("${app.messaging.publisher.max-buffered:10000}") int maxBuffered,
+        DownstreamLimiters downstreamLimiters
+    ) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.meterRegistry = meterRegistry;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.maxBuffered = maxBuffered;
+        this.downstreamLimiters = downstreamLimiters;
+        this.limiter = downstreamLimiters.limiter(DownstreamLimiters.RABBITMQ);
+
+        Gauge.builder("events.publisher.in_flight", inFlight, AtomicInteger::get)
+            .description("Published messages awaiting a broker confirm")
+            .register(meterRegistry);
+        Gauge.builder("events.publisher.buffered", buffers, this::bufferedCount)
+            .description("Messages waiting in publish buffers")
+            .register(meterRegistry);
+        this.nackCounter = Counter.builder("events.publisher.nacks").register(
+            meterRegistry
+        );
+        this.droppedCounter = Counter.builder(
+            "events.publisher.dropped"
+        ).register(meterRegistry);
+    }
+
+    public void publish(String exchange, String routingKey, Object payload) {
+        if (bufferedCount(buffers) >= maxBuffered) {
+            throw downstreamLimiters.rejected(DownstreamLimiters.RABBITMQ);
+        }
+        enqueue(new PendingMessage(exchange, routingKey, payload, 1));
+    }
+
+    @Scheduled(fixedDelayString = "${app.messaging.publisher.linger-ms:20}")
+    public void flushBuffers() {
+        buffers.values().forEach(this::flush);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flushBuffers();
+    }
+
+    private void enqueue(PendingMessage message) {
+        ExchangeBuffer buffer = buffers.computeIfAbsent(
+            message.exchange(),
+            exchange -> new ExchangeBuffer()
+        );
+        if (buffer.add(message) >= batchSize) {
+            flush(buffer);
+        }
+    }
+
+    private void flush(ExchangeBuffer buffer) {
+        buffer.sendLock.lock();
+        try {
+            List<PendingMessage> batch = buffer.drain();
+            if (!batch.isEmpty()) {
+                send(batch);
+            }
+        } finally {
+            buffer.sendLock.unlock();
+        }
+    }
+
+    private void send(List<PendingMessage> batch) {
+        List<PendingMessage> putBack = new ArrayList<>();
+        try {
+            rabbitTemplate.invoke(operations -> {
+                for (int i = 0; i < batch.size(); i++) {
+                    PendingMessage message = batch.get(i);
+                    AdaptiveConcurrencyLimiter.Permit permit =
+                        limiter.tryAcquire();
+                    if (permit == null) {
+                        putBack.addAll(batch.subList(i, batch.size()));
+                        break;
+                    }
+                    CorrelationData correlation = new CorrelationData();
+                    long startNanos = System.nanoTime();
+                    inFlight.incrementAndGet();
+                    try {
+                        operations.convertAndSend(
+                            message.exchange(),
+                            message.routingKey(),
+                            message.payload(),
+                            correlation
+                        );
+                    } catch (RuntimeException e) {
+                        inFlight.decrementAndGet();
+                        permit.releaseDropped();
+                        PendingMessage retried = nextAttempt(
+                            message,
+                            "send failed: " + e.getMessage()
+                        );
+                        if (retried != null) {
+                            putBack.add(retried);
+                        }
+                        putBack.addAll(batch.subList(i + 1, batch.size()));
+                        break;
+                    }
+                    correlation
+                        .getFuture()
+                        .whenComplete((confirm, ex) ->
+                            onConfirm(
+                                message,
+                                correlation,
+                                permit,
+                                startNanos,
+                                ex == null && confirm.isAck(),
+                                ex != null ? ex.getMessage() : confirm.getReason()
+                            )
+                        );
+                }
+                return null;
+            });
+        } catch (RuntimeException e) {
+            log.error(
+                "Failed to publish batch of {} messages: {}",
+                batch.size(),
+                e.getMessage()
+            );
+            putBack.clear();
+            for (PendingMessage message : batch) {
+                PendingMessage retried = nextAttempt(message, "send failed");
+                if (retried != null) {
+                    putBack.add(retried);
+                }
+            }
+        }
+        requeueFirst(putBack);
+    }
+
+    private void onConfirm(
+        PendingMessage message,
+        CorrelationData correlation,
+        AdaptiveConcurrencyLimiter.Permit permit,
+        long startNanos,
+        boolean ack,
+        String reason
+    ) {
+        inFlight.decrementAndGet();
+        if (ack) {
+            permit.release();
+        } else {
+            permit.releaseDropped();
+        }
+        confirmTimers
+            .computeIfAbsent(message.exchange(), exchange ->
+                Timer.builder("events.publisher.confirm.latency")
+                    .tag("exchange", exchange)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+            )
+            .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+
+        if (!ack) {
+            nackCounter.increment();
+            retry(message, reason);
+        } else if (correlation.getReturned() != null) {
+            log.warn(
+                "Message to {} with routing key {} was returned as unroutable: {}",
+                message.exchange(),
+                message.routingKey(),
+                correlation.getReturned().getReplyText()
+            );
+        }
+    }
+
+    private void retry(PendingMessage message, String reason) {
+        PendingMessage retried = nextAttempt(message, reason);
+        if (retried != null) {
+            requeueFirst(List.of(retried));
+        }
+    }
+
+    /** The message's next attempt, or {@code null} once it is dropped. */
+    private PendingMessage nextAttempt(PendingMessage message, String reason) {
+        if (message.attempt() >= maxAttempts) {
+            droppedCounter.increment();
+            log.error(
+                "Dropping message to {} with routing key {} after {} attempts: {}",
+                message.exchange(),
+                message.routingKey(),
+                message.attempt(),
+                reason
+            );
+            return null;
+        }
+        log.warn(
+            "Republishing message to {} with routing key {} (attempt {}): {}",
+            message.exchange(),
+            message.routingKey(),
+            message.attempt() + 1,
+            reason
+        );
+        return message.nextAttempt();
+    }
+
+    private void requeueFirst(List<PendingMessage> messages) {
+        if (messages.isEmpty()) {
+            return;
+        }
+        ExchangeBuffer buffer = buffers.computeIfAbsent(
+            messages.get(0).exchange(),
+            exchange -> new ExchangeBuffer()
+        );
+        buffer.addFirst(messages);
+    }
+
+    private double bufferedCount(Map<String, ExchangeBuffer> buffers) {
+        return buffers.values().stream().mapToInt(ExchangeBuffer::size).sum();
+    }
+
+    private record PendingMessage(
+        String exchange,
+        String routingKey,
+        Object payload,
+        int attempt
+    ) {
+        PendingMessage nextAttempt() {
+            return new PendingMessage(exchange, routingKey, payload, attempt + 1);
+        }
+    }
+
+    private static final class ExchangeBuffer {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final ReentrantLock sendLock = new ReentrantLock();
+        private List<PendingMessage> messages = new ArrayList<>();
+
+        int add(PendingMessage message) {
+            lock.lock();
+            try {
+                messages.add(message);
+                return messages.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void addFirst(List<PendingMessage> earlier) {
+            lock.lock();
+            try {
+                List<PendingMessage> merged = new ArrayList<>(
+                    earlier.size() + messages.size()
+                );
+                merged.addAll(earlier);
+                merged.addAll(messages);
+                messages = merged;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        List<PendingMessage> drain() {
+            lock.lock();
+            try {
+                List<PendingMessage> drained = messages;
+                messages = new ArrayList<>();
+                return drained;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        int size() {
+            lock.lock();
+            try {
+                return messages.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
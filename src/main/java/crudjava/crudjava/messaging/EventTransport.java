@@ -0,0 +1,5 @@
+package crudjava.crudjava.messaging;
+
+public interface EventTransport {
+    void send(String exchange, String routingKey, Object event);
+}
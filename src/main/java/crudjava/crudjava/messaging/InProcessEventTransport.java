@@ -0,0 +1,214 @@
+package crudjava.crudjava.messaging;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+/**
+ * Delivers events to subscribers in the same JVM without a broker. Producers
+ * enqueue into a bounded lock-free ring buffer; a single dispatcher thread
+ * drains it in batches and hands each subscriber the events of its routing key
+ * in publish order. When the buffer is full producers are parked until space
+ * frees up or the offer timeout expires.
+ */
+@Component
+@Profile(InProcessEventTransport.PROFILE)
+@Slf4j
+public class InProcessEventTransport implements EventTransport {
+
+    public static final String PROFILE = "inproc";
+
+    private static final long MAX_IDLE_PARK_NANOS =
+        TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final RingBuffer<Envelope> ringBuffer;
+    private final int batchSize;
+    private final long offerTimeoutNanos;
+    private final Map<String, Subscription<?>> subscriptions =
+        new ConcurrentHashMap<>();
+
+    private final Counter deliveredCounter;
+    private final Counter failedCounter;
+    private final Counter unroutedCounter;
+    private final Counter backpressureCounter;
+
+    private volatile boolean running = true;
+    private volatile boolean idle;
+    private Thread dispatcher;
+
+    public InProcessEventTransport(
+        MeterRegistry meterRegistry,
+        @Value("${app.messaging.inproc.capacity:8192}") int capacity,
+        @Value("${app.messaging.inproc.batch-size:256}") int batchSize,
+        @Value("${app.messaging.inproc.offer-timeout:1s}") Duration offerTimeout
+    ) {
+        this.ringBuffer = new RingBuffer<>(capacity);
+        this.batchSize = batchSize;
+        this.offerTimeoutNanos = offerTimeout.toNanos();
+
+        Gauge.builder("events.inproc.depth", ringBuffer, RingBuffer::size)
+            .register(meterRegistry);
+        this.deliveredCounter = Counter.builder(
+            "events.inproc.delivered"
+        ).register(meterRegistry);
+        this.failedCounter = Counter.builder("events.inproc.failed").register(
+            meterRegistry
+        );
+        this.unroutedCounter = Counter.builder(
+            "events.inproc.unrouted"
+        ).register(meterRegistry);
+        this.backpressureCounter = Counter.builder(
+            "events.inproc.backpressure"
+        ).register(meterRegistry);
+    }
+
+    public <T> void subscribe(
+        String routingKey,
+        Class<T> eventType,
+        Consumer<List<T>> handler
+    ) {
+        if (
+            subscriptions.putIfAbsent(
+                routingKey,
+                new Subscription<>(eventType, handler)
+            ) !=
+            null
+        ) {
+            throw new IllegalStateException(
+                "Routing key already has a subscriber: " + routingKey
+            );
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        dispatcher = Thread.ofPlatform()
+            .name("inproc-event-dispatcher")
+            .daemon(true)
+            .start(this::dispatchLoop);
+    }
+
+    @Override
+    public void send(String exchange, String routingKey, Object event) {
+        Envelope envelope = new Envelope(routingKey, event);
+        if (ringBuffer.offer(envelope)) {
+            wakeDispatcher();
+            return;
+        }
+        if (Thread.currentThread() == dispatcher) {
+            // A subscriber publishing from the dispatcher thread would wait on itself.
+            dispatch(List.of(envelope));
+            return;
+        }
+
+        backpressureCounter.increment();
+        long deadline = System.nanoTime() + offerTimeoutNanos;
+        long parkNanos = 1_000;
+        while (!ringBuffer.offer(envelope)) {
+            if (System.nanoTime() - deadline >= 0 || !running) {
+                throw new IllegalStateException(
+                    "In-process event buffer is full, dropping event for " +
+                        routingKey
+                );
+            }
+            wakeDispatcher();
+            LockSupport.parkNanos(parkNanos);
+            parkNanos = Math.min(parkNanos * 2, MAX_IDLE_PARK_NANOS);
+        }
+        wakeDispatcher();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(dispatcher);
+        dispatcher.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    private void dispatchLoop() {
+        List<Envelope> batch = new ArrayList<>(batchSize);
+        while (true) {
+            Envelope envelope;
+            while (batch.size() < batchSize && (envelope = ringBuffer.poll()) != null) {
+                batch.add(envelope);
+            }
+            if (!batch.isEmpty()) {
+                dispatch(batch);
+                batch.clear();
+                continue;
+            }
+            if (!running) {
+                return;
+            }
+            idle = true;
+            if (ringBuffer.size() == 0) {
+                LockSupport.parkNanos(this, MAX_IDLE_PARK_NANOS);
+            }
+            idle = false;
+        }
+    }
+
+    private void wakeDispatcher() {
+        if (idle) {
+            LockSupport.unpark(dispatcher);
+        }
+    }
+
+    private void dispatch(List<Envelope> batch) {
+        Map<String, List<Object>> byRoutingKey = new LinkedHashMap<>();
+        for (Envelope envelope : batch) {
+            byRoutingKey
+                .computeIfAbsent(envelope.routingKey(), key -> new ArrayList<>())
+                .add(envelope.event());
+        }
+        byRoutingKey.forEach(this::deliver);
+    }
+
+    private void deliver(String routingKey, List<Object> events) {
+        Subscription<?> subscription = subscriptions.get(routingKey);
+        if (subscription == null) {
+            log.warn(
+                "No in-process subscriber for {}, dropping {} events",
+                routingKey,
+                events.size()
+            );
+            unroutedCounter.increment(events.size());
+            return;
+        }
+        try {
+            subscription.deliver(events);
+            deliveredCounter.increment(events.size());
+        } catch (RuntimeException e) {
+            log.error(
+                "In-process subscriber for {} failed on batch of {}: {}",
+                routingKey,
+                events.size(),
+                e.getMessage()
+            );
+            failedCounter.increment(events.size());
+        }
+    }
+
+    private record Envelope(String routingKey, Object event) {}
+
+    private record Subscription<T>(Class<T> eventType, Consumer<List<T>> handler) {
+        void deliver(List<Object> events) {
+            handler.accept(events.stream().map(eventType::cast).toList());
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package crudjava.crudjava.messaging;
+
+import java.util.List;
+import java.util.stream.IntStream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Maps products to inventory event partitions with jump consistent hashing
+ * (Lamping and Veach), so that all events of one product land in the same
+ * queue and are processed in order by that queue's single active consumer.
+ *
+ * <p>Partitioning is enabled when {@code app.messaging.inventory.partitions}
+ * is greater than one. Changing the count from N to M moves only about
+ * |M - N| / max(M, N) of the products to a different queue. To rebalance:
+ * <ol>
+ *   <li>Stop or throttle stock-changing traffic and wait until every
+ *       {@code inventory.update.queue.N} queue (and its retry queues) is
+ *       empty; in-flight events of moved products are the only ones that
+ *       could otherwise be reordered.</li>
+ *   <li>Roll out the new partition count to all instances. New queues and
+ *       bindings are declared on startup.</li>
+ *   <li>When shrinking, delete the surplus partition queues once they are
+ *       empty, since nothing publishes to them anymore.</li>
+ * </ol>
+ */
+@Component
+public class InventoryPartitioner {
+
+    public static final String PARTITION_QUEUE_PREFIX = "inventory.update.queue.";
+    public static final String PARTITION_ROUTING_KEY_PREFIX = "inventory.update.";
+
+    private final int partitions;
+
+    public InventoryPartitioner(
+        @Value("${app.messaging.inventory.partitions:0}") int partitions
+    ) {
+        this.partitions = partitions;
+    }
+
+    public boolean isEnabled() {
+        return partitions > 1;
+    }
+
+    public int getPartitions() {
+        return partitions;
+    }
+
+    public int partition(Long productId) {
+        return jumpConsistentHash(productId, partitions);
+    }
+
+    public String routingKey(Long productId) {
+        return PARTITION_ROUTING_KEY_PREFIX + partition(productId);
+    }
+
+    public String queueName(int partition) {
+        return PARTITION_QUEUE_PREFIX + partition;
+    }
+
+    public List<String> queueNames() {
+        if (!isEnabled()) {
+            return List.of();
+        }
+        return IntStream.range(0, partitions).mapToObj(this::queueName).toList();
+    }
+
+    static int jumpConsistentHash(long key, int buckets) {
+        long b = -1;
+        long j = 0;
+        while (j < buckets) {
+            b = j;
+            key = key * 2862933555777941757L + 1;
+            j = (long) ((b + 1) * ((double) (1L << 31) / (double) ((key >>> 33) + 1)));
+        }
+        return (int) b;
+    }
+}
@@ -0,0 +1,18 @@
+package crudjava.crudjava.messaging;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+@Component
+@Profile("!" + InProcessEventTransport.PROFILE)
+@RequiredArgsConstructor
+public class RabbitEventTransport implements EventTransport {
+
+    private final EventPublisher eventPublisher;
+
+    @Override
+    public void send(String exchange, String routingKey, Object event) {
+        eventPublisher.publish(exchange, routingKey, event);
+    }
+}
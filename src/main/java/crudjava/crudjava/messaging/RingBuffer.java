@@ -0,0 +1,87 @@
+package crudjava.crudjava.messaging;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded lock-free multi-producer queue (Vyukov). Each slot carries a
+ * sequence number that tells producers and the consumer whether the slot is
+ * free or published, so no locks are taken on either side.
+ */
+final class RingBuffer<E> {
+
+    private final Object[] elements;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong enqueuePosition = new AtomicLong();
+    private final AtomicLong dequeuePosition = new AtomicLong();
+
+    RingBuffer(int capacity) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException(
+                "Ring buffer capacity must be a power of two: " + capacity
+            );
+        }
+        this.elements = new Object[capacity];
+        this.sequences = new AtomicLongArray(capacity);
+        this.mask = capacity - 1;
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    boolean offer(E element) {
+        long position = enqueuePosition.get();
+        int index;
+        while (true) {
+            index = (int) (position & mask);
+            long difference = sequences.getAcquire(index) - position;
+            if (difference == 0) {
+                if (enqueuePosition.compareAndSet(position, position + 1)) {
+                    break;
+                }
+                position = enqueuePosition.get();
+            } else if (difference < 0) {
+                return false;
+            } else {
+                position = enqueuePosition.get();
+            }
+        }
+        elements[index] = element;
+        sequences.setRelease(index, position + 1);
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    E poll() {
+        long position = dequeuePosition.get();
+        int index;
+        while (true) {
+            index = (int) (position & mask);
+            long difference = sequences.getAcquire(index) - (position + 1);
+            if (difference == 0) {
+                if (dequeuePosition.compareAndSet(position, position + 1)) {
+                    break;
+                }
+                position = dequeuePosition.get();
+            } else if (difference < 0) {
+                return null;
+            } else {
+                position = dequeuePosition.get();
+            }
+        }
+        E element = (E) elements[index];
+        elements[index] = null;
+        sequences.setRelease(index, position + mask + 1);
+        return element;
+    }
+
+    int size() {
+        long size = enqueuePosition.get() - dequeuePosition.get();
+        return (int) Math.max(0, Math.min(size, elements.length));
+    }
+
+    int capacity() {
+        return elements.length;
+    }
+}
@@ -0,0 +1,37 @@
+package crudjava.crudjava.model;
+
+import java.util.Locale;
+
+/**
+ * Enum persisted as a stable {@code smallint} code rather than its name, so
+ * constants can be renamed or reordered without rewriting rows.
+ */
+public interface CodedEnum {
+    short getCode();
+
+    static <E extends Enum<E> & CodedEnum> E fromCode(Class<E> type, short code) {
+        for (E constant : type.getEnumConstants()) {
+            if (constant.getCode() == code) {
+                return constant;
+            }
+        }
+        throw new IllegalArgumentException(
+            "Unknown " + type.getSimpleName() + " code: " + code
+        );
+    }
+
+    static <E extends Enum<E>> E parse(Class<E> type, String value) {
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException(
+                type.getSimpleName() + " must not be empty"
+            );
+        }
+        try {
+            return Enum.valueOf(type, value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(
+                "Unknown " + type.getSimpleName() + ": " + value
+            );
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package crudjava.crudjava.model;
+
+import jakarta.persistence.AttributeConverter;
+
+abstract class CodedEnumConverter<E extends Enum<E> & CodedEnum>
+    implements AttributeConverter<E, Short> {
+
+    private final Class<E> type;
+
+    protected CodedEnumConverter(Class<E> type) {
+        this.type = type;
+    }
+
+    @Override
+    public Short convertToDatabaseColumn(E attribute) {
+        return attribute != null ? attribute.getCode() : null;
+    }
+
+    @Override
+    public E convertToEntityAttribute(Short code) {
+        return code != null ? CodedEnum.fromCode(type, code) : null;
+    }
+}
@@ -69,9 +69,9 @@ public class Customer {
     @Column(name = "phone", length = 20)
     private String phone;
 
-    @Column(name = "customer_type", nullable = false, length = 20)
+    @Column(name = "customer_type", nullable = false)
     @Builder.Default
-    private String customerType = "REGULAR";
+    private CustomerType customerType = CustomerType.REGULAR;
 
     @OneToMany(mappedBy = "customer", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     @JsonManagedReference("customer-addresses")
@@ -0,0 +1,22 @@
+package crudjava.crudjava.model;
+
+public enum CustomerType implements CodedEnum {
+    REGULAR(0),
+    PREMIUM(1),
+    VIP(2);
+
+    private final short code;
+
+    CustomerType(int code) {
+        this.code = (short) code;
+    }
+
+    @Override
+    public short getCode() {
+        return code;
+    }
+
+    public static CustomerType parse(String value) {
+        return CodedEnum.parse(CustomerType.class, value);
+    }
+}
@@ -0,0 +1,11 @@
+package crudjava.crudjava.model;
+
+import jakarta.persistence.Converter;
+
+@Converter(autoApply = true)
+public class CustomerTypeConverter extends CodedEnumConverter<CustomerType> {
+
+    public CustomerTypeConverter() {
+        super(CustomerType.class);
+    }
+}
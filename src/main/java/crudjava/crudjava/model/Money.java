@@ -0,0 +1,153 @@
+package crudjava.crudjava.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Currency;
+import java.util.Objects;
+
+/**
+ * Immutable amount of money held as a {@code long} count of the currency's
+ * minor units. Arithmetic is exact and throws on overflow; converting from
+ * {@link BigDecimal} rounds half-up to the currency's fraction digits, which
+ * is how Postgres rounds values stored into {@code NUMERIC(p, 2)} columns.
+ */
+public final class Money implements Comparable<Money> {
+
+    public static final Currency DEFAULT_CURRENCY = Currency.getInstance("USD");
+    public static final Money ZERO = new Money(0, DEFAULT_CURRENCY);
+
+    private final long minorUnits;
+    private final Currency currency;
+
+    private Money(long minorUnits, Currency currency) {
+        this.minorUnits = minorUnits;
+        this.currency = currency;
+    }
+
+    public static Money ofMinor(long minorUnits, Currency currency) {
+        Objects.requireNonNull(currency, "currency");
+        if (minorUnits == 0 && currency.equals(DEFAULT_CURRENCY)) {
+            return ZERO;
+        }
+        return new Money(minorUnits, currency);
+    }
+
+    public static Money of(BigDecimal amount) {
+        return of(amount, DEFAULT_CURRENCY);
+    }
+
+    public static Money of(BigDecimal amount, Currency currency) {
+        Objects.requireNonNull(amount, "amount");
+        BigDecimal scaled = amount.setScale(
+            currency.getDefaultFractionDigits(),
+            RoundingMode.HALF_UP
+        );
+        return ofMinor(scaled.unscaledValue().longValueExact(), currency);
+    }
+
+    public static Money zero(Currency currency) {
+        return ofMinor(0, currency);
+    }
+
+    public static Money orZero(Money money) {
+        return money != null ? money : ZERO;
+    }
+
+    public long getMinorUnits() {
+        return minorUnits;
+    }
+
+    public Currency getCurrency() {
+        return currency;
+    }
+
+    public Money plus(Money other) {
+        requireSameCurrency(other);
+        if (other.minorUnits == 0) {
+            return this;
+        }
+        return ofMinor(Math.addExact(minorUnits, other.minorUnits), currency);
+    }
+
+    public Money minus(Money other) {
+        requireSameCurrency(other);
+        if (other.minorUnits == 0) {
+            return this;
+        }
+        return ofMinor(
+            Math.subtractExact(minorUnits, other.minorUnits),
+            currency
+        );
+    }
+
+    /**
+     * Adds an amount that may carry more fraction digits than the currency
+     * and rounds the result once, so sub-cent parts are not rounded away
+     * before they are combined.
+     */
+    public Money plus(BigDecimal amount) {
+        if (amount.signum() == 0) {
+            return this;
+        }
+        return of(toBigDecimal().add(amount), currency);
+    }
+
+    public Money minus(BigDecimal amount) {
+        return plus(amount.negate());
+    }
+
+    public Money times(int quantity) {
+        if (quantity == 1) {
+            return this;
+        }
+        return ofMinor(Math.multiplyExact(minorUnits, quantity), currency);
+    }
+
+    public boolean isZero() {
+        return minorUnits == 0;
+    }
+
+    public boolean isPositive() {
+        return minorUnits > 0;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(
+            minorUnits,
+            currency.getDefaultFractionDigits()
+        );
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        requireSameCurrency(other);
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return (
+            o instanceof Money other &&
+            minorUnits == other.minorUnits &&
+            currency.equals(other.currency)
+        );
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Long.hashCode(minorUnits) + currency.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString() + " " + currency.getCurrencyCode();
+    }
+
+    private void requireSameCurrency(Money other) {
+        if (!currency.equals(other.currency)) {
+            throw new IllegalArgumentException(
+                "Currency mismatch: " + currency + " and " + other.currency
+            );
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package crudjava.crudjava.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import java.math.BigDecimal;
+
+/**
+ * Maps {@link Money} to the {@code NUMERIC(p, 2)} price columns. The schema
+ * has no currency column, so amounts are read in the default currency.
+ */
+@Converter(autoApply = true)
+public class MoneyConverter implements AttributeConverter<Money, BigDecimal> {
+
+    @Override
+    public BigDecimal convertToDatabaseColumn(Money attribute) {
+        return attribute != null ? attribute.toBigDecimal() : null;
+    }
+
+    @Override
+    public Money convertToEntityAttribute(BigDecimal dbData) {
+        return dbData != null ? Money.of(dbData) : null;
+    }
+}
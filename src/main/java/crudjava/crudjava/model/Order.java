@@ -35,7 +35,6 @@ import lombok.ToString;
 @Entity
 @Table(name = "orders", indexes = {
     @Index(name = "idx_order_customer", columnList = "customer_id"),
-    @Index(name = "idx_order_status", columnList = "status"),
     @Index(name = "idx_order_created_at", columnList = "created_at"),
     @Index(name = "idx_order_total_amount", columnList = "total_amount"),
     @Index(name = "idx_order_status_created", columnList = "status, created_at")
@@ -63,26 +62,26 @@ public class Order {
     @JsonBackReference("customer-orders")
     private Customer customer;
 
-    @Column(name = "status", nullable = false, length = 20)
+    @Column(name = "status", nullable = false)
     @Builder.Default
-    private String status = "PENDING";
+    private OrderStatus status = OrderStatus.PENDING;
 
     @NotNull(message = "Total amount is required")
     @Column(name = "total_amount", nullable = false, precision = 12, scale = 2)
     @Builder.Default
-    private BigDecimal totalAmount = BigDecimal.ZERO;
+    private Money totalAmount = Money.ZERO;
 
     @Column(name = "shipping_cost", precision = 8, scale = 2)
     @Builder.Default
-    private BigDecimal shippingCost = BigDecimal.ZERO;
+    private Money shippingCost = Money.ZERO;
 
     @Column(name = "tax_amount", precision = 8, scale = 2)
     @Builder.Default
-    private BigDecimal taxAmount = BigDecimal.ZERO;
+    private Money taxAmount = Money.ZERO;
 
     @Column(name = "discount_amount", precision = 8, scale = 2)
     @Builder.Default
-    private BigDecimal discountAmount = BigDecimal.ZERO;
+    private Money discountAmount = Money.ZERO;
 
     @Column(name = "notes", length = 500)
     private String notes;
@@ -109,15 +108,19 @@ public class Order {
     private Long version;
 
     public void calculateTotalAmount() {
-        BigDecimal itemsTotal = orderItems != null ?
-            orderItems.stream()
-                .map(OrderItem::getSubtotal)
-                .reduce(BigDecimal.ZERO, BigDecimal::add)
-            : BigDecimal.ZERO;
+        Money itemsTotal = Money.ZERO;
+        BigDecimal remainder = BigDecimal.ZERO;
+        if (orderItems != null) {
+            for (OrderItem item : orderItems) {
+                itemsTotal = itemsTotal.plus(item.getSubtotal());
+                remainder = remainder.add(item.getSubtotalRemainder());
+            }
+        }
 
         this.totalAmount = itemsTotal
-            .add(shippingCost != null ? shippingCost : BigDecimal.ZERO)
-            .add(taxAmount != null ? taxAmount : BigDecimal.ZERO)
-            .subtract(discountAmount != null ? discountAmount : BigDecimal.ZERO);
+            .plus(Money.orZero(shippingCost))
+            .plus(Money.orZero(taxAmount))
+            .minus(Money.orZero(discountAmount))
+            .plus(remainder);
     }
 }
@@ -3,6 +3,7 @@ package crudjava.crudjava.model;
 import java.math.BigDecimal;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
@@ -17,7 +18,7 @@ import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
 import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
-import jakarta.validation.constraints.DecimalMin;
+import jakarta.persistence.Transient;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
@@ -63,20 +64,54 @@ public class OrderItem {
     private Integer quantity;
 
     @NotNull(message = "Unit price is required")
-    @DecimalMin(value = "0.01", message = "Unit price must be greater than 0")
+    @PositiveMoney(message = "Unit price must be greater than 0")
     @Column(name = "unit_price", nullable = false, precision = 10, scale = 2)
-    private BigDecimal unitPrice;
+    private Money unitPrice;
 
     @Column(name = "discount_amount", precision = 8, scale = 2)
     @Builder.Default
-    private BigDecimal discountAmount = BigDecimal.ZERO;
+    private Money discountAmount = Money.ZERO;
 
     @Column(name = "subtotal", nullable = false, precision = 12, scale = 2)
-    private BigDecimal subtotal;
+    private Money subtotal;
+
+    /** Discount as requested, before the column rounds it to cents. */
+    @Transient
+    @JsonIgnore
+    private BigDecimal requestedDiscount;
 
     public void calculateSubtotal() {
-        BigDecimal total = unitPrice.multiply(BigDecimal.valueOf(quantity));
-        this.subtotal = total.subtract(discountAmount != null ? discountAmount : BigDecimal.ZERO);
+        if (unitPrice == null || quantity == null) {
+            return;
+        }
+        Money total = unitPrice.times(quantity);
+        if (requestedDiscount != null) {
+            this.subtotal = total.minus(requestedDiscount);
+        } else {
+            this.subtotal = discountAmount != null ? total.minus(discountAmount) : total;
+        }
+    }
+
+    public void applyDiscount(BigDecimal discount) {
+        this.requestedDiscount = discount;
+        this.discountAmount = Money.of(discount);
+        calculateSubtotal();
+    }
+
+    /**
+     * Part of the unrounded line amount lost when the subtotal was rounded;
+     * the order adds it back before rounding its own total.
+     */
+    @JsonIgnore
+    public BigDecimal getSubtotalRemainder() {
+        if (requestedDiscount == null || subtotal == null) {
+            return BigDecimal.ZERO;
+        }
+        return unitPrice
+            .toBigDecimal()
+            .multiply(BigDecimal.valueOf(quantity))
+            .subtract(requestedDiscount)
+            .subtract(subtotal.toBigDecimal());
     }
 
     @PrePersist
@@ -90,17 +125,18 @@ public class OrderItem {
         calculateSubtotal();
     }
 
-    public void setUnitPrice(BigDecimal unitPrice) {
+    public void setUnitPrice(Money unitPrice) {
         this.unitPrice = unitPrice;
         calculateSubtotal();
     }
 
-    public void setDiscountAmount(BigDecimal discountAmount) {
+    public void setDiscountAmount(Money discountAmount) {
         this.discountAmount = discountAmount;
+        this.requestedDiscount = null;
         calculateSubtotal();
     }
 
-    public BigDecimal getTotalPrice() {
+    public Money getTotalPrice() {
         return subtotal;
     }
 }
@@ -0,0 +1,46 @@
+package crudjava.crudjava.model;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+public enum OrderStatus implements CodedEnum {
+    PENDING(0),
+    CONFIRMED(1),
+    PROCESSING(2),
+    SHIPPED(3),
+    DELIVERED(4),
+    CANCELLED(5);
+
+    private final short code;
+
+    OrderStatus(int code) {
+        this.code = (short) code;
+    }
+
+    @Override
+    public short getCode() {
+        return code;
+    }
+
+    public Set<OrderStatus> allowedTransitions() {
+        return switch (this) {
+            case PENDING -> EnumSet.of(CONFIRMED, CANCELLED);
+            case CONFIRMED -> EnumSet.of(PROCESSING, CANCELLED);
+            case PROCESSING -> EnumSet.of(SHIPPED, CANCELLED);
+            case SHIPPED -> EnumSet.of(DELIVERED);
+            case DELIVERED, CANCELLED -> EnumSet.noneOf(OrderStatus.class);
+        };
+    }
+
+    public boolean canTransitionTo(OrderStatus target) {
+        return allowedTransitions().contains(target);
+    }
+
+    public static OrderStatus fromCode(short code) {
+        return CodedEnum.fromCode(OrderStatus.class, code);
+    }
+
+    public static OrderStatus parse(String value) {
+        return CodedEnum.parse(OrderStatus.class, value);
+    }
+}
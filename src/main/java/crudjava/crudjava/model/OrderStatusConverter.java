@@ -0,0 +1,11 @@
+package crudjava.crudjava.model;
+
+import jakarta.persistence.Converter;
+
+@Converter(autoApply = true)
+public class OrderStatusConverter extends CodedEnumConverter<OrderStatus> {
+
+    public OrderStatusConverter() {
+        super(OrderStatus.class);
+    }
+}
@@ -0,0 +1,36 @@
+package crudjava.crudjava.model;
+
+import jakarta.validation.Constraint;
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+import jakarta.validation.Payload;
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * The annotated {@link Money} must be greater than zero; {@code @DecimalMin}
+ * only applies to numbers. {@code null} is valid, as with the standard
+ * constraints.
+ */
+@Documented
+@Constraint(validatedBy = PositiveMoney.Validator.class)
+@Target({ ElementType.FIELD, ElementType.METHOD, ElementType.PARAMETER })
+@Retention(RetentionPolicy.RUNTIME)
+public @interface PositiveMoney {
+    String message() default "Amount must be greater than 0";
+
+    Class<?>[] groups() default {};
+
+    Class<? extends Payload>[] payload() default {};
+
+    class Validator implements ConstraintValidator<PositiveMoney, Money> {
+
+        @Override
+        public boolean isValid(Money value, ConstraintValidatorContext context) {
+            return value == null || value.isPositive();
+        }
+    }
+}
@@ -84,9 +84,9 @@ public class Product {
     @Column(name = "weight_kg", precision = 8, scale = 3)
     private BigDecimal weightKg;
 
-    @Column(name = "status", nullable = false, length = 20)
+    @Column(name = "status", nullable = false)
     @Builder.Default
-    private String status = "ACTIVE";
+    private ProductStatus status = ProductStatus.ACTIVE;
 
     @OneToMany(mappedBy = "product", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     @JsonManagedReference("product-orderitems")
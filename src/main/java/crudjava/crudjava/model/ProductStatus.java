@@ -0,0 +1,23 @@
+package crudjava.crudjava.model;
+
+public enum ProductStatus implements CodedEnum {
+    ACTIVE(0),
+    INACTIVE(1),
+    DISCONTINUED(2),
+    OUT_OF_STOCK(3);
+
+    private final short code;
+
+    ProductStatus(int code) {
+        this.code = (short) code;
+    }
+
+    @Override
+    public short getCode() {
+        return code;
+    }
+
+    public static ProductStatus parse(String value) {
+        return CodedEnum.parse(ProductStatus.class, value);
+    }
+}
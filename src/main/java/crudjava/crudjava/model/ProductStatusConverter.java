@@ -0,0 +1,11 @@
+package crudjava.crudjava.model;
+
+import jakarta.persistence.Converter;
+
+@Converter(autoApply = true)
+public class ProductStatusConverter extends CodedEnumConverter<ProductStatus> {
+
+    public ProductStatusConverter() {
+        super(ProductStatus.class);
+    }
+}
@@ -0,0 +1,63 @@
+package crudjava.crudjava.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+@Entity
+@Table(name = "warehouses")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+public class Warehouse {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "warehouse_seq")
+    @SequenceGenerator(name = "warehouse_seq", sequenceName = "warehouse_sequence", allocationSize = 1)
+    @EqualsAndHashCode.Include
+    private Long id;
+
+    @NotBlank(message = "Warehouse code is required")
+    @Size(max = 20, message = "Warehouse code must not exceed 20 characters")
+    @Column(name = "code", nullable = false, unique = true, length = 20)
+    private String code;
+
+    @NotBlank(message = "Warehouse name is required")
+    @Column(name = "name", nullable = false, length = 100)
+    private String name;
+
+    @Column(name = "country", length = 100)
+    private String country;
+
+    @Column(name = "priority", nullable = false)
+    @Builder.Default
+    private Integer priority = 0;
+
+    @Column(name = "active", nullable = false)
+    @Builder.Default
+    private Boolean active = true;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,401 @@
+package crudjava.crudjava.notification;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import crudjava.crudjava.config.RabbitConfig;
+import crudjava.crudjava.dto.EmailNotificationDto;
+import crudjava.crudjava.messaging.EventTransport;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+/**
+ * Sends email notifications under a concurrency cap and a provider rate
+ * limit. Sends run on the calling listener thread, so a delivery is only
+ * acknowledged once its email went out, waits for a permit are bounded and
+ * failures propagate to the listener's retry and parking-lot path.
+ *
+ * <p>Status changes for the same order that arrive within the digest window
+ * are merged into one email. Their deliveries are acknowledged once the
+ * notification is appended to the digest in Redis, so a restart does not lose
+ * them; a poller on its own thread claims due digests, sends them on virtual
+ * threads and only then removes the sent entries. A claim is a lease on the
+ * due time, so a digest whose instance died is picked up again. A digest that
+ * cannot be sent is published back to the notification queue to be retried
+ * like any other delivery.
+ *
+ * <p>Layout: {@code notifications:digest:<recipient>|<order>} lists the
+ * pending notifications as JSON and {@code notifications:digest-due} scores
+ * each digest by its due time in epoch milliseconds.
+ */
+@Component
+@Slf4j
+public class EmailDispatcher {
+
+    private static final String DIGEST_EVENT_TYPE = "ORDER_STATUS_CHANGED";
+    private static final String MERGED_EVENT_TYPE = "ORDER_STATUS_DIGEST";
+    private static final String DIGEST_PREFIX = "notifications:digest:";
+    private static final String DUE_KEY = "notifications:digest-due";
+    private static final int POLL_BATCH_SIZE = 100;
+
+    // KEYS: due set, digest list. ARGV: digest ID, due millis, notification.
+    // Returns the digest's length.
+    private static final RedisScript<Long> APPEND_SCRIPT = new DefaultRedisScript<>(
+        """
+        local length = redis.call('RPUSH', KEYS[2], ARGV[3])
+        redis.call('ZADD', KEYS[1], 'NX', ARGV[2], ARGV[1])
+        return length
+        """,
+        Long.class
+    );
+
+    // KEYS: due set. ARGV: digest ID, now millis, lease end millis.
+    // Moves a due digest's score to the lease end; 1 when it was claimed.
+    private static final RedisScript<Long> CLAIM_SCRIPT = new DefaultRedisScript<>(
+        """
+        local due = redis.call('ZSCORE', KEYS[1], ARGV[1])
+        if due and tonumber(due) <= tonumber(ARGV[2]) then
+            redis.call('ZADD', KEYS[1], 'XX', ARGV[3], ARGV[1])
+            return 1
+        end
+        return 0
+        """,
+        Long.class
+    );
+
+    // KEYS: due set, digest list. ARGV: digest ID, sent count, next due millis.
+    // Drops the sent entries; entries appended meanwhile form the next digest.
+    private static final RedisScript<Long> FINISH_SCRIPT = new DefaultRedisScript<>(
+        """
+        redis.call('LTRIM', KEYS[2], ARGV[2], -1)
+        if redis.call('LLEN', KEYS[2]) == 0 then
+            redis.call('ZREM', KEYS[1], ARGV[1])
+        else
+            redis.call('ZADD', KEYS[1], 'XX', ARGV[3], ARGV[1])
+        end
+        return 1
+        """,
+        Long.class
+    );
+
+    private final EmailSender emailSender;
+    private final EventTransport eventTransport;
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final Duration digestWindow;
+    private final Duration permitTimeout;
+    private final long digestPollIntervalMs;
+    private final Semaphore concurrencyLimit;
+    private final RateLimiter rateLimiter;
+    private final ExecutorService digestSender =
+        Executors.newVirtualThreadPerTaskExecutor();
+
+    private final AtomicInteger queued = new AtomicInteger();
+    private final Counter sentCounter;
+    private final Counter failedCounter;
+    private final Counter coalescedCounter;
+    private final Timer lagTimer;
+    private ScheduledExecutorService digestPoller;
+
+    public EmailDispatcher(
+        EmailSender emailSender,
+        EventTransport eventTransport,
+        StringRedisTemplate redisTemplate,
+        ObjectMapper objectMapper,
+        MeterRegistry meterRegistry,
+        @Value("${app.notification.concurrency:50}") int concurrency,
+        @Value("${app.notification.rate-per-second:100}") int ratePerSecond,
+        @Value("${app.notification.digest-window:5s}") Duration digestWindow,
+        @Value("${app.notification.permit-timeout:30s}") Duration permitTimeout,
+        @Value(
+            "${app.notification.digest-poll-interval-ms:1000}"
+        ) long digestPollIntervalMs
+    ) {
+        this.emailSender = emailSender;
+        this.eventTransport = eventTransport;
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.digestWindow = digestWindow;
+        this.permitTimeout = permitTimeout;
+        this.digestPollIntervalMs = digestPollIntervalMs;
+        this.concurrencyLimit = new Semaphore(concurrency);
+        this.rateLimiter = RateLimiter.of(
+            "emailProvider",
+            RateLimiterConfig.custom()
+                .limitForPeriod(ratePerSecond)
+                .limitRefreshPeriod(Duration.ofSeconds(1))
+                .timeoutDuration(permitTimeout)
+                .build()
+        );
+
+        Gauge.builder("notifications.email.queued", queued, AtomicInteger::get)
+            .register(meterRegistry);
+        this.sentCounter = Counter.builder("notifications.email.sent").register(
+            meterRegistry
+        );
+        this.failedCounter = Counter.builder(
+            "notifications.email.failed"
+        ).register(meterRegistry);
+        this.coalescedCounter = Counter.builder(
+            "notifications.email.coalesced"
+        ).register(meterRegistry);
+        this.lagTimer = Timer.builder("notifications.email.lag")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (digestWindow.isZero()) {
+            return;
+        }
+        // Own thread: digest sends block on SMTP and permits, which must not
+        // hold up the shared scheduler.
+        digestPoller = Executors.newSingleThreadScheduledExecutor(runnable ->
+            Thread.ofPlatform().name("email-digest").daemon(true).unstarted(runnable)
+        );
+        digestPoller.scheduleWithFixedDelay(
+            this::flushDueDigests,
+            digestPollIntervalMs,
+            digestPollIntervalMs,
+            TimeUnit.MILLISECONDS
+        );
+    }
+
+    /**
+     * Sends the notification, or adds it to its order's digest. Throws when
+     * the email cannot be sent so the delivery is retried.
+     */
+    public void dispatch(EmailNotificationDto notification) {
+        if (
+            DIGEST_EVENT_TYPE.equals(notification.getEventType()) &&
+            notification.getOrderNumber() != null &&
+            !digestWindow.isZero() &&
+            addToDigest(notification)
+        ) {
+            return;
+        }
+        send(notification, System.nanoTime());
+    }
+
+    // Pending digests stay in Redis for the next instance to send.
+    @PreDestroy
+    public void shutdown() {
+        if (digestPoller != null) {
+            digestPoller.shutdownNow();
+        }
+        digestSender.shutdown();
+    }
+
+    private boolean addToDigest(EmailNotificationDto notification) {
+        String digestId =
+            notification.getRecipientEmail() +
+            "|" +
+            notification.getOrderNumber();
+        try {
+            Long length = redisTemplate.execute(
+                APPEND_SCRIPT,
+                List.of(DUE_KEY, DIGEST_PREFIX + digestId),
+                digestId,
+                Long.toString(
+                    System.currentTimeMillis() + digestWindow.toMillis()
+                ),
+                objectMapper.writeValueAsString(notification)
+            );
+            if (length != null && length > 1) {
+                coalescedCounter.increment();
+            }
+            return true;
+        } catch (JsonProcessingException | RuntimeException e) {
+            // Sent on its own rather than lost.
+            log.warn(
+                "Failed to add notification to digest, sending it directly: {}",
+                e.getMessage()
+            );
+            return false;
+        }
+    }
+
+    private void flushDueDigests() {
+        try {
+            long now = System.currentTimeMillis();
+            Set<ZSetOperations.TypedTuple<String>> due = redisTemplate
+                .opsForZSet()
+                .rangeByScoreWithScores(DUE_KEY, 0, now, 0, POLL_BATCH_SIZE);
+            if (due == null) {
+                return;
+            }
+            // Outlasts both permit waits of a send, so a slow send is not
+            // claimed a second time.
+            long leaseUntil = now + permitTimeout.multipliedBy(3).toMillis();
+            for (ZSetOperations.TypedTuple<String> digest : due) {
+                String digestId = digest.getValue();
+                Long claimed = redisTemplate.execute(
+                    CLAIM_SCRIPT,
+                    List.of(DUE_KEY),
+                    digestId,
+                    Long.toString(now),
+                    Long.toString(leaseUntil)
+                );
+                if (Long.valueOf(1).equals(claimed)) {
+                    long dueMillis = digest.getScore() != null
+                        ? digest.getScore().longValue()
+                        : now;
+                    digestSender.execute(() -> flushDigest(digestId, dueMillis));
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to poll email digests: {}", e.getMessage());
+        }
+    }
+
+    private void flushDigest(String digestId, long dueMillis) {
+        String listKey = DIGEST_PREFIX + digestId;
+        try {
+            List<String> entries = redisTemplate
+                .opsForList()
+                .range(listKey, 0, -1);
+            List<EmailNotificationDto> notifications = new ArrayList<>();
+            for (String entry : Objects.requireNonNullElse(entries, List.<String>of())) {
+                notifications.add(
+                    objectMapper.readValue(entry, EmailNotificationDto.class)
+                );
+            }
+            if (!notifications.isEmpty()) {
+                sendDigest(
+                    toDigestEmail(notifications),
+                    dueMillis - digestWindow.toMillis()
+                );
+            }
+            redisTemplate.execute(
+                FINISH_SCRIPT,
+                List.of(DUE_KEY, listKey),
+                digestId,
+                Integer.toString(notifications.size()),
+                Long.toString(
+                    System.currentTimeMillis() + digestWindow.toMillis()
+                )
+            );
+        } catch (JsonProcessingException | RuntimeException e) {
+            // The lease runs out and the digest is claimed again.
+            log.warn("Failed to flush email digest: {}", e.getMessage());
+        }
+    }
+
+    private void sendDigest(EmailNotificationDto email, long createdMillis) {
+        long enqueuedNanos =
+            System.nanoTime() -
+            TimeUnit.MILLISECONDS.toNanos(
+                Math.max(0, System.currentTimeMillis() - createdMillis)
+            );
+        try {
+            send(email, enqueuedNanos);
+        } catch (RuntimeException e) {
+            // The merged deliveries are already acknowledged; hand the digest
+            // back to the queue under a fresh ID so it gets their retries.
+            email.setEventId(UUID.randomUUID().toString());
+            email.setEventType(MERGED_EVENT_TYPE);
+            eventTransport.send(
+                RabbitConfig.NOTIFICATION_EXCHANGE,
+                RabbitConfig.EMAIL_NOTIFICATION_ROUTING_KEY,
+                email
+            );
+        }
+    }
+
+    private EmailNotificationDto toDigestEmail(
+        List<EmailNotificationDto> notifications
+    ) {
+        EmailNotificationDto latest = notifications.get(
+            notifications.size() - 1
+        );
+        if (notifications.size() == 1) {
+            return latest;
+        }
+        return EmailNotificationDto.builder()
+            .recipientEmail(latest.getRecipientEmail())
+            .orderNumber(latest.getOrderNumber())
+            .subject(latest.getSubject())
+            .message(
+                notifications
+                    .stream()
+                    .map(EmailNotificationDto::getMessage)
+                    .collect(Collectors.joining("\n"))
+            )
+            .eventType(MERGED_EVENT_TYPE)
+            .build();
+    }
+
+    private void send(EmailNotificationDto notification, long enqueuedNanos) {
+        queued.incrementAndGet();
+        try {
+            if (
+                !concurrencyLimit.tryAcquire(
+                    permitTimeout.toMillis(),
+                    TimeUnit.MILLISECONDS
+                )
+            ) {
+                throw new IllegalStateException(
+                    "No email send slot free within " + permitTimeout
+                );
+            }
+            try {
+                if (!rateLimiter.acquirePermission()) {
+                    throw new IllegalStateException(
+                        "Email provider rate limit not available within " +
+                        permitTimeout
+                    );
+                }
+                emailSender.send(notification);
+                sentCounter.increment();
+            } finally {
+                concurrencyLimit.release();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failedCounter.increment();
+            throw new IllegalStateException("Interrupted while sending email", e);
+        } catch (Exception e) {
+            failedCounter.increment();
+            log.error(
+                "Failed to send email notification to {}: {}",
+                notification.getRecipientEmail(),
+                e.getMessage()
+            );
+            throw e instanceof RuntimeException runtime
+                ? runtime
+                : new IllegalStateException("Email send failed", e);
+        } finally {
+            queued.decrementAndGet();
+            lagTimer.record(
+                System.nanoTime() - enqueuedNanos,
+                TimeUnit.NANOSECONDS
+            );
+        }
+    }
+}
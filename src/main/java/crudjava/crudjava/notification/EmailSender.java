@@ -0,0 +1,7 @@
+package crudjava.crudjava.notification;
+
+import crudjava.crudjava.dto.EmailNotificationDto;
+
+public interface EmailSender {
+    void send(EmailNotificationDto notification) throws Exception;
+}
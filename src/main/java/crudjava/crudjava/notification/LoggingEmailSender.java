@@ -0,0 +1,40 @@
+package crudjava.crudjava.notification;
+
+import crudjava.crudjava.dto.EmailNotificationDto;
+import java.time.Duration;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConditionalOnProperty(
+    name = "app.notification.sender",
+    havingValue = "log",
+    matchIfMissing = true
+)
+@Slf4j
+public class LoggingEmailSender implements EmailSender {
+
+    private final Duration simulatedLatency;
+
+    public LoggingEmailSender(
+        @Value(
+            "${app.notification.log-sender.latency:100ms}"
+        ) Duration simulatedLatency
+    ) {
+        this.simulatedLatency = simulatedLatency;
+    }
+
+    @Override
+    public void send(EmailNotificationDto notification)
+        throws InterruptedException {
+        Thread.sleep(simulatedLatency);
+        log.info(
+            "EMAIL SENT: To={}, Subject={}, Type={}",
+            notification.getRecipientEmail(),
+            notification.getSubject(),
+            notification.getEventType()
+        );
+    }
+}
@@ -1,14 +1,18 @@
 package crudjava.crudjava.repository;
 
 import crudjava.crudjava.model.Customer;
+import crudjava.crudjava.model.CustomerType;
+import crudjava.crudjava.model.Money;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,7 +21,14 @@ public interface CustomerRepository extends JpaRepository<Customer, Long> {
 
     Optional<Customer> findByEmail(String email);
 
-    List<Customer> findByCustomerType(String customerType);
+    @EntityGraph(attributePaths = "addresses")
+    @Query("SELECT c FROM Customer c WHERE c.id IN :ids")
+    List<Customer> findAllWithAddressesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT c.version FROM Customer c WHERE c.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    List<Customer> findByCustomerType(CustomerType customerType);
 
     @Query("SELECT c FROM Customer c WHERE c.firstName ILIKE %:name% OR c.lastName ILIKE %:name%")
     Page<Customer> findByNameContainingIgnoreCase(@Param("name") String name, Pageable pageable);
@@ -28,9 +39,9 @@ public interface CustomerRepository extends JpaRepository<Customer, Long> {
                                      @Param("minOrders") long minOrders);
 
     @Query("SELECT c FROM Customer c WHERE c.id IN " +
-           "(SELECT DISTINCT o.customer.id FROM Order o WHERE o.status = 'DELIVERED' " +
+           "(SELECT DISTINCT o.customer.id FROM Order o WHERE o.status = crudjava.crudjava.model.OrderStatus.DELIVERED " +
            "AND o.totalAmount >= :minAmount AND o.createdAt >= :since)")
-    List<Customer> findHighValueCustomers(@Param("minAmount") java.math.BigDecimal minAmount,
+    List<Customer> findHighValueCustomers(@Param("minAmount") Money minAmount,
                                         @Param("since") LocalDateTime since);
 
     @Query(value = """
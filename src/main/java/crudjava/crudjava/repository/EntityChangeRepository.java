@@ -0,0 +1,133 @@
+package crudjava.crudjava.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Reads the {@code entity_changes} table filled by the change-feed triggers.
+ * Positions are {@code (txid, id)} pairs; only changes of transactions older
+ * than the current snapshot's xmin are returned, since those can no longer be
+ * joined by a change that sorts before them.
+ */
+@Repository
+@RequiredArgsConstructor
+public class EntityChangeRepository {
+
+    private static final String FIND_AFTER_SQL = """
+        SELECT id, txid::text AS txid, entity_type, entity_id, operation,
+               version, changed_at
+        FROM entity_changes
+        WHERE (txid, id) > (CAST(? AS xid8), ?)
+          AND txid < pg_snapshot_xmin(pg_current_snapshot())
+          AND entity_type = ANY (?)
+        ORDER BY txid, id
+        LIMIT ?
+        """;
+
+    // Raises the horizon to the highest deleted position in the same
+    // statement, so a reader never sees rows gone without the mark moving.
+    private static final String DELETE_BEFORE_SQL = """
+        WITH deleted AS (
+            DELETE FROM entity_changes
+            WHERE id IN (
+                SELECT id FROM entity_changes WHERE changed_at < ? LIMIT ?
+            )
+            RETURNING txid, id
+        ),
+        highest AS (
+            SELECT txid, id FROM deleted ORDER BY txid DESC, id DESC LIMIT 1
+        ),
+        raised AS (
+            UPDATE entity_change_horizon h
+            SET txid = highest.txid, change_id = highest.id
+            FROM highest
+            WHERE (highest.txid, highest.id) > (h.txid, h.change_id)
+        )
+        SELECT COUNT(*) FROM deleted
+        """;
+
+    private static final String FIND_HORIZON_SQL = """
+        SELECT txid::text AS txid, change_id FROM entity_change_horizon
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public List<EntityChange> findAfter(
+        long txid,
+        long id,
+        List<String> entityTypes,
+        int limit
+    ) {
+        return jdbcTemplate.query(
+            connection -> {
+                PreparedStatement statement = connection.prepareStatement(
+                    FIND_AFTER_SQL
+                );
+                statement.setString(1, Long.toString(txid));
+                statement.setLong(2, id);
+                statement.setArray(
+                    3,
+                    connection.createArrayOf(
+                        "varchar",
+                        entityTypes.toArray(String[]::new)
+                    )
+                );
+                statement.setInt(4, limit);
+                return statement;
+            },
+            (rs, rowNum) -> mapChange(rs)
+        );
+    }
+
+    /** Deletes up to {@code batchSize} changes older than the given time. */
+    public int deleteBefore(LocalDateTime changedBefore, int batchSize) {
+        Integer deleted = jdbcTemplate.queryForObject(
+            DELETE_BEFORE_SQL,
+            Integer.class,
+            changedBefore,
+            batchSize
+        );
+        return deleted != null ? deleted : 0;
+    }
+
+    /**
+     * Returns the highest {@code (txid, id)} position deleted so far, or
+     * {@code (0, 0)} when nothing has been deleted.
+     */
+    public long[] findHorizon() {
+        return jdbcTemplate.queryForObject(FIND_HORIZON_SQL, (rs, rowNum) ->
+            new long[] {
+                Long.parseLong(rs.getString("txid")),
+                rs.getLong("change_id"),
+            }
+        );
+    }
+
+    private EntityChange mapChange(ResultSet rs) throws SQLException {
+        return new EntityChange(
+            rs.getLong("id"),
+            Long.parseLong(rs.getString("txid")),
+            rs.getString("entity_type"),
+            rs.getLong("entity_id"),
+            rs.getString("operation"),
+            rs.getObject("version", Long.class),
+            rs.getObject("changed_at", LocalDateTime.class)
+        );
+    }
+
+    public record EntityChange(
+        long id,
+        long txid,
+        String entityType,
+        long entityId,
+        String operation,
+        Long version,
+        LocalDateTime changedAt
+    ) {}
+}
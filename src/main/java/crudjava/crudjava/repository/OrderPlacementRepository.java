@@ -0,0 +1,147 @@
+package crudjava.crudjava.repository;
+
+import crudjava.crudjava.dto.OrderItemRequestDTO;
+import crudjava.crudjava.exception.CustomerNotFoundException;
+import crudjava.crudjava.exception.InsufficientStockException;
+import crudjava.crudjava.exception.ProductNotFoundException;
+import crudjava.crudjava.model.OrderStatus;
+import java.math.BigDecimal;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Places an order through the {@code place_order} database function, which
+ * reserves stock and inserts the order and its items in one round trip.
+ */
+@Repository
+@RequiredArgsConstructor
+public class OrderPlacementRepository {
+
+    private static final String PLACE_ORDER_SQL =
+        "SELECT * FROM place_order(?, ?, ?, ?, ?)";
+
+    private static final String CUSTOMER_NOT_FOUND = "CJ001";
+    private static final String PRODUCT_NOT_FOUND = "CJ002";
+    private static final String INSUFFICIENT_STOCK = "CJ003";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public List<PlacedOrderLine> placeOrder(
+        Long customerId,
+        String orderNumber,
+        List<OrderItemRequestDTO> items
+    ) {
+        try {
+            return jdbcTemplate.query(
+                connection -> prepare(connection, customerId, orderNumber, items),
+                (rs, rowNum) -> mapLine(rs)
+            );
+        } catch (DataAccessException e) {
+            throw translate(e);
+        }
+    }
+
+    private PreparedStatement prepare(
+        Connection connection,
+        Long customerId,
+        String orderNumber,
+        List<OrderItemRequestDTO> items
+    ) throws SQLException {
+        Long[] productIds = new Long[items.size()];
+        Integer[] quantities = new Integer[items.size()];
+        BigDecimal[] discounts = new BigDecimal[items.size()];
+        for (int i = 0; i < items.size(); i++) {
+            productIds[i] = items.get(i).getProductId();
+            quantities[i] = items.get(i).getQuantity();
+            discounts[i] = items.get(i).getDiscountAmount();
+        }
+
+        Array productIdArray = connection.createArrayOf("bigint", productIds);
+        Array quantityArray = connection.createArrayOf("integer", quantities);
+        Array discountArray = connection.createArrayOf("numeric", discounts);
+
+        PreparedStatement statement = connection.prepareStatement(
+            PLACE_ORDER_SQL
+        );
+        statement.setLong(1, customerId);
+        statement.setString(2, orderNumber);
+        statement.setArray(3, productIdArray);
+        statement.setArray(4, quantityArray);
+        statement.setArray(5, discountArray);
+        return statement;
+    }
+
+    private PlacedOrderLine mapLine(ResultSet rs) throws SQLException {
+        return new PlacedOrderLine(
+            rs.getLong("order_id"),
+            rs.getString("order_number"),
+            OrderStatus.fromCode(rs.getShort("order_status")),
+            rs.getBigDecimal("total_amount"),
+            rs.getObject("order_created_at", LocalDateTime.class),
+            rs.getObject("order_updated_at", LocalDateTime.class),
+            rs.getString("customer_first_name"),
+            rs.getString("customer_last_name"),
+            rs.getString("customer_email"),
+            rs.getLong("item_id"),
+            rs.getLong("product_id"),
+            rs.getString("product_name"),
+            rs.getString("product_sku"),
+            rs.getInt("quantity"),
+            rs.getBigDecimal("unit_price"),
+            rs.getBigDecimal("subtotal"),
+            rs.getInt("old_stock"),
+            rs.getInt("new_stock")
+        );
+    }
+
+    private RuntimeException translate(DataAccessException e) {
+        Throwable cause = e.getMostSpecificCause();
+        if (!(cause instanceof SQLException sqlException)) {
+            return e;
+        }
+        String message = sqlException.getMessage();
+        if (message != null && message.startsWith("ERROR: ")) {
+            message = message
+                .substring("ERROR: ".length())
+                .lines()
+                .findFirst()
+                .orElse(message);
+        }
+        return switch (String.valueOf(sqlException.getSQLState())) {
+            case CUSTOMER_NOT_FOUND -> new CustomerNotFoundException(message);
+            case PRODUCT_NOT_FOUND -> new ProductNotFoundException(message);
+            case INSUFFICIENT_STOCK -> new InsufficientStockException(message);
+            default -> e;
+        };
+    }
+
+    public record PlacedOrderLine(
+        Long orderId,
+        String orderNumber,
+        OrderStatus orderStatus,
+        BigDecimal totalAmount,
+        LocalDateTime orderCreatedAt,
+        LocalDateTime orderUpdatedAt,
+        String customerFirstName,
+        String customerLastName,
+        String customerEmail,
+        Long itemId,
+        Long productId,
+        String productName,
+        String productSku,
+        Integer quantity,
+        BigDecimal unitPrice,
+        BigDecimal subtotal,
+        Integer oldStock,
+        Integer newStock
+    ) {}
+}
@@ -1,6 +1,7 @@
 package crudjava.crudjava.repository;
 
 import crudjava.crudjava.model.Product;
+import crudjava.crudjava.model.ProductStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -18,50 +19,47 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
 
     Optional<Product> findBySku(String sku);
 
+    @Query("SELECT p.version FROM Product p WHERE p.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
     List<Product> findByCategory(String category);
 
-    List<Product> findByStatus(String status);
+    List<Product> findByStatus(ProductStatus status);
 
-    @Query("SELECT p FROM Product p WHERE p.name ILIKE %:name% AND p.status = 'ACTIVE'")
+    @Query("SELECT p FROM Product p WHERE p.name ILIKE %:name% AND p.status = crudjava.crudjava.model.ProductStatus.ACTIVE")
     Page<Product> findByNameContainingAndActive(@Param("name") String name, Pageable pageable);
 
-    @Query("SELECT p FROM Product p WHERE p.category = :category AND p.price BETWEEN :minPrice AND :maxPrice AND p.status = 'ACTIVE'")
+    @Query("SELECT p FROM Product p WHERE p.category = :category AND p.price BETWEEN :minPrice AND :maxPrice AND p.status = crudjava.crudjava.model.ProductStatus.ACTIVE")
     Page<Product> findByCategoryAndPriceRange(@Param("category") String category,
                                             @Param("minPrice") BigDecimal minPrice,
                                             @Param("maxPrice") BigDecimal maxPrice,
                                             Pageable pageable);
 
-    @Query("SELECT p FROM Product p WHERE p.stockQuantity <= :threshold AND p.status = 'ACTIVE'")
+    @Query("SELECT p FROM Product p WHERE p.stockQuantity <= :threshold AND p.status = crudjava.crudjava.model.ProductStatus.ACTIVE")
     List<Product> findLowStockProducts(@Param("threshold") Integer threshold);
 
-    @Query(value = """
-        SELECT p.*, COALESCE(SUM(oi.quantity), 0) as total_sold 
-        FROM products p 
-        LEFT JOIN order_items oi ON p.id = oi.product_id 
-        LEFT JOIN orders o ON oi.order_id = o.id 
-        WHERE o.status IN ('DELIVERED', 'SHIPPED') 
-        GROUP BY p.id 
-        ORDER BY total_sold DESC 
+    @Query("""
+        SELECT p FROM OrderItem oi 
+        JOIN oi.product p 
+        JOIN oi.order o 
+        WHERE o.status IN (crudjava.crudjava.model.OrderStatus.SHIPPED, crudjava.crudjava.model.OrderStatus.DELIVERED) 
+        GROUP BY p 
+        ORDER BY SUM(oi.quantity) DESC 
         LIMIT :limit
-        """, nativeQuery = true)
+        """)
     List<Product> findBestSellingProducts(@Param("limit") int limit);
 
     @Modifying
-    @Query("UPDATE Product p SET p.stockQuantity = p.stockQuantity - :quantity WHERE p.id = :productId AND p.stockQuantity >= :quantity")
+    @Query("UPDATE Product p SET p.stockQuantity = p.stockQuantity - :quantity, p.version = p.version + 1 WHERE p.id = :productId AND p.stockQuantity >= :quantity")
     int decreaseStock(@Param("productId") Long productId, @Param("quantity") Integer quantity);
 
     @Modifying
-    @Query("UPDATE Product p SET p.stockQuantity = p.stockQuantity + :quantity WHERE p.id = :productId")
+    @Query("UPDATE Product p SET p.stockQuantity = p.stockQuantity + :quantity, p.version = p.version + 1 WHERE p.id = :productId")
     int increaseStock(@Param("productId") Long productId, @Param("quantity") Integer quantity);
 
-    @Query("SELECT DISTINCT p.category FROM Product p WHERE p.status = 'ACTIVE' ORDER BY p.category")
+    @Query("SELECT DISTINCT p.category FROM Product p WHERE p.status = crudjava.crudjava.model.ProductStatus.ACTIVE ORDER BY p.category")
     List<String> findAllActiveCategories();
 
-    @Query(value = """
-        SELECT AVG(p.price) as avg_price, p.category 
-        FROM products p 
-        WHERE p.status = 'ACTIVE' 
-        GROUP BY p.category
-        """, nativeQuery = true)
+    @Query("SELECT AVG(p.price), p.category FROM Product p WHERE p.status = crudjava.crudjava.model.ProductStatus.ACTIVE GROUP BY p.category")
     List<Object[]> findAveragePriceByCategory();
 }
@@ -0,0 +1,16 @@
+package crudjava.crudjava.repository;
+
+import crudjava.crudjava.model.StockAllocation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface StockAllocationRepository extends JpaRepository<StockAllocation, Long> {
+
+    @Query("SELECT a FROM StockAllocation a JOIN FETCH a.warehouse WHERE a.order.id = :orderId")
+    List<StockAllocation> findByOrderId(@Param("orderId") Long orderId);
+}
@@ -0,0 +1,104 @@
+package crudjava.crudjava.repository;
+
+import crudjava.crudjava.model.WarehouseStock;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Repository
+public interface WarehouseStockRepository extends JpaRepository<WarehouseStock, Long> {
+
+    @Query("SELECT s FROM WarehouseStock s JOIN FETCH s.warehouse w WHERE s.product.id = :productId AND w.active = true ORDER BY w.id")
+    List<WarehouseStock> findByProductIdWithWarehouse(@Param("productId") Long productId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM WarehouseStock s JOIN FETCH s.warehouse w WHERE s.product.id = :productId AND w.active = true ORDER BY w.id")
+    List<WarehouseStock> findByProductIdForUpdate(@Param("productId") Long productId);
+
+    @Query("SELECT s FROM WarehouseStock s JOIN FETCH s.warehouse w WHERE s.product.id = :productId AND w.active = true AND s.quantity > 0")
+    List<WarehouseStock> findAllocatable(@Param("productId") Long productId);
+
+    @Query("SELECT s.quantity FROM WarehouseStock s WHERE s.id = :id")
+    Integer findQuantityById(@Param("id") Long id);
+
+    @Query("SELECT COALESCE(SUM(s.quantity), 0) FROM WarehouseStock s WHERE s.product.id = :productId AND s.warehouse.active = true")
+    long sumAvailableByProductId(@Param("productId") Long productId);
+
+    @Modifying
+    @Query("UPDATE WarehouseStock s SET s.quantity = s.quantity - :quantity, s.version = s.version + 1 WHERE s.id = :id AND s.quantity >= :quantity")
+    int decreaseStock(@Param("id") Long id, @Param("quantity") Integer quantity);
+
+    @Modifying
+    @Query("UPDATE WarehouseStock s SET s.quantity = s.quantity + :quantity, s.version = s.version + 1 WHERE s.warehouse.id = :warehouseId AND s.product.id = :productId")
+    int increaseStock(@Param("warehouseId") Long warehouseId, @Param("productId") Long productId, @Param("quantity") Integer quantity);
+
+    @Modifying
+    @Query(value = """
+        INSERT INTO warehouse_stock (warehouse_id, product_id, quantity)
+        SELECT w.id, :productId, :quantity FROM warehouses w WHERE w.code = :warehouseCode
+        ON CONFLICT (product_id, warehouse_id)
+        DO UPDATE SET quantity = EXCLUDED.quantity,
+                      version = warehouse_stock.version + 1,
+                      updated_at = CURRENT_TIMESTAMP
+        """, nativeQuery = true)
+    int setStock(@Param("productId") Long productId, @Param("warehouseCode") String warehouseCode, @Param("quantity") Integer quantity);
+
+    @Modifying
+    @Query(value = """
+        INSERT INTO warehouse_stock (warehouse_id, product_id, quantity)
+        SELECT w.id, :productId, :quantity FROM warehouses w WHERE w.code = :warehouseCode
+        ON CONFLICT (product_id, warehouse_id)
+        DO UPDATE SET quantity = warehouse_stock.quantity + EXCLUDED.quantity,
+                      version = warehouse_stock.version + 1,
+                      updated_at = CURRENT_TIMESTAMP
+        """, nativeQuery = true)
+    int addStock(@Param("productId") Long productId, @Param("warehouseCode") String warehouseCode, @Param("quantity") Integer quantity);
+
+    @Modifying
+    @Query(value = "UPDATE warehouse_stock s SET quantity = 0, version = s.version + 1, updated_at = CURRENT_TIMESTAMP FROM warehouses w WHERE w.id = s.warehouse_id AND w.code <> :warehouseCode AND s.quantity <> 0", nativeQuery = true)
+    int clearStockOutside(@Param("warehouseCode") String warehouseCode);
+
+    /** Sets every product's row in the given warehouse to its product total. */
+    @Modifying
+    @Query(value = """
+        INSERT INTO warehouse_stock (warehouse_id, product_id, quantity)
+        SELECT w.id, p.id, p.stock_quantity FROM products p CROSS JOIN warehouses w WHERE w.code = :warehouseCode
+        ON CONFLICT (product_id, warehouse_id)
+        DO UPDATE SET quantity = EXCLUDED.quantity,
+                      version = warehouse_stock.version + 1,
+                      updated_at = CURRENT_TIMESTAMP
+        """, nativeQuery = true)
+    int seedFromProductTotals(@Param("warehouseCode") String warehouseCode);
+
+    /**
+     * Copies the per-warehouse totals into {@code products.stock_quantity}
+     * where they differ and returns the IDs of the products it changed.
+     */
+    @Query(value = """
+        WITH totals AS (
+            SELECT s.product_id, SUM(s.quantity)::INTEGER AS total
+            FROM warehouse_stock s
+            JOIN warehouses w ON w.id = s.warehouse_id AND w.active
+            GROUP BY s.product_id
+        ),
+        updated AS (
+            UPDATE products p
+            SET stock_quantity = t.total,
+                version = p.version + 1,
+                updated_at = CURRENT_TIMESTAMP
+            FROM totals t
+            WHERE p.id = t.product_id AND p.stock_quantity IS DISTINCT FROM t.total
+            RETURNING p.id
+        )
+        SELECT id FROM updated
+        """, nativeQuery = true)
+    @Transactional
+    List<Long> syncProductStockTotals();
+}
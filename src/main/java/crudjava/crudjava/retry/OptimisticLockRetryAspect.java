@@ -0,0 +1,79 @@
+package crudjava.crudjava.retry;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.OptimisticLockException;
+import java.util.concurrent.ThreadLocalRandom;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Ordered just before the transaction interceptor so every attempt gets its
+ * own transaction and commit-time version conflicts are caught as well.
+ */
+@Aspect
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+@RequiredArgsConstructor
+@Slf4j
+public class OptimisticLockRetryAspect {
+
+    private final MeterRegistry meterRegistry;
+
+    @Around("@annotation(retry)")
+    public Object retry(ProceedingJoinPoint joinPoint, RetryOnOptimisticLock retry)
+        throws Throwable {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return joinPoint.proceed();
+        }
+
+        String method =
+            joinPoint.getSignature().getDeclaringType().getSimpleName() +
+            "." +
+            joinPoint.getSignature().getName();
+        long backoffMs = retry.initialBackoffMs();
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                Object result = joinPoint.proceed();
+                if (attempt > 1) {
+                    meterRegistry
+                        .counter("optimistic.lock.recovered", "method", method)
+                        .increment();
+                }
+                return result;
+            } catch (OptimisticLockingFailureException | OptimisticLockException e) {
+                if (attempt >= retry.maxAttempts()) {
+                    meterRegistry
+                        .counter("optimistic.lock.exhausted", "method", method)
+                        .increment();
+                    log.warn(
+                        "Optimistic lock conflict in {} persisted after {} attempts",
+                        method,
+                        attempt
+                    );
+                    throw e;
+                }
+                meterRegistry
+                    .counter("optimistic.lock.retries", "method", method)
+                    .increment();
+                long sleepMs = ThreadLocalRandom.current().nextLong(backoffMs + 1);
+                log.debug(
+                    "Optimistic lock conflict in {} (attempt {}), retrying in {} ms",
+                    method,
+                    attempt,
+                    sleepMs
+                );
+                Thread.sleep(sleepMs);
+                backoffMs = Math.min(backoffMs * 2, retry.maxBackoffMs());
+            }
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package crudjava.crudjava.retry;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Re-runs a transactional method when it fails with an optimistic lock
+ * conflict. Each attempt runs in a fresh transaction and reloads the entities,
+ * with exponential backoff and full jitter between attempts. Only applies to
+ * the outermost transactional call; inside an existing transaction the
+ * conflict is propagated so the caller's transaction is retried instead.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface RetryOnOptimisticLock {
+    int maxAttempts() default 3;
+
+    long initialBackoffMs() default 10;
+
+    long maxBackoffMs() default 200;
+}
@@ -0,0 +1,261 @@
+package crudjava.crudjava.service;
+
+import crudjava.crudjava.dto.CartCheckoutRequestDTO;
+import crudjava.crudjava.dto.CartDTO;
+import crudjava.crudjava.dto.CartItemRequestDTO;
+import crudjava.crudjava.dto.CreateOrderRequestDTO;
+import crudjava.crudjava.dto.OrderDTO;
+import crudjava.crudjava.dto.OrderItemRequestDTO;
+import crudjava.crudjava.dto.ProductDTO;
+import crudjava.crudjava.dto.StockHoldDTO;
+import crudjava.crudjava.exception.InsufficientStockException;
+import crudjava.crudjava.exception.ProductNotFoundException;
+import crudjava.crudjava.model.Money;
+import crudjava.crudjava.model.ProductStatus;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+/**
+ * Shopping carts kept in Redis, one hash per session mapping product ID to
+ * quantity. Adding checks the product and its stock through the product
+ * read path (cache or catalog snapshot); nothing is written to Postgres
+ * until checkout hands the cart to {@link OrderService}. A cart may hold its
+ * stock for the checkout; the hold is dropped whenever the cart changes.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CartService {
+
+    private static final String KEY_PREFIX = "cart:";
+    private static final String HOLD_SUFFIX = ":hold";
+
+    private final StringRedisTemplate redisTemplate;
+    private final ProductService productService;
+    private final OrderService orderService;
+    private final StockHoldService stockHoldService;
+
+    @Value("${app.cart.ttl:7d}")
+    private Duration ttl;
+
+    @Value("${app.cart.max-items:100}")
+    private int maxItems;
+
+    public CartDTO addItem(String sessionId, CartItemRequestDTO request) {
+        ProductDTO product = findProduct(request.getProductId());
+        if (!ProductStatus.ACTIVE.name().equals(product.getStatus())) {
+            throw new IllegalArgumentException(
+                "Product is not available: " + product.getSku()
+            );
+        }
+
+        String key = key(sessionId);
+        String field = request.getProductId().toString();
+        HashOperations<String, String, String> cart = redisTemplate.opsForHash();
+        String current = cart.get(key, field);
+        int quantity =
+            (current != null ? Integer.parseInt(current) : 0) +
+            request.getQuantity();
+        if (current == null && cart.size(key) >= maxItems) {
+            throw new IllegalArgumentException(
+                "Cart cannot hold more than " + maxItems + " products"
+            );
+        }
+        int available =
+            product.getStockQuantity() -
+            stockHoldService.heldByOthers(
+                product.getId(),
+                redisTemplate.opsForValue().get(holdKey(sessionId))
+            );
+        if (available < quantity) {
+            throw new InsufficientStockException(
+                product.getName(),
+                quantity,
+                Math.max(0, available)
+            );
+        }
+
+        releaseHold(sessionId);
+        cart.increment(key, field, request.getQuantity());
+        redisTemplate.expire(key, ttl);
+        log.debug(
+            "Added {} x product {} to cart {}",
+            request.getQuantity(),
+            request.getProductId(),
+            sessionId
+        );
+        return preview(sessionId);
+    }
+
+    public CartDTO removeItem(String sessionId, Long productId) {
+        releaseHold(sessionId);
+        redisTemplate.opsForHash().delete(key(sessionId), productId.toString());
+        return preview(sessionId);
+    }
+
+    public void clear(String sessionId) {
+        releaseHold(sessionId);
+        redisTemplate.delete(key(sessionId));
+    }
+
+    public StockHoldDTO holdStock(String sessionId) {
+        Map<Long, Integer> quantities = quantities(sessionId);
+        if (quantities.isEmpty()) {
+            throw new IllegalArgumentException("Cart is empty");
+        }
+
+        releaseHold(sessionId);
+        StockHoldDTO hold = stockHoldService.placeHold(orderItems(quantities));
+        redisTemplate
+            .opsForValue()
+            .set(
+                holdKey(sessionId),
+                hold.getReservationId(),
+                Duration.between(LocalDateTime.now(), hold.getExpiresAt())
+            );
+        return hold;
+    }
+
+    public CartDTO preview(String sessionId) {
+        Map<Long, Integer> quantities = quantities(sessionId);
+        List<CartDTO.CartItemDTO> items = new ArrayList<>(quantities.size());
+        Money total = Money.ZERO;
+        int itemCount = 0;
+        boolean checkoutReady = !quantities.isEmpty();
+        String holdId = redisTemplate.opsForValue().get(holdKey(sessionId));
+
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            int quantity = entry.getValue();
+            ProductDTO product = productService
+                .findById(entry.getKey())
+                .orElse(null);
+            if (product == null) {
+                items.add(
+                    CartDTO.CartItemDTO.builder()
+                        .productId(entry.getKey())
+                        .quantity(quantity)
+                        .available(false)
+                        .build()
+                );
+                checkoutReady = false;
+                continue;
+            }
+
+            Money lineTotal = Money.of(product.getPrice()).times(quantity);
+            boolean available =
+                ProductStatus.ACTIVE.name().equals(product.getStatus()) &&
+                product.getStockQuantity() -
+                    stockHoldService.heldByOthers(product.getId(), holdId) >=
+                quantity;
+            items.add(
+                CartDTO.CartItemDTO.builder()
+                    .productId(product.getId())
+                    .productName(product.getName())
+                    .productSku(product.getSku())
+                    .quantity(quantity)
+                    .unitPrice(product.getPrice())
+                    .totalPrice(lineTotal.toBigDecimal())
+                    .stockQuantity(product.getStockQuantity())
+                    .available(available)
+                    .build()
+            );
+            total = total.plus(lineTotal);
+            itemCount += quantity;
+            checkoutReady &= available;
+        }
+
+        return CartDTO.builder()
+            .items(items)
+            .itemCount(itemCount)
+            .totalAmount(total.toBigDecimal())
+            .checkoutReady(checkoutReady)
+            .build();
+    }
+
+    public OrderDTO checkout(String sessionId, CartCheckoutRequestDTO request) {
+        Map<Long, Integer> quantities = quantities(sessionId);
+        if (quantities.isEmpty()) {
+            throw new IllegalArgumentException("Cart is empty");
+        }
+
+        String holdKey = holdKey(sessionId);
+        OrderDTO order = orderService.createOrder(
+            CreateOrderRequestDTO.builder()
+                .customerId(request.getCustomerId())
+                .shippingAddress(request.getShippingAddress())
+                .reservationId(redisTemplate.opsForValue().get(holdKey))
+                .orderItems(orderItems(quantities))
+                .build()
+        );
+
+        // The order released the hold itself once it committed.
+        redisTemplate.delete(List.of(key(sessionId), holdKey));
+        log.info(
+            "Checked out cart {} into order {}",
+            sessionId,
+            order.getOrderNumber()
+        );
+        return order;
+    }
+
+    private Map<Long, Integer> quantities(String sessionId) {
+        HashOperations<String, String, String> cart = redisTemplate.opsForHash();
+        Map<Long, Integer> quantities = new TreeMap<>();
+        cart
+            .entries(key(sessionId))
+            .forEach((productId, quantity) ->
+                quantities.put(Long.valueOf(productId), Integer.valueOf(quantity))
+            );
+        return quantities;
+    }
+
+    private void releaseHold(String sessionId) {
+        String holdId = redisTemplate.opsForValue().getAndDelete(
+            holdKey(sessionId)
+        );
+        if (holdId != null) {
+            stockHoldService.releaseHold(holdId);
+        }
+    }
+
+    private static List<OrderItemRequestDTO> orderItems(
+        Map<Long, Integer> quantities
+    ) {
+        return quantities
+            .entrySet()
+            .stream()
+            .map(entry ->
+                OrderItemRequestDTO.builder()
+                    .productId(entry.getKey())
+                    .quantity(entry.getValue())
+                    .build()
+            )
+            .toList();
+    }
+
+    private ProductDTO findProduct(Long productId) {
+        return productService
+            .findById(productId)
+            .orElseThrow(() ->
+                new ProductNotFoundException(productId)
+            );
+    }
+
+    private static String key(String sessionId) {
+        return KEY_PREFIX + sessionId;
+    }
+
+    private static String holdKey(String sessionId) {
+        return KEY_PREFIX + sessionId + HOLD_SUFFIX;
+    }
+}
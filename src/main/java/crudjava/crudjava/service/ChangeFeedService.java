@@ -0,0 +1,195 @@
+package crudjava.crudjava.service;
+
+import crudjava.crudjava.dto.ChangeFeedDTO;
+import crudjava.crudjava.exception.ChangeCursorExpiredException;
+import crudjava.crudjava.repository.EntityChangeRepository;
+import crudjava.crudjava.repository.EntityChangeRepository.EntityChange;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Serves the change feed that integrations poll instead of paging through
+ * whole tables. A page lists which entities changed, at most once each, and
+ * a cursor to resume from; clients fetch the current state of the entities
+ * they care about. Changes are retained for {@code app.changes.retention};
+ * a client whose cursor is older than the last deleted change gets a
+ * {@link ChangeCursorExpiredException} and has to resync in full.
+ */
+@Service
+@Slf4j
+public class ChangeFeedService {
+
+    public static final List<String> ENTITY_TYPES = List.of(
+        "PRODUCT",
+        "CUSTOMER",
+        "ORDER"
+    );
+
+    private static final int CLEANUP_BATCH_SIZE = 10_000;
+
+    private final EntityChangeRepository entityChangeRepository;
+    private final int maxPageSize;
+    private final Duration retention;
+
+    public ChangeFeedService(
+        EntityChangeRepository entityChangeRepository,
+        @Value("${app.changes.max-page-size:1000}") int maxPageSize,
+        @Value("${app.changes.retention:7d}") Duration retention
+    ) {
+        this.entityChangeRepository = entityChangeRepository;
+        this.maxPageSize = maxPageSize;
+        this.retention = retention;
+    }
+
+    // One snapshot for the horizon check and the page, so a prune committing
+    // in between cannot delete rows the check already vouched for.
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public ChangeFeedDTO getChanges(
+        String since,
+        List<String> types,
+        int limit
+    ) {
+        long[] position = parseCursor(since);
+        // The empty cursor starts a full sync and so cannot have missed
+        // anything; a resume point below the horizon may have.
+        if (since != null && !since.isBlank()) {
+            long[] horizon = entityChangeRepository.findHorizon();
+            if (comparePositions(position, horizon) < 0) {
+                throw new ChangeCursorExpiredException(since);
+            }
+        }
+        int pageSize = Math.max(1, Math.min(limit, maxPageSize));
+
+        List<EntityChange> rows = entityChangeRepository.findAfter(
+            position[0],
+            position[1],
+            parseTypes(types),
+            pageSize + 1
+        );
+        boolean hasMore = rows.size() > pageSize;
+        if (hasMore) {
+            rows = rows.subList(0, pageSize);
+        }
+
+        // An entity updated several times within the page is reported once,
+        // at the position of its latest change.
+        Map<String, EntityChange> latest = new LinkedHashMap<>();
+        for (EntityChange row : rows) {
+            String key = row.entityType() + ":" + row.entityId();
+            latest.remove(key);
+            latest.put(key, row);
+        }
+
+        List<ChangeFeedDTO.EntityChangeDTO> changes = new ArrayList<>(
+            latest.size()
+        );
+        for (EntityChange row : latest.values()) {
+            changes.add(
+                ChangeFeedDTO.EntityChangeDTO.builder()
+                    .type(row.entityType())
+                    .id(row.entityId())
+                    .operation(operationName(row.operation()))
+                    .version(row.version())
+                    .changedAt(row.changedAt())
+                    .build()
+            );
+        }
+
+        String nextCursor = rows.isEmpty()
+            ? formatCursor(position[0], position[1])
+            : formatCursor(
+                rows.get(rows.size() - 1).txid(),
+                rows.get(rows.size() - 1).id()
+            );
+        return ChangeFeedDTO.builder()
+            .changes(changes)
+            .nextCursor(nextCursor)
+            .hasMore(hasMore)
+            .build();
+    }
+
+    @Scheduled(fixedDelayString = "${app.changes.cleanup-interval-ms:3600000}")
+    public void deleteExpiredChanges() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+        int deleted = 0;
+        int batch;
+        do {
+            batch = entityChangeRepository.deleteBefore(
+                cutoff,
+                CLEANUP_BATCH_SIZE
+            );
+            deleted += batch;
+        } while (batch == CLEANUP_BATCH_SIZE);
+        if (deleted > 0) {
+            log.info("Deleted {} change feed entries before {}", deleted, cutoff);
+        }
+    }
+
+    private static List<String> parseTypes(List<String> types) {
+        if (types == null || types.isEmpty()) {
+            return ENTITY_TYPES;
+        }
+        List<String> parsed = new ArrayList<>(types.size());
+        for (String type : types) {
+            String normalized = type.trim().toUpperCase(Locale.ROOT);
+            if (normalized.endsWith("S")) {
+                normalized = normalized.substring(0, normalized.length() - 1);
+            }
+            if (!ENTITY_TYPES.contains(normalized)) {
+                throw new IllegalArgumentException(
+                    "Unknown change type: " + type + ", expected one of " +
+                    ENTITY_TYPES
+                );
+            }
+            parsed.add(normalized);
+        }
+        return parsed;
+    }
+
+    private static String operationName(String operation) {
+        return switch (operation) {
+            case "I" -> "INSERT";
+            case "U" -> "UPDATE";
+            case "D" -> "DELETE";
+            default -> operation;
+        };
+    }
+
+    private static int comparePositions(long[] a, long[] b) {
+        int byTxid = Long.compare(a[0], b[0]);
+        return byTxid != 0 ? byTxid : Long.compare(a[1], b[1]);
+    }
+
+    private static String formatCursor(long txid, long id) {
+        return Long.toString(txid, 36) + "-" + Long.toString(id, 36);
+    }
+
+    private static long[] parseCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return new long[] { 0, 0 };
+        }
+        int separator = cursor.indexOf('-');
+        try {
+            if (separator > 0) {
+                return new long[] {
+                    Long.parseLong(cursor.substring(0, separator), 36),
+                    Long.parseLong(cursor.substring(separator + 1), 36),
+                };
+            }
+        } catch (NumberFormatException e) {
+            // fall through
+        }
+        throw new IllegalArgumentException("Invalid change cursor: " + cursor);
+    }
+}
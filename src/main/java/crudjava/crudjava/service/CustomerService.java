@@ -8,15 +8,24 @@ import crudjava.crudjava.exception.CustomerNotFoundException;
 import crudjava.crudjava.exception.DuplicateEmailException;
 import crudjava.crudjava.mapper.CustomerMapper;
 import crudjava.crudjava.model.Customer;
+import crudjava.crudjava.model.CustomerType;
+import crudjava.crudjava.model.Money;
 import crudjava.crudjava.repository.CustomerRepository;
 import crudjava.crudjava.repository.OrderRepository;
+import crudjava.crudjava.util.BatchIds;
+import crudjava.crudjava.util.ConstraintViolations;
+import crudjava.crudjava.util.ETags;
 import crudjava.crudjava.util.UrlUtils;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -30,18 +39,20 @@ public class CustomerService {
 
     private final CustomerRepository customerRepository;
     private final OrderRepository orderRepository;
+    private final UniquenessFilter uniquenessFilter;
 
     public CustomerDTO createCustomer(CreateCustomerRequestDTO request) {
         log.info("Creating new customer with email: {}", request.getEmail());
 
-        if (customerRepository.findByEmail(request.getEmail()).isPresent()) {
+        if (
+            uniquenessFilter.emailMightExist(request.getEmail()) &&
+            customerRepository.findByEmail(request.getEmail()).isPresent()
+        ) {
             log.warn(
                 "Attempt to create customer with existing email: {}",
                 request.getEmail()
             );
-            throw new DuplicateEmailException(
-                "Customer with email " + request.getEmail() + " already exists"
-            );
+            throw new DuplicateEmailException(request.getEmail());
         }
 
         Customer customer = Customer.builder()
@@ -51,12 +62,12 @@ public class CustomerService {
             .phone(request.getPhone())
             .customerType(
                 request.getCustomerType() != null
-                    ? request.getCustomerType()
-                    : "REGULAR"
+                    ? CustomerType.parse(request.getCustomerType())
+                    : CustomerType.REGULAR
             )
             .build();
 
-        Customer savedCustomer = customerRepository.save(customer);
+        Customer savedCustomer = saveCustomer(customer);
         log.info(
             "Successfully created customer with ID: {}",
             savedCustomer.getId()
@@ -67,7 +78,8 @@ public class CustomerService {
 
     public CustomerDTO updateCustomer(
         Long id,
-        UpdateCustomerRequestDTO request
+        UpdateCustomerRequestDTO request,
+        Long expectedVersion
     ) {
         log.info("Updating customer with ID: {}", id);
 
@@ -76,6 +88,7 @@ public class CustomerService {
             .orElseThrow(() ->
                 new CustomerNotFoundException("Customer not found: " + id)
             );
+        ETags.checkIfMatch(expectedVersion, existingCustomer.getVersion());
 
         // Check email uniqueness only if email is being updated
         if (
@@ -83,17 +96,14 @@ public class CustomerService {
             !existingCustomer.getEmail().equals(request.getEmail())
         ) {
             if (
+                uniquenessFilter.emailMightExist(request.getEmail()) &&
                 customerRepository.findByEmail(request.getEmail()).isPresent()
             ) {
                 log.warn(
                     "Attempt to update customer with existing email: {}",
                     request.getEmail()
                 );
-                throw new DuplicateEmailException(
-                    "Customer with email " +
-                        request.getEmail() +
-                        " already exists"
-                );
+                throw new DuplicateEmailException(request.getEmail());
             }
         }
 
@@ -111,10 +121,12 @@ public class CustomerService {
             existingCustomer.setPhone(request.getPhone());
         }
         if (request.getCustomerType() != null) {
-            existingCustomer.setCustomerType(request.getCustomerType());
+            existingCustomer.setCustomerType(
+                CustomerType.parse(request.getCustomerType())
+            );
         }
 
-        Customer updatedCustomer = customerRepository.save(existingCustomer);
+        Customer updatedCustomer = saveCustomer(existingCustomer);
         log.info("Successfully updated customer with ID: {}", id);
 
         return CustomerMapper.toDTO(updatedCustomer);
@@ -130,6 +142,34 @@ public class CustomerService {
             });
     }
 
+    /**
+     * Loads several customers with their addresses in one query. Unknown
+     * IDs are left out; the rest keep the request order.
+     */
+    @Transactional(readOnly = true)
+    public List<CustomerDTO> findByIds(List<Long> ids) {
+        List<Long> requested = BatchIds.normalize(ids);
+        Map<Long, CustomerDTO> found = customerRepository
+            .findAllWithAddressesByIdIn(requested)
+            .stream()
+            .collect(Collectors.toMap(Customer::getId, CustomerMapper::toDTO));
+        log.info(
+            "Found {} of {} requested customers",
+            found.size(),
+            requested.size()
+        );
+        return requested
+            .stream()
+            .map(found::get)
+            .filter(Objects::nonNull)
+            .toList();
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<Long> findVersion(Long id) {
+        return customerRepository.findVersionById(id);
+    }
+
     @Transactional(readOnly = true)
     public Optional<CustomerDTO> findByEmail(String email) {
         String decodedEmail = UrlUtils.autoDecodeIfNeeded(email);
@@ -166,7 +206,7 @@ public class CustomerService {
         String decodedType = UrlUtils.autoDecodeIfNeeded(customerType);
         log.info("Searching customers by type: {}", decodedType);
         List<Customer> customers = customerRepository.findByCustomerType(
-            decodedType
+            CustomerType.parse(decodedType)
         );
         log.info(
             "Found {} customers of type '{}'",
@@ -207,7 +247,7 @@ public class CustomerService {
             since
         );
         List<Customer> customers = customerRepository.findHighValueCustomers(
-            minAmount,
+            Money.of(minAmount),
             since
         );
         return customers.stream().map(CustomerMapper::toDTO).toList();
@@ -274,4 +314,24 @@ public class CustomerService {
         );
         return customers.map(CustomerMapper::toDTO);
     }
+
+    // Flushes so that a lost race on the email constraint surfaces here
+    // rather than at commit, where it could not be translated.
+    private Customer saveCustomer(Customer customer) {
+        try {
+            Customer saved = customerRepository.saveAndFlush(customer);
+            uniquenessFilter.emailAdded(saved.getEmail());
+            return saved;
+        } catch (DataIntegrityViolationException ex) {
+            if (
+                ConstraintViolations.isViolationOf(
+                    ex,
+                    ConstraintViolations.CUSTOMER_EMAIL_UNIQUE
+                )
+            ) {
+                throw new DuplicateEmailException(customer.getEmail());
+            }
+            throw ex;
+        }
+    }
 }
@@ -0,0 +1,145 @@
+package crudjava.crudjava.service;
+
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.GetResponse;
+import crudjava.crudjava.config.RabbitConfig;
+import crudjava.crudjava.dto.DeadLetterReplayDTO;
+import crudjava.crudjava.messaging.InProcessEventTransport;
+import crudjava.crudjava.messaging.InventoryPartitioner;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.QueueInformation;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+@Service
+@Profile("!" + InProcessEventTransport.PROFILE)
+@RequiredArgsConstructor
+@Slf4j
+public class DeadLetterService {
+
+    public static final String SOURCE_PARKING_LOT = "parking-lot";
+    public static final String SOURCE_DEAD_LETTER_QUEUE = "dlq";
+
+    private final RabbitTemplate rabbitTemplate;
+    private final AmqpAdmin amqpAdmin;
+    private final InventoryPartitioner inventoryPartitioner;
+
+    public Map<String, Long> getMessageCounts() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (String queue : consumerQueues()) {
+            String deadLetterQueue = RabbitConfig.deadLetterQueueName(queue);
+            counts.put(deadLetterQueue, messageCount(deadLetterQueue));
+        }
+        counts.put(
+            RabbitConfig.PARKING_LOT_QUEUE,
+            messageCount(RabbitConfig.PARKING_LOT_QUEUE)
+        );
+        return counts;
+    }
+
+    public DeadLetterReplayDTO replay(String queue, String source, int limit) {
+        if (!consumerQueues().contains(queue)) {
+            throw new IllegalArgumentException("Unknown queue: " + queue);
+        }
+        boolean fromParkingLot = SOURCE_PARKING_LOT.equals(source);
+        if (!fromParkingLot && !SOURCE_DEAD_LETTER_QUEUE.equals(source)) {
+            throw new IllegalArgumentException(
+                "Unknown dead-letter source: " + source
+            );
+        }
+        String sourceQueue = fromParkingLot
+            ? RabbitConfig.PARKING_LOT_QUEUE
+            : RabbitConfig.deadLetterQueueName(queue);
+
+        log.info(
+            "Replaying up to {} messages from {} to {}",
+            limit,
+            sourceQueue,
+            queue
+        );
+
+        DeadLetterReplayDTO result = rabbitTemplate.execute(channel -> {
+            int replayed = 0;
+            int skipped = 0;
+            long available = channel.messageCount(sourceQueue);
+
+            for (long examined = 0; examined < available && replayed < limit; examined++) {
+                GetResponse response = channel.basicGet(sourceQueue, false);
+                if (response == null) {
+                    break;
+                }
+                AMQP.BasicProperties properties = response.getProps();
+                Map<String, Object> headers = properties.getHeaders() != null
+                    ? new HashMap<>(properties.getHeaders())
+                    : new HashMap<>();
+                Object originalQueue = headers.get(
+                    RabbitConfig.ORIGINAL_QUEUE_HEADER
+                );
+
+                if (
+                    fromParkingLot &&
+                    (originalQueue == null || !queue.equals(originalQueue.toString()))
+                ) {
+                    channel.basicPublish(
+                        "",
+                        sourceQueue,
+                        properties,
+                        response.getBody()
+                    );
+                    channel.basicAck(
+                        response.getEnvelope().getDeliveryTag(),
+                        false
+                    );
+                    skipped++;
+                    continue;
+                }
+
+                headers.remove(RabbitConfig.RETRY_ATTEMPT_HEADER);
+                headers.remove(RabbitConfig.FAILURE_REASON_HEADER);
+                headers.remove("x-death");
+                channel.basicPublish(
+                    "",
+                    queue,
+                    properties.builder().headers(headers).build(),
+                    response.getBody()
+                );
+                channel.basicAck(response.getEnvelope().getDeliveryTag(), false);
+                replayed++;
+            }
+
+            return DeadLetterReplayDTO.builder()
+                .queue(queue)
+                .source(source)
+                .replayed(replayed)
+                .skipped(skipped)
+                .build();
+        });
+
+        log.info(
+            "Replayed {} messages from {} to {}",
+            result.getReplayed(),
+            sourceQueue,
+            queue
+        );
+        return result;
+    }
+
+    private List<String> consumerQueues() {
+        List<String> queues = new ArrayList<>(RabbitConfig.CONSUMER_QUEUES);
+        queues.addAll(inventoryPartitioner.queueNames());
+        return queues;
+    }
+
+    private long messageCount(String queue) {
+        QueueInformation info = amqpAdmin.getQueueInfo(queue);
+        return info != null ? info.getMessageCount() : 0;
+    }
+}
@@ -1,20 +1,40 @@
 package crudjava.crudjava.service;
 
+import crudjava.crudjava.catalog.CatalogSnapshotService;
 import crudjava.crudjava.config.RabbitConfig;
 import crudjava.crudjava.dto.InventoryEventDto;
 import crudjava.crudjava.dto.ProductDTO;
+import crudjava.crudjava.dto.WarehouseStockDTO;
+import crudjava.crudjava.exception.InsufficientStockException;
 import crudjava.crudjava.mapper.ProductMapper;
+import crudjava.crudjava.messaging.EventTransport;
+import crudjava.crudjava.messaging.InventoryPartitioner;
+import crudjava.crudjava.model.Order;
 import crudjava.crudjava.model.Product;
+import crudjava.crudjava.model.StockAllocation;
+import crudjava.crudjava.model.WarehouseStock;
 import crudjava.crudjava.repository.ProductRepository;
+import crudjava.crudjava.repository.StockAllocationRepository;
+import crudjava.crudjava.repository.WarehouseStockRepository;
+import crudjava.crudjava.retry.RetryOnOptimisticLock;
+import crudjava.crudjava.warehouse.WarehouseAllocator;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -27,7 +47,25 @@ public class InventoryService {
     private static final int LOW_STOCK_THRESHOLD = 10;
 
     private final ProductRepository productRepository;
-    private final RabbitTemplate rabbitTemplate;
+    private final EventTransport eventTransport;
+    private final InventoryPartitioner inventoryPartitioner;
+    private final CatalogSnapshotService catalogSnapshotService;
+    private final WarehouseStockRepository warehouseStockRepository;
+    private final StockAllocationRepository stockAllocationRepository;
+    private final WarehouseAllocator warehouseAllocator;
+    private final CacheManager cacheManager;
+
+    // In warehouse mode reservations draw from warehouse_stock rows and
+    // products.stock_quantity is a periodically refreshed total.
+    @Value("${app.inventory.warehouse-mode:false}")
+    private boolean warehouseMode;
+
+    @Value("${app.inventory.default-warehouse:MAIN}")
+    private String defaultWarehouse;
+
+    public boolean isWarehouseMode() {
+        return warehouseMode;
+    }
 
     @CircuitBreaker(
         name = "inventoryService",
@@ -67,6 +105,7 @@ public class InventoryService {
             );
             return false;
         }
+        catalogSnapshotService.productChanged(productId);
 
         product = productRepository.findById(productId).orElseThrow();
         Integer newQuantity = product.getStockQuantity();
@@ -107,6 +146,238 @@ public class InventoryService {
         return false;
     }
 
+    /**
+     * Publishes the events for a reservation the database has already applied,
+     * e.g. by the {@code place_order} function.
+     */
+    @CacheEvict(value = "products", key = "#productId")
+    public void onInventoryReserved(
+        Long productId,
+        String productName,
+        String sku,
+        Integer oldQuantity,
+        Integer newQuantity,
+        String reason
+    ) {
+        catalogSnapshotService.productChanged(productId);
+        Product product = Product.builder()
+            .id(productId)
+            .name(productName)
+            .sku(sku)
+            .stockQuantity(newQuantity)
+            .build();
+
+        publishInventoryEvent(
+            product,
+            oldQuantity,
+            newQuantity,
+            "DECREASE",
+            reason
+        );
+
+        if (newQuantity <= LOW_STOCK_THRESHOLD) {
+            publishLowStockAlert(product);
+        }
+    }
+
+    /**
+     * Takes {@code quantity} units from the product's warehouses, splitting
+     * the line when no single warehouse has enough. The allocations are
+     * attached to the order by {@link #recordAllocations} once it is saved.
+     *
+     * @throws InsufficientStockException if the warehouses together cannot
+     *     cover the quantity; the caller's transaction must then roll back
+     */
+    public List<StockAllocation> allocateInventory(
+        Long productId,
+        Integer quantity,
+        String destinationCountry,
+        String reason
+    ) {
+        Product product = productRepository
+            .findById(productId)
+            .orElseThrow(() ->
+                new IllegalArgumentException("Product not found: " + productId)
+            );
+
+        List<StockAllocation> allocations = warehouseAllocator.allocate(
+            productId,
+            quantity,
+            destinationCountry
+        );
+        int allocated = allocations
+            .stream()
+            .mapToInt(StockAllocation::getQuantity)
+            .sum();
+        if (allocated < quantity) {
+            throw new InsufficientStockException(
+                product.getName(),
+                quantity,
+                allocated
+            );
+        }
+        evictAvailability(productId);
+
+        int newQuantity = (int) warehouseStockRepository.sumAvailableByProductId(
+            productId
+        );
+        Product snapshot = Product.builder()
+            .id(productId)
+            .name(product.getName())
+            .sku(product.getSku())
+            .stockQuantity(newQuantity)
+            .build();
+        publishInventoryEvent(
+            snapshot,
+            newQuantity + quantity,
+            newQuantity,
+            "DECREASE",
+            reason
+        );
+        if (newQuantity <= LOW_STOCK_THRESHOLD) {
+            publishLowStockAlert(snapshot);
+        }
+
+        log.info(
+            "Allocated {} units of product {} from {} warehouse(s)",
+            quantity,
+            product.getSku(),
+            allocations.size()
+        );
+        return allocations;
+    }
+
+    public void recordAllocations(
+        Order order,
+        List<StockAllocation> allocations
+    ) {
+        allocations.forEach(allocation -> allocation.setOrder(order));
+        stockAllocationRepository.saveAll(allocations);
+    }
+
+    /**
+     * Returns an order's allocated stock to the warehouses it came from.
+     * Returns {@code false} when the order has no allocations, e.g. because
+     * it was placed before warehouse mode was switched on.
+     */
+    public boolean releaseAllocations(Order order, String reason) {
+        List<StockAllocation> allocations =
+            stockAllocationRepository.findByOrderId(order.getId());
+        if (allocations.isEmpty()) {
+            return false;
+        }
+        Map<Long, Integer> releasedByProduct = new TreeMap<>();
+        for (StockAllocation allocation : allocations) {
+            Long productId = allocation.getProduct().getId();
+            warehouseStockRepository.increaseStock(
+                allocation.getWarehouse().getId(),
+                productId,
+                allocation.getQuantity()
+            );
+            releasedByProduct.merge(
+                productId,
+                allocation.getQuantity(),
+                Integer::sum
+            );
+        }
+        stockAllocationRepository.deleteAll(allocations);
+
+        releasedByProduct.forEach((productId, quantity) -> {
+            evictAvailability(productId);
+            Product product = productRepository
+                .findById(productId)
+                .orElseThrow();
+            int newQuantity = (int) warehouseStockRepository.sumAvailableByProductId(
+                productId
+            );
+            publishInventoryEvent(
+                product,
+                newQuantity - quantity,
+                newQuantity,
+                "INCREASE",
+                reason
+            );
+        });
+        log.info(
+            "Released {} allocations of order {}",
+            allocations.size(),
+            order.getOrderNumber()
+        );
+        return true;
+    }
+
+    /**
+     * Stock available for new orders. In warehouse mode this is the total of
+     * the active warehouses, cached briefly since it is read on every order
+     * line and product page; allocations and releases evict it.
+     */
+    @Transactional(readOnly = true)
+    @Cacheable(value = "stockAvailability", key = "#productId")
+    public Integer getAvailableStock(Long productId) {
+        if (warehouseMode) {
+            return (int) warehouseStockRepository.sumAvailableByProductId(
+                productId
+            );
+        }
+        return productRepository
+            .findById(productId)
+            .map(Product::getStockQuantity)
+            .orElse(0);
+    }
+
+    @Transactional(readOnly = true)
+    public List<WarehouseStockDTO> getWarehouseStock(Long productId) {
+        return warehouseStockRepository
+            .findByProductIdWithWarehouse(productId)
+            .stream()
+            .map(stock ->
+                WarehouseStockDTO.builder()
+                    .warehouseId(stock.getWarehouse().getId())
+                    .warehouseCode(stock.getWarehouse().getCode())
+                    .warehouseName(stock.getWarehouse().getName())
+                    .country(stock.getWarehouse().getCountry())
+                    .quantity(stock.getQuantity())
+                    .build()
+            )
+            .toList();
+    }
+
+    /** Gives a new product its stock row in the default warehouse. */
+    public void initializeStock(Long productId, Integer quantity) {
+        if (warehouseMode) {
+            warehouseStockRepository.setStock(
+                productId,
+                defaultWarehouse,
+                quantity
+            );
+        }
+    }
+
+    /**
+     * Copies warehouse totals into {@code products.stock_quantity}. Running
+     * this in batches keeps reservations off the product rows; the column
+     * lags by at most one interval.
+     */
+    @Scheduled(
+        fixedDelayString = "${app.inventory.stock-sync-interval-ms:10000}"
+    )
+    public void syncProductStock() {
+        if (!warehouseMode) {
+            return;
+        }
+        List<Long> changed = warehouseStockRepository.syncProductStockTotals();
+        Cache products = cacheManager.getCache("products");
+        for (Long productId : changed) {
+            if (products != null) {
+                products.evict(productId);
+            }
+            catalogSnapshotService.productChanged(productId);
+        }
+        if (!changed.isEmpty()) {
+            log.debug("Synced stock totals of {} products", changed.size());
+        }
+    }
+
     @CacheEvict(value = "products", key = "#productId")
     public void releaseInventory(
         Long productId,
@@ -123,9 +394,38 @@ public class InventoryService {
         }
 
         Product product = productOpt.get();
+        if (warehouseMode) {
+            // Stock taken without allocations goes back to the default
+            // warehouse; the product total follows on the next sync.
+            warehouseStockRepository.addStock(
+                productId,
+                defaultWarehouse,
+                quantity
+            );
+            evictAvailability(productId);
+            int newQuantity = (int) warehouseStockRepository.sumAvailableByProductId(
+                productId
+            );
+            publishInventoryEvent(
+                product,
+                newQuantity - quantity,
+                newQuantity,
+                "INCREASE",
+                reason
+            );
+            log.info(
+                "Released {} units of product {} to warehouse {}",
+                quantity,
+                product.getSku(),
+                defaultWarehouse
+            );
+            return;
+        }
+
         Integer oldQuantity = product.getStockQuantity();
 
         productRepository.increaseStock(productId, quantity);
+        catalogSnapshotService.productChanged(productId);
 
         product = productRepository.findById(productId).orElseThrow();
         Integer newQuantity = product.getStockQuantity();
@@ -148,11 +448,17 @@ public class InventoryService {
     }
 
     @CacheEvict(value = "products", key = "#productId")
+    @RetryOnOptimisticLock
     public void updateStock(
         Long productId,
         Integer newQuantity,
         String reason
     ) {
+        if (warehouseMode) {
+            setTotalStock(productId, newQuantity, reason);
+            return;
+        }
+
         Optional<Product> productOpt = productRepository.findById(productId);
         if (productOpt.isEmpty()) {
             throw new IllegalArgumentException(
@@ -164,7 +470,10 @@ public class InventoryService {
         Integer oldQuantity = product.getStockQuantity();
 
         product.setStockQuantity(newQuantity);
-        productRepository.save(product);
+        // Flushed so a version conflict is raised, and retried, before any
+        // event is buffered; a retry would republish under new event IDs.
+        productRepository.saveAndFlush(product);
+        catalogSnapshotService.productChanged(productId);
 
         publishInventoryEvent(product, oldQuantity, newQuantity, "SET", reason);
 
@@ -183,6 +492,135 @@ public class InventoryService {
         );
     }
 
+    public void updateWarehouseStock(
+        Long productId,
+        String warehouseCode,
+        Integer newQuantity,
+        String reason
+    ) {
+        if (!warehouseMode) {
+            throw new IllegalArgumentException(
+                "Per-warehouse stock is not enabled"
+            );
+        }
+        Product product = productRepository
+            .findById(productId)
+            .orElseThrow(() ->
+                new IllegalArgumentException("Product not found: " + productId)
+            );
+
+        int oldQuantity = (int) warehouseStockRepository.sumAvailableByProductId(
+            productId
+        );
+        if (
+            warehouseStockRepository.setStock(
+                productId,
+                warehouseCode,
+                newQuantity
+            ) ==
+            0
+        ) {
+            throw new IllegalArgumentException(
+                "Warehouse not found: " + warehouseCode
+            );
+        }
+        int newTotal = warehouseStockChanged(product, oldQuantity, reason);
+        log.info(
+            "Updated stock for product {} in warehouse {}: total {} -> {}",
+            product.getSku(),
+            warehouseCode,
+            oldQuantity,
+            newTotal
+        );
+    }
+
+    /**
+     * Brings a product's stock across all warehouses to {@code newQuantity}.
+     * Additions go to the default warehouse; removals are taken from the
+     * default warehouse first and then from the others. The rows are locked
+     * so that concurrent allocations wait instead of being overdrawn.
+     */
+    private void setTotalStock(
+        Long productId,
+        Integer newQuantity,
+        String reason
+    ) {
+        Product product = productRepository
+            .findById(productId)
+            .orElseThrow(() ->
+                new IllegalArgumentException("Product not found: " + productId)
+            );
+
+        List<WarehouseStock> rows =
+            warehouseStockRepository.findByProductIdForUpdate(productId);
+        int oldQuantity = rows.stream().mapToInt(WarehouseStock::getQuantity).sum();
+        int delta = newQuantity - oldQuantity;
+        if (delta > 0) {
+            if (
+                warehouseStockRepository.addStock(
+                    productId,
+                    defaultWarehouse,
+                    delta
+                ) ==
+                0
+            ) {
+                throw new IllegalArgumentException(
+                    "Warehouse not found: " + defaultWarehouse
+                );
+            }
+        } else if (delta < 0) {
+            int remaining = -delta;
+            List<WarehouseStock> ordered = new ArrayList<>(rows);
+            ordered.sort(
+                Comparator.comparing(row ->
+                    !defaultWarehouse.equals(row.getWarehouse().getCode())
+                )
+            );
+            for (WarehouseStock row : ordered) {
+                int taken = Math.min(remaining, row.getQuantity());
+                row.setQuantity(row.getQuantity() - taken);
+                remaining -= taken;
+                if (remaining == 0) {
+                    break;
+                }
+            }
+            warehouseStockRepository.saveAllAndFlush(ordered);
+        }
+
+        int newTotal = warehouseStockChanged(product, oldQuantity, reason);
+        log.info(
+            "Updated stock for product {} across warehouses: {} -> {}",
+            product.getSku(),
+            oldQuantity,
+            newTotal
+        );
+    }
+
+    private int warehouseStockChanged(
+        Product product,
+        int oldQuantity,
+        String reason
+    ) {
+        evictAvailability(product.getId());
+        int newTotal = (int) warehouseStockRepository.sumAvailableByProductId(
+            product.getId()
+        );
+
+        Product snapshot = Product.builder()
+            .id(product.getId())
+            .name(product.getName())
+            .sku(product.getSku())
+            .stockQuantity(newTotal)
+            .build();
+        publishInventoryEvent(snapshot, oldQuantity, newTotal, "SET", reason);
+        if (
+            newTotal <= LOW_STOCK_THRESHOLD && oldQuantity > LOW_STOCK_THRESHOLD
+        ) {
+            publishLowStockAlert(snapshot);
+        }
+        return newTotal;
+    }
+
     @Transactional(readOnly = true)
     @Cacheable(value = "lowStockProducts")
     public List<ProductDTO> getLowStockProducts() {
@@ -231,14 +669,23 @@ public class InventoryService {
                 .newQuantity(newQuantity)
                 .operation(operation)
                 .reason(reason)
+                .eventId(UUID.randomUUID().toString())
                 .eventTime(LocalDateTime.now())
                 .build();
 
-            rabbitTemplate.convertAndSend(
-                RabbitConfig.INVENTORY_EXCHANGE,
-                RabbitConfig.INVENTORY_UPDATE_ROUTING_KEY,
-                event
-            );
+            if (inventoryPartitioner.isEnabled()) {
+                eventTransport.send(
+                    RabbitConfig.INVENTORY_PARTITIONED_EXCHANGE,
+                    inventoryPartitioner.routingKey(product.getId()),
+                    event
+                );
+            } else {
+                eventTransport.send(
+                    RabbitConfig.INVENTORY_EXCHANGE,
+                    RabbitConfig.INVENTORY_UPDATE_ROUTING_KEY,
+                    event
+                );
+            }
             log.debug(
                 "Published inventory event for product {}: {} {} -> {}",
                 product.getSku(),
@@ -255,6 +702,13 @@ public class InventoryService {
         }
     }
 
+    private void evictAvailability(Long productId) {
+        Cache availability = cacheManager.getCache("stockAvailability");
+        if (availability != null) {
+            availability.evict(productId);
+        }
+    }
+
     private void publishLowStockAlert(Product product) {
         try {
             InventoryEventDto event = InventoryEventDto.builder()
@@ -267,10 +721,11 @@ public class InventoryService {
                 .reason(
                     "Stock quantity below threshold: " + LOW_STOCK_THRESHOLD
                 )
+                .eventId(UUID.randomUUID().toString())
                 .eventTime(LocalDateTime.now())
                 .build();
 
-            rabbitTemplate.convertAndSend(
+            eventTransport.send(
                 RabbitConfig.INVENTORY_EXCHANGE,
                 RabbitConfig.LOW_STOCK_ALERT_ROUTING_KEY,
                 event
@@ -0,0 +1,72 @@
+package crudjava.crudjava.service;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.locks.ReentrantLock;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hands out order numbers of the form {@code ORD-yyyyMMdd-0000000123} from
+ * blocks reserved in {@code order_number_seq}. One {@code nextval()} reserves
+ * as many numbers as the sequence's increment, so only one order in a block
+ * touches the database. Numbers are unique across instances and increase
+ * within an instance, which keeps inserts into the order number index close
+ * to its right edge.
+ */
+@Component
+@Slf4j
+public class OrderNumberAllocator {
+
+    private static final String SEQUENCE = "order_number_seq";
+    private static final DateTimeFormatter DATE_FORMAT =
+        DateTimeFormatter.BASIC_ISO_DATE;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private long blockSize;
+    private long next;
+    private long blockEnd;
+
+    public OrderNumberAllocator(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public String next() {
+        long number;
+        lock.lock();
+        try {
+            if (next >= blockEnd) {
+                reserveBlock();
+            }
+            number = next++;
+        } finally {
+            lock.unlock();
+        }
+        return String.format(
+            "ORD-%s-%010d",
+            LocalDate.now().format(DATE_FORMAT),
+            number
+        );
+    }
+
+    private void reserveBlock() {
+        if (blockSize == 0) {
+            Long increment = jdbcTemplate.queryForObject(
+                "SELECT increment_by FROM pg_sequences WHERE sequencename = ?",
+                Long.class,
+                SEQUENCE
+            );
+            blockSize = increment != null && increment > 0 ? increment : 1;
+        }
+        Long start = jdbcTemplate.queryForObject(
+            "SELECT nextval('" + SEQUENCE + "')",
+            Long.class
+        );
+        next = start;
+        blockEnd = start + blockSize;
+        log.debug("Reserved order numbers {}..{}", start, blockEnd - 1);
+    }
+}
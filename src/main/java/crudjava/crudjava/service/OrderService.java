@@ -7,27 +7,40 @@ import crudjava.crudjava.dto.OrderEventDto;
 import crudjava.crudjava.dto.OrderItemRequestDTO;
 import crudjava.crudjava.exception.CustomerNotFoundException;
 import crudjava.crudjava.exception.InsufficientStockException;
+import crudjava.crudjava.exception.InvalidStatusTransitionException;
 import crudjava.crudjava.exception.OrderNotFoundException;
 import crudjava.crudjava.exception.ProductNotFoundException;
 import crudjava.crudjava.mapper.OrderMapper;
+import crudjava.crudjava.messaging.EventTransport;
+import crudjava.crudjava.model.Address;
 import crudjava.crudjava.model.Customer;
+import crudjava.crudjava.model.Money;
 import crudjava.crudjava.model.Order;
 import crudjava.crudjava.model.OrderItem;
+import crudjava.crudjava.model.OrderStatus;
 import crudjava.crudjava.model.Product;
+import crudjava.crudjava.model.StockAllocation;
 import crudjava.crudjava.repository.CustomerRepository;
+import crudjava.crudjava.repository.OrderPlacementRepository;
 import crudjava.crudjava.repository.OrderRepository;
 import crudjava.crudjava.repository.ProductRepository;
+import crudjava.crudjava.retry.RetryOnOptimisticLock;
+import crudjava.crudjava.util.ETags;
 import crudjava.crudjava.util.UrlUtils;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -39,11 +52,19 @@ import org.springframework.transaction.annotation.Transactional;
 @Slf4j
 public class OrderService {
 
+    public static final String PLACEMENT_ENGINE_DATABASE = "database";
+
     private final OrderRepository orderRepository;
     private final CustomerRepository customerRepository;
     private final ProductRepository productRepository;
-    private final RabbitTemplate rabbitTemplate;
+    private final EventTransport eventTransport;
     private final InventoryService inventoryService;
+    private final OrderPlacementRepository orderPlacementRepository;
+    private final OrderNumberAllocator orderNumberAllocator;
+    private final StockHoldService stockHoldService;
+
+    @Value("${app.orders.placement-engine:jpa}")
+    private String placementEngine;
 
     @CircuitBreaker(
         name = "orderService",
@@ -55,6 +76,22 @@ public class OrderService {
             request.getCustomerId()
         );
 
+        // place_order decrements products.stock_quantity, so warehouse mode
+        // always takes the JPA path. It does not know about stock holds
+        // either, so products held by other carts go through the JPA path,
+        // which leaves their held quantity alone. Holds live in Redis and
+        // cannot be checked under the database's row locks: a hold placed
+        // between this check and the stock update can still be overbooked,
+        // on either path. That hold then fails at its own checkout with
+        // insufficient stock; the window is one order placement long.
+        if (
+            PLACEMENT_ENGINE_DATABASE.equals(placementEngine) &&
+            !inventoryService.isWarehouseMode() &&
+            !heldByOtherCarts(request)
+        ) {
+            return placeOrderInDatabase(request);
+        }
+
         Customer customer = customerRepository
             .findById(request.getCustomerId())
             .orElseThrow(() ->
@@ -63,8 +100,7 @@ public class OrderService {
                 )
             );
 
-        String orderNumber =
-            "ORDER-" + UUID.randomUUID().toString().substring(0, 8);
+        String orderNumber = orderNumberAllocator.next();
 
         Order order = Order.builder()
             .orderNumber(orderNumber)
@@ -72,6 +108,11 @@ public class OrderService {
             .build();
 
         List<OrderItem> orderItems = new ArrayList<>();
+        List<StockAllocation> allocations = new ArrayList<>();
+        boolean warehouseMode = inventoryService.isWarehouseMode();
+        String destinationCountry = warehouseMode
+            ? shippingCountry(customer)
+            : null;
 
         for (OrderItemRequestDTO itemRequest : request.getOrderItems()) {
             Product product = productRepository
@@ -82,7 +123,16 @@ public class OrderService {
                     )
                 );
 
-            if (product.getStockQuantity() < itemRequest.getQuantity()) {
+            // Stock set aside by other carts' holds is not available here;
+            // this order's own hold is.
+            int heldByOthers = stockHoldService.heldByOthers(
+                product.getId(),
+                request.getReservationId()
+            );
+            int stock = warehouseMode
+                ? inventoryService.getAvailableStock(product.getId())
+                : product.getStockQuantity();
+            if (stock - heldByOthers < itemRequest.getQuantity()) {
                 throw new InsufficientStockException(
                     "Insufficient stock for product: " + product.getName()
                 );
@@ -92,17 +142,31 @@ public class OrderService {
                 .order(order)
                 .product(product)
                 .quantity(itemRequest.getQuantity())
-                .unitPrice(product.getPrice())
-                .discountAmount(itemRequest.getDiscountAmount())
+                .unitPrice(Money.of(product.getPrice()))
                 .build();
-            orderItem.calculateSubtotal();
+            if (itemRequest.getDiscountAmount() != null) {
+                orderItem.applyDiscount(itemRequest.getDiscountAmount());
+            } else {
+                orderItem.calculateSubtotal();
+            }
             orderItems.add(orderItem);
 
-            inventoryService.reserveInventory(
-                product.getId(),
-                itemRequest.getQuantity(),
-                "Order: " + orderNumber
-            );
+            if (warehouseMode) {
+                allocations.addAll(
+                    inventoryService.allocateInventory(
+                        product.getId(),
+                        itemRequest.getQuantity(),
+                        destinationCountry,
+                        "Order: " + orderNumber
+                    )
+                );
+            } else {
+                inventoryService.reserveInventory(
+                    product.getId(),
+                    itemRequest.getQuantity(),
+                    "Order: " + orderNumber
+                );
+            }
         }
 
         order.setOrderItems(orderItems);
@@ -110,24 +174,21 @@ public class OrderService {
 
         try {
             Order savedOrder = orderRepository.save(order);
+            if (!allocations.isEmpty()) {
+                inventoryService.recordAllocations(savedOrder, allocations);
+            }
+            stockHoldService.releaseHoldAfterCommit(request.getReservationId());
             log.info(
                 "Successfully created order with ID: {}",
                 savedOrder.getId()
             );
 
-            OrderEventDto orderEvent = OrderEventDto.builder()
-                .orderId(savedOrder.getId())
-                .orderNumber(savedOrder.getOrderNumber())
-                .customerId(savedOrder.getCustomer().getId())
-                .customerEmail(savedOrder.getCustomer().getEmail())
-                .status("CREATED")
-                .totalAmount(savedOrder.getTotalAmount())
-                .eventTime(LocalDateTime.now())
-                .build();
-            rabbitTemplate.convertAndSend(
-                RabbitConfig.ORDER_EXCHANGE,
-                RabbitConfig.ORDER_CREATED_ROUTING_KEY,
-                orderEvent
+            publishOrderCreated(
+                savedOrder.getId(),
+                savedOrder.getOrderNumber(),
+                savedOrder.getCustomer().getId(),
+                savedOrder.getCustomer().getEmail(),
+                savedOrder.getTotalAmount().toBigDecimal()
             );
 
             return OrderMapper.toDTO(savedOrder);
@@ -141,6 +202,132 @@ public class OrderService {
         }
     }
 
+    private boolean heldByOtherCarts(CreateOrderRequestDTO request) {
+        if (request.getOrderItems() == null) {
+            return false;
+        }
+        return stockHoldService.anyHeldByOthers(
+            request
+                .getOrderItems()
+                .stream()
+                .map(OrderItemRequestDTO::getProductId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet()),
+            request.getReservationId()
+        );
+    }
+
+    private OrderDTO placeOrderInDatabase(CreateOrderRequestDTO request) {
+        if (
+            request.getOrderItems() == null || request.getOrderItems().isEmpty()
+        ) {
+            throw new IllegalArgumentException("Order must contain items");
+        }
+        String orderNumber = orderNumberAllocator.next();
+
+        List<OrderPlacementRepository.PlacedOrderLine> lines =
+            orderPlacementRepository.placeOrder(
+                request.getCustomerId(),
+                orderNumber,
+                request.getOrderItems()
+            );
+        OrderPlacementRepository.PlacedOrderLine order = lines.get(0);
+        stockHoldService.releaseHoldAfterCommit(request.getReservationId());
+        log.info("Successfully placed order with ID: {}", order.orderId());
+
+        Map<Long, OrderPlacementRepository.PlacedOrderLine> byProduct =
+            new LinkedHashMap<>();
+        lines.forEach(line -> byProduct.putIfAbsent(line.productId(), line));
+        byProduct
+            .values()
+            .forEach(line ->
+                inventoryService.onInventoryReserved(
+                    line.productId(),
+                    line.productName(),
+                    line.productSku(),
+                    line.oldStock(),
+                    line.newStock(),
+                    "Order: " + orderNumber
+                )
+            );
+
+        publishOrderCreated(
+            order.orderId(),
+            order.orderNumber(),
+            request.getCustomerId(),
+            order.customerEmail(),
+            order.totalAmount()
+        );
+
+        return OrderDTO.builder()
+            .id(order.orderId())
+            .orderNumber(order.orderNumber())
+            .customerId(request.getCustomerId())
+            .customerName(
+                order.customerFirstName() + " " + order.customerLastName()
+            )
+            .totalAmount(order.totalAmount())
+            .status(order.orderStatus().name())
+            .orderDate(order.orderCreatedAt())
+            .createdAt(order.orderCreatedAt())
+            .updatedAt(order.orderUpdatedAt())
+            .version(0L)
+            .items(
+                lines
+                    .stream()
+                    .map(line ->
+                        OrderDTO.OrderItemDTO.builder()
+                            .id(line.itemId())
+                            .productId(line.productId())
+                            .productName(line.productName())
+                            .productSku(line.productSku())
+                            .quantity(line.quantity())
+                            .unitPrice(line.unitPrice())
+                            .totalPrice(line.subtotal())
+                            .build()
+                    )
+                    .toList()
+            )
+            .build();
+    }
+
+    private static String shippingCountry(Customer customer) {
+        List<Address> addresses = customer.getAddresses();
+        if (addresses == null || addresses.isEmpty()) {
+            return null;
+        }
+        return addresses
+            .stream()
+            .filter(address -> "SHIPPING".equals(address.getAddressType()))
+            .findFirst()
+            .orElse(addresses.get(0))
+            .getCountry();
+    }
+
+    private void publishOrderCreated(
+        Long orderId,
+        String orderNumber,
+        Long customerId,
+        String customerEmail,
+        BigDecimal totalAmount
+    ) {
+        OrderEventDto orderEvent = OrderEventDto.builder()
+            .orderId(orderId)
+            .orderNumber(orderNumber)
+            .customerId(customerId)
+            .customerEmail(customerEmail)
+            .status("CREATED")
+            .totalAmount(totalAmount)
+            .eventId(UUID.randomUUID().toString())
+            .eventTime(LocalDateTime.now())
+            .build();
+        eventTransport.send(
+            RabbitConfig.ORDER_EXCHANGE,
+            RabbitConfig.ORDER_CREATED_ROUTING_KEY,
+            orderEvent
+        );
+    }
+
     public OrderDTO createOrderFallback(
         CreateOrderRequestDTO request,
         Exception ex
@@ -156,40 +343,60 @@ public class OrderService {
     }
 
     @CircuitBreaker(name = "orderService")
-    public OrderDTO updateOrderStatus(Long orderId, String newStatus) {
-        log.info("Updating order {} status to {}", orderId, newStatus);
+    @RetryOnOptimisticLock
+    public OrderDTO updateOrderStatus(
+        Long orderId,
+        String status,
+        Long expectedVersion
+    ) {
+        log.info("Updating order {} status to {}", orderId, status);
+        OrderStatus newStatus = OrderStatus.parse(status);
 
         Order order = orderRepository
             .findById(orderId)
             .orElseThrow(() ->
                 new OrderNotFoundException("Order not found: " + orderId)
             );
+        ETags.checkIfMatch(expectedVersion, order.getVersion());
 
-        String oldStatus = order.getStatus();
+        OrderStatus oldStatus = order.getStatus();
+        if (!oldStatus.canTransitionTo(newStatus)) {
+            throw new InvalidStatusTransitionException(
+                order.getOrderNumber(),
+                oldStatus,
+                newStatus
+            );
+        }
         order.setStatus(newStatus);
 
         switch (newStatus) {
-            case "SHIPPED":
-                order.setShippedAt(LocalDateTime.now());
-                break;
-            case "DELIVERED":
-                order.setDeliveredAt(LocalDateTime.now());
-                break;
-            case "CANCELLED":
+            case SHIPPED -> order.setShippedAt(LocalDateTime.now());
+            case DELIVERED -> order.setDeliveredAt(LocalDateTime.now());
+            case CANCELLED -> {
                 final String orderNumber = order.getOrderNumber();
-                order
-                    .getOrderItems()
-                    .forEach(item ->
-                        inventoryService.releaseInventory(
-                            item.getProduct().getId(),
-                            item.getQuantity(),
-                            "Order cancelled: " + orderNumber
-                        )
+                boolean released =
+                    inventoryService.isWarehouseMode() &&
+                    inventoryService.releaseAllocations(
+                        order,
+                        "Order cancelled: " + orderNumber
                     );
-                break;
+                if (!released) {
+                    order
+                        .getOrderItems()
+                        .forEach(item ->
+                            inventoryService.releaseInventory(
+                                item.getProduct().getId(),
+                                item.getQuantity(),
+                                "Order cancelled: " + orderNumber
+                            )
+                        );
+                }
+            }
+            default -> {}
         }
 
-        order = orderRepository.save(order);
+        // Flushed so the returned version, and with it the ETag, is current.
+        order = orderRepository.saveAndFlush(order);
 
         publishOrderStatusChangeEvent(order, oldStatus, newStatus);
 
@@ -219,6 +426,11 @@ public class OrderService {
             });
     }
 
+    @Transactional(readOnly = true)
+    public Optional<Long> findVersion(Long id) {
+        return orderRepository.findVersionById(id);
+    }
+
     @Transactional(readOnly = true)
     public Optional<OrderDTO> findByOrderNumber(String orderNumber) {
         String decodedOrderNumber = UrlUtils.autoDecodeIfNeeded(orderNumber);
@@ -263,14 +475,14 @@ public class OrderService {
     @Transactional(readOnly = true)
     public List<OrderDTO> findHighValueOrders(BigDecimal minAmount) {
         log.info("Finding high value orders with min amount: {}", minAmount);
-        List<String> statuses = List.of(
-            "CONFIRMED",
-            "PROCESSING",
-            "SHIPPED",
-            "DELIVERED"
+        List<OrderStatus> statuses = List.of(
+            OrderStatus.CONFIRMED,
+            OrderStatus.PROCESSING,
+            OrderStatus.SHIPPED,
+            OrderStatus.DELIVERED
         );
         List<Order> orders = orderRepository.findHighValueOrders(
-            minAmount,
+            Money.of(minAmount),
             statuses
         );
         return orders.stream().map(OrderMapper::toDTO).toList();
@@ -306,8 +518,9 @@ public class OrderService {
                 .orderNumber(order.getOrderNumber())
                 .customerId(order.getCustomer().getId())
                 .customerEmail(order.getCustomer().getEmail())
-                .status(order.getStatus())
-                .totalAmount(order.getTotalAmount())
+                .status(order.getStatus().name())
+                .totalAmount(order.getTotalAmount().toBigDecimal())
+                .eventId(UUID.randomUUID().toString())
                 .eventTime(LocalDateTime.now())
                 .build();
 
@@ -315,7 +528,7 @@ public class OrderService {
                 ? RabbitConfig.ORDER_CREATED_ROUTING_KEY
                 : RabbitConfig.ORDER_STATUS_CHANGED_ROUTING_KEY;
 
-            rabbitTemplate.convertAndSend(
+            eventTransport.send(
                 RabbitConfig.ORDER_EXCHANGE,
                 routingKey,
                 event
@@ -336,8 +549,8 @@ public class OrderService {
 
     private void publishOrderStatusChangeEvent(
         Order order,
-        String oldStatus,
-        String newStatus
+        OrderStatus oldStatus,
+        OrderStatus newStatus
     ) {
         publishOrderEvent(order, "ORDER_STATUS_CHANGED");
     }
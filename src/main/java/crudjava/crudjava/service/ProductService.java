@@ -1,23 +1,38 @@
 package crudjava.crudjava.service;
 
+import crudjava.crudjava.cache.ResilientCache;
+import crudjava.crudjava.catalog.CatalogSnapshotService;
 import crudjava.crudjava.dto.CreateProductRequestDTO;
 import crudjava.crudjava.dto.ProductDTO;
 import crudjava.crudjava.exception.ProductNotFoundException;
 import crudjava.crudjava.mapper.ProductMapper;
 import crudjava.crudjava.model.Product;
+import crudjava.crudjava.model.ProductStatus;
 import crudjava.crudjava.repository.ProductRepository;
+import crudjava.crudjava.retry.RetryOnOptimisticLock;
+import crudjava.crudjava.util.BatchIds;
+import crudjava.crudjava.util.ConstraintViolations;
+import crudjava.crudjava.util.ETags;
 import crudjava.crudjava.util.UrlUtils;
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 @Service
@@ -27,6 +42,10 @@ import org.springframework.transaction.annotation.Transactional;
 public class ProductService {
 
     private final ProductRepository productRepository;
+    private final CatalogSnapshotService catalogSnapshotService;
+    private final UniquenessFilter uniquenessFilter;
+    private final InventoryService inventoryService;
+    private final CacheManager cacheManager;
 
     @CacheEvict(value = "products", allEntries = true)
     public ProductDTO createProduct(CreateProductRequestDTO request) {
@@ -37,7 +56,10 @@ public class ProductService {
             sku = generateSku(request.getCategory());
         }
 
-        if (productRepository.findBySku(sku).isPresent()) {
+        if (
+            uniquenessFilter.skuMightExist(sku) &&
+            productRepository.findBySku(sku).isPresent()
+        ) {
             throw new IllegalArgumentException(
                 "Product with SKU " + sku + " already exists"
             );
@@ -50,7 +72,9 @@ public class ProductService {
             .price(request.getPrice())
             .category(request.getCategory())
             .status(
-                request.getStatus() != null ? request.getStatus() : "ACTIVE"
+                request.getStatus() != null
+                    ? ProductStatus.parse(request.getStatus())
+                    : ProductStatus.ACTIVE
             )
             .stockQuantity(
                 request.getStockQuantity() != null
@@ -59,7 +83,12 @@ public class ProductService {
             )
             .build();
 
-        Product savedProduct = productRepository.save(product);
+        Product savedProduct = saveProduct(product);
+        inventoryService.initializeStock(
+            savedProduct.getId(),
+            savedProduct.getStockQuantity()
+        );
+        catalogSnapshotService.catalogChanged();
         log.info(
             "Successfully created product with ID: {}",
             savedProduct.getId()
@@ -69,7 +98,12 @@ public class ProductService {
     }
 
     @CacheEvict(value = "products", key = "#id")
-    public ProductDTO updateProduct(Long id, CreateProductRequestDTO request) {
+    @RetryOnOptimisticLock
+    public ProductDTO updateProduct(
+        Long id,
+        CreateProductRequestDTO request,
+        Long expectedVersion
+    ) {
         log.info("Updating product with ID: {}", id);
 
         Product existingProduct = productRepository
@@ -77,12 +111,16 @@ public class ProductService {
             .orElseThrow(() ->
                 new ProductNotFoundException("Product not found: " + id)
             );
+        ETags.checkIfMatch(expectedVersion, existingProduct.getVersion());
 
         if (
             request.getSku() != null &&
             !existingProduct.getSku().equals(request.getSku())
         ) {
-            if (productRepository.findBySku(request.getSku()).isPresent()) {
+            if (
+                uniquenessFilter.skuMightExist(request.getSku()) &&
+                productRepository.findBySku(request.getSku()).isPresent()
+            ) {
                 throw new IllegalArgumentException(
                     "Product with SKU " + request.getSku() + " already exists"
                 );
@@ -103,21 +141,44 @@ public class ProductService {
             request.getCategory()
         );
         if (request.getStatus() != null) existingProduct.setStatus(
-            request.getStatus()
+            ProductStatus.parse(request.getStatus())
         );
+        Product updatedProduct = saveProduct(existingProduct);
+        // Stock goes through the inventory service so that in warehouse mode
+        // it lands in warehouse_stock, and stock events are published. The
+        // product's total lags the warehouses there, so it is not compared.
         if (
-            request.getStockQuantity() != null
-        ) existingProduct.setStockQuantity(request.getStockQuantity());
-
-        Product updatedProduct = productRepository.save(existingProduct);
+            request.getStockQuantity() != null &&
+            (inventoryService.isWarehouseMode() ||
+                !request
+                    .getStockQuantity()
+                    .equals(updatedProduct.getStockQuantity()))
+        ) {
+            inventoryService.updateStock(
+                id,
+                request.getStockQuantity(),
+                "Product update"
+            );
+        }
+        catalogSnapshotService.productChanged(id);
+        catalogSnapshotService.catalogChanged();
         log.info("Successfully updated product with ID: {}", id);
 
         return ProductMapper.toDTO(updatedProduct);
     }
 
-    @Transactional(readOnly = true)
-    @Cacheable(value = "products", key = "#id")
+    // SUPPORTS: reads answered by the catalog snapshot need no connection.
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    @Cacheable(
+        value = "products",
+        key = "#id",
+        condition = "!@catalogSnapshotService.isServing()"
+    )
     public Optional<ProductDTO> findById(Long id) {
+        ProductDTO snapshotProduct = catalogSnapshotService.findById(id);
+        if (snapshotProduct != null) {
+            return Optional.of(snapshotProduct);
+        }
         return productRepository
             .findById(id)
             .map(product -> {
@@ -126,10 +187,91 @@ public class ProductService {
             });
     }
 
+    /**
+     * Batch counterpart of {@link #findById}: hits come from one MGET on the
+     * {@code products} cache, misses from one query, and the misses are
+     * written back in one pipeline. Unknown IDs are left out; the rest keep
+     * the request order.
+     */
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public List<ProductDTO> findByIds(List<Long> ids) {
+        List<Long> requested = BatchIds.normalize(ids);
+        Map<Long, ProductDTO> found = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+
+        Cache cache = null;
+        if (catalogSnapshotService.isServing()) {
+            // Same rule as findById: the snapshot replaces the cache.
+            for (Long id : requested) {
+                ProductDTO snapshot = catalogSnapshotService.findById(id);
+                if (snapshot != null) {
+                    found.put(id, snapshot);
+                } else {
+                    missing.add(id);
+                }
+            }
+        } else {
+            cache = cacheManager.getCache("products");
+            Map<Object, Object> cached =
+                cache instanceof ResilientCache resilient
+                    ? resilient.getAll(requested)
+                    : Map.of();
+            for (Long id : requested) {
+                if (cached.get(id) instanceof ProductDTO product) {
+                    found.put(id, product);
+                } else {
+                    missing.add(id);
+                }
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            Map<Long, ProductDTO> loaded = new HashMap<>();
+            productRepository
+                .findAllById(missing)
+                .forEach(product ->
+                    loaded.put(product.getId(), ProductMapper.toDTO(product))
+                );
+            found.putAll(loaded);
+            if (cache instanceof ResilientCache resilient) {
+                resilient.putAll(loaded);
+            } else if (cache != null) {
+                loaded.forEach(cache::put);
+            }
+        }
+        log.info(
+            "Found {} of {} requested products ({} from the database)",
+            found.size(),
+            requested.size(),
+            missing.size()
+        );
+
+        return requested
+            .stream()
+            .map(found::get)
+            .filter(Objects::nonNull)
+            .toList();
+    }
+
+    /**
+     * Version for conditional GETs by a single-column lookup. The snapshot
+     * can lag behind writes, so it must not decide whether a 304 is sent.
+     */
     @Transactional(readOnly = true)
+    public Optional<Long> findVersion(Long id) {
+        return productRepository.findVersionById(id);
+    }
+
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public Optional<ProductDTO> findBySku(String sku) {
         String decodedSku = UrlUtils.autoDecodeIfNeeded(sku);
         log.info("Searching product by SKU: {}", decodedSku);
+        ProductDTO snapshotProduct = catalogSnapshotService.findBySku(
+            decodedSku
+        );
+        if (snapshotProduct != null) {
+            return Optional.of(snapshotProduct);
+        }
         return productRepository
             .findBySku(decodedSku)
             .map(product -> {
@@ -138,9 +280,14 @@ public class ProductService {
             });
     }
 
-    @Transactional(readOnly = true)
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public List<ProductDTO> findByCategory(String category) {
         log.info("Finding products by category: {}", category);
+        List<ProductDTO> snapshotProducts =
+            catalogSnapshotService.findByCategory(category);
+        if (snapshotProducts != null) {
+            return snapshotProducts;
+        }
         List<Product> products = productRepository.findByCategory(category);
         return products.stream().map(ProductMapper::toDTO).toList();
     }
@@ -148,7 +295,9 @@ public class ProductService {
     @Transactional(readOnly = true)
     public List<ProductDTO> findByStatus(String status) {
         log.info("Finding products by status: {}", status);
-        List<Product> products = productRepository.findByStatus(status);
+        List<Product> products = productRepository.findByStatus(
+            ProductStatus.parse(status)
+        );
         return products.stream().map(ProductMapper::toDTO).toList();
     }
 
@@ -222,26 +371,36 @@ public class ProductService {
             product.getOrderItems() != null &&
             !product.getOrderItems().isEmpty()
         ) {
-            product.setStatus("DISCONTINUED");
+            product.setStatus(ProductStatus.DISCONTINUED);
             productRepository.save(product);
+            catalogSnapshotService.productChanged(id);
             log.info("Marked product as discontinued: {}", id);
         } else {
             productRepository.delete(product);
+            catalogSnapshotService.productChanged(id);
+            catalogSnapshotService.catalogChanged();
             log.info("Successfully deleted product: {}", id);
         }
     }
 
     @CacheEvict(value = "products", key = "#productId")
-    public ProductDTO updateProductStatus(Long productId, String status) {
+    @RetryOnOptimisticLock
+    public ProductDTO updateProductStatus(
+        Long productId,
+        String status,
+        Long expectedVersion
+    ) {
         log.info("Updating product {} status to {}", productId, status);
         Product product = productRepository
             .findById(productId)
             .orElseThrow(() ->
                 new ProductNotFoundException("Product not found: " + productId)
             );
+        ETags.checkIfMatch(expectedVersion, product.getVersion());
 
-        product.setStatus(status);
-        Product updatedProduct = productRepository.save(product);
+        product.setStatus(ProductStatus.parse(status));
+        Product updatedProduct = productRepository.saveAndFlush(product);
+        catalogSnapshotService.productChanged(productId);
         log.info(
             "Successfully updated product {} status to {}",
             productId,
@@ -251,6 +410,28 @@ public class ProductService {
         return ProductMapper.toDTO(updatedProduct);
     }
 
+    // Flushes so that a lost race on the SKU constraint surfaces here rather
+    // than at commit.
+    private Product saveProduct(Product product) {
+        try {
+            Product saved = productRepository.saveAndFlush(product);
+            uniquenessFilter.skuAdded(saved.getSku());
+            return saved;
+        } catch (DataIntegrityViolationException ex) {
+            if (
+                ConstraintViolations.isViolationOf(
+                    ex,
+                    ConstraintViolations.PRODUCT_SKU_UNIQUE
+                )
+            ) {
+                throw new IllegalArgumentException(
+                    "Product with SKU " + product.getSku() + " already exists"
+                );
+            }
+            throw ex;
+        }
+    }
+
     private String generateSku(String category) {
         String prefix = category != null && category.length() >= 3
             ? category.substring(0, 3).toUpperCase()
@@ -0,0 +1,387 @@
+package crudjava.crudjava.service;
+
+import crudjava.crudjava.dto.OrderItemRequestDTO;
+import crudjava.crudjava.dto.ProductDTO;
+import crudjava.crudjava.dto.StockHoldDTO;
+import crudjava.crudjava.exception.InsufficientStockException;
+import crudjava.crudjava.exception.ProductNotFoundException;
+import crudjava.crudjava.model.Product;
+import crudjava.crudjava.repository.ProductRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Soft stock holds for carts and checkout sessions. A hold sets quantities
+ * aside in Redis for a limited time without touching the {@code products}
+ * rows; the stock is only decremented when the order is placed, after which
+ * the hold is dropped. Holds that are never converted are released by the
+ * sweeper once their expiry passes.
+ *
+ * <p>Layout: {@code stock:hold:<id>} hashes product ID to held quantity,
+ * {@code stock:held:<productId>} counts the quantity held across all holds and
+ * the {@code stock:hold-expiry} sorted set scores hold IDs by expiry in epoch
+ * milliseconds. Placing and releasing a hold are single Lua scripts, so
+ * concurrent holds on the same product cannot overbook it.
+ */
+@Service
+@Slf4j
+public class StockHoldService {
+
+    private static final String HOLD_PREFIX = "stock:hold:";
+    private static final String HELD_PREFIX = "stock:held:";
+    private static final String EXPIRY_KEY = "stock:hold-expiry";
+
+    // KEYS: expiry set, hold hash, one held counter per line.
+    // ARGV: hold ID, expiry millis, then product ID, quantity, stock per line.
+    // Returns 0, or the first product ID that cannot be held.
+    private static final RedisScript<Long> PLACE_SCRIPT = new DefaultRedisScript<>(
+        """
+        local lines = #KEYS - 2
+        for i = 1, lines do
+            local base = 3 + (i - 1) * 3
+            local held = tonumber(redis.call('GET', KEYS[2 + i]) or '0')
+            if tonumber(ARGV[base + 2]) - held < tonumber(ARGV[base + 1]) then
+                return tonumber(ARGV[base])
+            end
+        end
+        for i = 1, lines do
+            local base = 3 + (i - 1) * 3
+            redis.call('INCRBY', KEYS[2 + i], ARGV[base + 1])
+            redis.call('HSET', KEYS[2], ARGV[base], ARGV[base + 1])
+        end
+        redis.call('ZADD', KEYS[1], ARGV[2], ARGV[1])
+        return 0
+        """,
+        Long.class
+    );
+
+    // KEYS: expiry set, hold hash. ARGV: hold ID, held counter prefix.
+    // Idempotent, so the sweepers of several instances may race on a hold.
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+        """
+        local lines = redis.call('HGETALL', KEYS[2])
+        for i = 1, #lines, 2 do
+            local key = ARGV[2] .. lines[i]
+            if redis.call('DECRBY', key, lines[i + 1]) <= 0 then
+                redis.call('DEL', key)
+            end
+        end
+        redis.call('DEL', KEYS[2])
+        redis.call('ZREM', KEYS[1], ARGV[1])
+        return #lines / 2
+        """,
+        Long.class
+    );
+
+    private final StringRedisTemplate redisTemplate;
+    private final ProductRepository productRepository;
+    private final Duration ttl;
+    private final int sweepBatchSize;
+    private final Counter expiredHolds;
+
+    public StockHoldService(
+        StringRedisTemplate redisTemplate,
+        ProductRepository productRepository,
+        MeterRegistry meterRegistry,
+        @Value("${app.stock-holds.ttl:15m}") Duration ttl,
+        @Value("${app.stock-holds.sweep-batch-size:500}") int sweepBatchSize
+    ) {
+        this.redisTemplate = redisTemplate;
+        this.productRepository = productRepository;
+        this.ttl = ttl;
+        this.sweepBatchSize = sweepBatchSize;
+        this.expiredHolds = Counter.builder("stock.holds.expired").register(
+            meterRegistry
+        );
+    }
+
+    public StockHoldDTO placeHold(List<OrderItemRequestDTO> items) {
+        Map<Long, Integer> quantities = mergeLines(items);
+        Map<Long, Product> products = productRepository
+            .findAllById(quantities.keySet())
+            .stream()
+            .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        String holdId = UUID.randomUUID().toString();
+        long expiresAt = System.currentTimeMillis() + ttl.toMillis();
+        List<String> keys = new ArrayList<>(quantities.size() + 2);
+        List<String> args = new ArrayList<>(quantities.size() * 3 + 2);
+        keys.add(EXPIRY_KEY);
+        keys.add(HOLD_PREFIX + holdId);
+        args.add(holdId);
+        args.add(Long.toString(expiresAt));
+        quantities.forEach((productId, quantity) -> {
+            Product product = products.get(productId);
+            if (product == null) {
+                throw new ProductNotFoundException(productId);
+            }
+            keys.add(HELD_PREFIX + productId);
+            args.add(productId.toString());
+            args.add(quantity.toString());
+            args.add(product.getStockQuantity().toString());
+        });
+
+        Long rejected = redisTemplate.execute(
+            PLACE_SCRIPT,
+            keys,
+            args.toArray()
+        );
+        if (rejected != null && rejected != 0) {
+            Product product = products.get(rejected);
+            throw new InsufficientStockException(
+                product.getName(),
+                quantities.get(rejected),
+                Math.max(0, product.getStockQuantity() - heldQuantity(rejected))
+            );
+        }
+
+        log.info(
+            "Placed stock hold {} for {} products",
+            holdId,
+            quantities.size()
+        );
+        return toDTO(holdId, quantities, expiresAt);
+    }
+
+    public Optional<StockHoldDTO> findHold(String holdId) {
+        Map<Long, Integer> quantities = holdQuantities(holdId);
+        Double expiresAt = redisTemplate.opsForZSet().score(EXPIRY_KEY, holdId);
+        if (quantities.isEmpty() || expiresAt == null) {
+            return Optional.empty();
+        }
+        return Optional.of(toDTO(holdId, quantities, expiresAt.longValue()));
+    }
+
+    public void releaseHold(String holdId) {
+        Long lines = redisTemplate.execute(
+            RELEASE_SCRIPT,
+            List.of(EXPIRY_KEY, HOLD_PREFIX + holdId),
+            holdId,
+            HELD_PREFIX
+        );
+        log.debug("Released stock hold {} ({} products)", holdId, lines);
+    }
+
+    /**
+     * Releases the hold once the surrounding transaction commits; the order
+     * that consumed it has then decremented the stock itself.
+     */
+    public void releaseHoldAfterCommit(String holdId) {
+        if (holdId == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            releaseHold(holdId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(
+            new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    releaseHold(holdId);
+                }
+            }
+        );
+    }
+
+    /** Quantity of a product held by holds other than {@code holdId}. */
+    public int heldByOthers(Long productId, String holdId) {
+        int held = heldQuantity(productId);
+        if (holdId != null) {
+            Object own = redisTemplate
+                .opsForHash()
+                .get(HOLD_PREFIX + holdId, productId.toString());
+            if (own != null) {
+                held -= Integer.parseInt(own.toString());
+            }
+        }
+        return Math.max(0, held);
+    }
+
+    /**
+     * Whether holds other than {@code holdId} set aside any of the products,
+     * checked in two round trips regardless of the number of products. The
+     * answer is not kept up to date: a hold placed right after it returns is
+     * not seen by the caller.
+     */
+    public boolean anyHeldByOthers(Collection<Long> productIds, String holdId) {
+        if (productIds.isEmpty()) {
+            return false;
+        }
+        List<Long> ordered = new ArrayList<>(productIds);
+        List<String> held = redisTemplate
+            .opsForValue()
+            .multiGet(ordered.stream().map(id -> HELD_PREFIX + id).toList());
+        if (held == null) {
+            return false;
+        }
+        List<Object> own = holdId != null
+            ? redisTemplate
+                .opsForHash()
+                .multiGet(
+                    HOLD_PREFIX + holdId,
+                    ordered.stream().map(id -> (Object) id.toString()).toList()
+                )
+            : null;
+        for (int i = 0; i < ordered.size(); i++) {
+            int total = held.get(i) != null ? Integer.parseInt(held.get(i)) : 0;
+            Object mine = own != null ? own.get(i) : null;
+            int ours = mine != null ? Integer.parseInt(mine.toString()) : 0;
+            if (total > ours) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public ProductDTO withAvailability(ProductDTO product) {
+        if (product != null) {
+            withAvailability(List.of(product));
+        }
+        return product;
+    }
+
+    /** Fills {@code availableQuantity} from an already read held quantity. */
+    public ProductDTO withAvailability(ProductDTO product, int heldQuantity) {
+        product.setAvailableQuantity(
+            Math.max(0, product.getStockQuantity() - heldQuantity)
+        );
+        return product;
+    }
+
+    /** Fills {@code availableQuantity} from the held counters in one round trip. */
+    public <C extends Collection<ProductDTO>> C withAvailability(C products) {
+        if (products.isEmpty()) {
+            return products;
+        }
+        List<ProductDTO> ordered = new ArrayList<>(products);
+        List<String> held = redisTemplate
+            .opsForValue()
+            .multiGet(ordered.stream().map(p -> HELD_PREFIX + p.getId()).toList());
+        for (int i = 0; i < ordered.size(); i++) {
+            ProductDTO product = ordered.get(i);
+            String value = held != null ? held.get(i) : null;
+            withAvailability(product, value != null ? Integer.parseInt(value) : 0);
+        }
+        return products;
+    }
+
+    @Scheduled(fixedDelayString = "${app.stock-holds.sweep-interval-ms:5000}")
+    public void releaseExpiredHolds() {
+        Set<String> expired;
+        do {
+            expired = redisTemplate
+                .opsForZSet()
+                .rangeByScore(
+                    EXPIRY_KEY,
+                    Double.NEGATIVE_INFINITY,
+                    System.currentTimeMillis(),
+                    0,
+                    sweepBatchSize
+                );
+            if (expired == null || expired.isEmpty()) {
+                return;
+            }
+            expired.forEach(this::releaseHold);
+            expiredHolds.increment(expired.size());
+            log.info("Released {} expired stock holds", expired.size());
+        } while (expired.size() == sweepBatchSize);
+    }
+
+    /** Quantity of a product held across all holds. */
+    public int heldQuantity(Long productId) {
+        String held = redisTemplate.opsForValue().get(HELD_PREFIX + productId);
+        return held != null ? Integer.parseInt(held) : 0;
+    }
+
+    private Map<Long, Integer> holdQuantities(String holdId) {
+        Map<Long, Integer> quantities = new TreeMap<>();
+        redisTemplate
+            .opsForHash()
+            .entries(HOLD_PREFIX + holdId)
+            .forEach((productId, quantity) ->
+                quantities.put(
+                    Long.valueOf(productId.toString()),
+                    Integer.valueOf(quantity.toString())
+                )
+            );
+        return quantities;
+    }
+
+    private static Map<Long, Integer> mergeLines(
+        List<OrderItemRequestDTO> items
+    ) {
+        if (items == null || items.isEmpty()) {
+            throw new IllegalArgumentException("Hold must contain items");
+        }
+        Map<Long, Integer> quantities = new TreeMap<>();
+        for (OrderItemRequestDTO item : items) {
+            if (
+                item.getProductId() == null ||
+                item.getQuantity() == null ||
+                item.getQuantity() < 1
+            ) {
+                throw new IllegalArgumentException(
+                    "Hold lines need a product ID and a positive quantity"
+                );
+            }
+            quantities.merge(
+                item.getProductId(),
+                item.getQuantity(),
+                Integer::sum
+            );
+        }
+        return quantities;
+    }
+
+    private static StockHoldDTO toDTO(
+        String holdId,
+        Map<Long, Integer> quantities,
+        long expiresAt
+    ) {
+        return StockHoldDTO.builder()
+            .reservationId(holdId)
+            .expiresAt(
+                LocalDateTime.ofInstant(
+                    Instant.ofEpochMilli(expiresAt),
+                    ZoneId.systemDefault()
+                )
+            )
+            .items(
+                quantities
+                    .entrySet()
+                    .stream()
+                    .map(entry ->
+                        StockHoldDTO.HeldItemDTO.builder()
+                            .productId(entry.getKey())
+                            .quantity(entry.getValue())
+                            .build()
+                    )
+                    .toList()
+            )
+            .build();
+    }
+}
@@ -0,0 +1,179 @@
+package crudjava.crudjava.service;
+
+import crudjava.crudjava.util.BloomFilter;
+import jakarta.annotation.PreDestroy;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bloom filters of existing customer emails and product SKUs. A value the
+ * filter has never seen cannot exist, so the uniqueness lookup before an
+ * insert can be skipped; a possible hit still goes to the database. The
+ * UNIQUE constraints remain the final check for races and for values
+ * inserted by other instances.
+ *
+ * <p>Until the filters are loaded every value counts as possibly existing.
+ * They are rebuilt when inserts exceed the sized capacity; values written
+ * during a rebuild go into both the old and the new filter.
+ */
+@Component
+@Slf4j
+public class UniquenessFilter {
+
+    private final Filter emails;
+    private final Filter skus;
+    private final ExecutorService builder = Executors.newSingleThreadExecutor(
+        runnable ->
+            Thread.ofPlatform()
+                .name("uniqueness-filter-builder")
+                .daemon(true)
+                .unstarted(runnable)
+    );
+
+    public UniquenessFilter(
+        JdbcTemplate jdbcTemplate,
+        @Value("${app.uniqueness.false-positive-rate:0.01}") double falsePositiveRate,
+        @Value("${app.uniqueness.min-capacity:100000}") long minCapacity
+    ) {
+        this.emails = new Filter(
+            "customer emails",
+            "SELECT email FROM customers",
+            "SELECT COUNT(*) FROM customers",
+            jdbcTemplate,
+            falsePositiveRate,
+            minCapacity
+        );
+        this.skus = new Filter(
+            "product SKUs",
+            "SELECT sku FROM products WHERE sku IS NOT NULL",
+            "SELECT COUNT(*) FROM products",
+            jdbcTemplate,
+            falsePositiveRate,
+            minCapacity
+        );
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        emails.scheduleRebuild();
+        skus.scheduleRebuild();
+    }
+
+    @PreDestroy
+    public void stop() {
+        builder.shutdownNow();
+    }
+
+    public boolean emailMightExist(String email) {
+        return emails.mightContain(email);
+    }
+
+    public void emailAdded(String email) {
+        emails.put(email);
+    }
+
+    public boolean skuMightExist(String sku) {
+        return skus.mightContain(sku);
+    }
+
+    public void skuAdded(String sku) {
+        skus.put(sku);
+    }
+
+    private final class Filter {
+
+        private final String name;
+        private final String selectValues;
+        private final String countValues;
+        private final JdbcTemplate jdbcTemplate;
+        private final double falsePositiveRate;
+        private final long minCapacity;
+
+        private final AtomicLong insertions = new AtomicLong();
+        private final AtomicBoolean rebuilding = new AtomicBoolean();
+        private volatile BloomFilter current;
+        private volatile BloomFilter next;
+
+        Filter(
+            String name,
+            String selectValues,
+            String countValues,
+            JdbcTemplate jdbcTemplate,
+            double falsePositiveRate,
+            long minCapacity
+        ) {
+            this.name = name;
+            this.selectValues = selectValues;
+            this.countValues = countValues;
+            this.jdbcTemplate = jdbcTemplate;
+            this.falsePositiveRate = falsePositiveRate;
+            this.minCapacity = minCapacity;
+        }
+
+        boolean mightContain(String value) {
+            BloomFilter filter = current;
+            return value == null || filter == null || filter.mightContain(value);
+        }
+
+        void put(String value) {
+            if (value == null) {
+                return;
+            }
+            BloomFilter filter = current;
+            if (filter != null) {
+                filter.put(value);
+                if (insertions.incrementAndGet() > filter.expectedInsertions()) {
+                    scheduleRebuild();
+                }
+            }
+            BloomFilter building = next;
+            if (building != null) {
+                building.put(value);
+            }
+        }
+
+        void scheduleRebuild() {
+            if (rebuilding.compareAndSet(false, true)) {
+                builder.execute(this::rebuild);
+            }
+        }
+
+        private void rebuild() {
+            try {
+                Long count = jdbcTemplate.queryForObject(countValues, Long.class);
+                long capacity = Math.max(
+                    minCapacity,
+                    2 * (count != null ? count : 0)
+                );
+                BloomFilter filter = BloomFilter.create(capacity, falsePositiveRate);
+                next = filter;
+                AtomicLong loaded = new AtomicLong();
+                jdbcTemplate.query(selectValues, rs -> {
+                    filter.put(rs.getString(1));
+                    loaded.incrementAndGet();
+                });
+                insertions.set(loaded.get());
+                current = filter;
+                log.info(
+                    "Loaded {} {} into uniqueness filter sized for {}",
+                    loaded.get(),
+                    name,
+                    capacity
+                );
+            } catch (RuntimeException e) {
+                log.warn("Failed to build {} filter: {}", name, e.getMessage());
+            } finally {
+                next = null;
+                rebuilding.set(false);
+            }
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package crudjava.crudjava.util;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import lombok.experimental.UtilityClass;
+
+/** Validation of the {@code ids} parameter of multi-get endpoints. */
+@UtilityClass
+public class BatchIds {
+
+    public static final int MAX_SIZE = 100;
+
+    /** Distinct non-null IDs in request order. */
+    public static List<Long> normalize(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            throw new IllegalArgumentException("At least one ID is required");
+        }
+        List<Long> distinct = List.copyOf(
+            ids
+                .stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.toCollection(LinkedHashSet::new))
+        );
+        if (distinct.size() > MAX_SIZE) {
+            throw new IllegalArgumentException(
+                "At most " + MAX_SIZE + " IDs can be requested at once"
+            );
+        }
+        return distinct;
+    }
+}
@@ -0,0 +1,85 @@
+package crudjava.crudjava.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-safe Bloom filter over strings. {@link #mightContain} never returns
+ * {@code false} for a value that was {@link #put}; it returns {@code true}
+ * for an absent value with roughly the configured probability as long as no
+ * more than the expected number of values are inserted.
+ */
+public final class BloomFilter {
+
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashCount;
+    private final long expectedInsertions;
+
+    private BloomFilter(long bitCount, int hashCount, long expectedInsertions) {
+        this.bits = new AtomicLongArray((int) ((bitCount + 63) >>> 6));
+        this.bitCount = bitCount;
+        this.hashCount = hashCount;
+        this.expectedInsertions = expectedInsertions;
+    }
+
+    public static BloomFilter create(
+        long expectedInsertions,
+        double falsePositiveRate
+    ) {
+        long n = Math.max(1, expectedInsertions);
+        long m = (long) Math.ceil(
+            (-n * Math.log(falsePositiveRate)) / (Math.log(2) * Math.log(2))
+        );
+        m = Math.min(Math.max(64, m), (long) Integer.MAX_VALUE * 64);
+        int k = (int) Math.max(1, Math.round(((double) m / n) * Math.log(2)));
+        return new BloomFilter(m, k, n);
+    }
+
+    public long expectedInsertions() {
+        return expectedInsertions;
+    }
+
+    public void put(String value) {
+        long hash = hash(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            long bit = index(h1 + (long) i * h2);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            if ((bits.get(word) & mask) == 0) {
+                bits.getAndAccumulate(word, mask, (a, b) -> a | b);
+            }
+        }
+    }
+
+    public boolean mightContain(String value) {
+        long hash = hash(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            long bit = index(h1 + (long) i * h2);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long index(long combinedHash) {
+        return (combinedHash & Long.MAX_VALUE) % bitCount;
+    }
+
+    /** 64-bit FNV-1a over the UTF-16 code units, finished with a mix step. */
+    private static long hash(String value) {
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001B3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,29 @@
+package crudjava.crudjava.util;
+
+import lombok.experimental.UtilityClass;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+@UtilityClass
+public class ConstraintViolations {
+
+    public static final String CUSTOMER_EMAIL_UNIQUE = "customers_email_key";
+    public static final String PRODUCT_SKU_UNIQUE = "products_sku_key";
+
+    /** Whether the exception was caused by the named database constraint. */
+    public static boolean isViolationOf(
+        DataIntegrityViolationException ex,
+        String constraintName
+    ) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (
+                cause instanceof ConstraintViolationException violation &&
+                constraintName.equalsIgnoreCase(violation.getConstraintName())
+            ) {
+                return true;
+            }
+        }
+        String message = ex.getMostSpecificCause().getMessage();
+        return message != null && message.contains(constraintName);
+    }
+}
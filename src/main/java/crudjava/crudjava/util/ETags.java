@@ -0,0 +1,80 @@
+package crudjava.crudjava.util;
+
+import crudjava.crudjava.exception.PreconditionFailedException;
+import lombok.experimental.UtilityClass;
+
+/**
+ * Strong entity tags derived from an entity's {@code @Version}. Every write
+ * to a versioned row, including the bulk stock updates, bumps the version,
+ * so equal versions mean an identical representation. A representation that
+ * also carries a count kept outside the row, such as held stock, folds that
+ * count into the tag as {@code "<version>-<count>"}.
+ */
+@UtilityClass
+public class ETags {
+
+    private static final String ANY = "*";
+
+    public static String of(Long version) {
+        return version != null ? "\"" + version + "\"" : null;
+    }
+
+    public static String of(Long version, int count) {
+        return version != null ? "\"" + version + "-" + count + "\"" : null;
+    }
+
+    /**
+     * {@code If-None-Match} check with weak comparison: whether the client's
+     * copy is current and a 304 may be sent.
+     */
+    public static boolean matchesIfNoneMatch(String header, String etag) {
+        if (header == null || etag == null) {
+            return false;
+        }
+        for (String candidate : header.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (ANY.equals(tag) || etag.equals(tag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Version an {@code If-Match} header requires, or {@code null} when the
+     * header is absent or {@code *}. Only a single strong tag can be
+     * expressed; weak or foreign tags can never match and fail right away.
+     * A folded count is not part of the row the write replaces, so only the
+     * version is checked.
+     */
+    public static Long parseIfMatch(String header) {
+        if (header == null || header.isBlank() || ANY.equals(header.trim())) {
+            return null;
+        }
+        String tag = header.trim();
+        if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            String opaque = tag.substring(1, tag.length() - 1);
+            int separator = opaque.indexOf('-');
+            try {
+                return Long.valueOf(
+                    separator > 0 ? opaque.substring(0, separator) : opaque
+                );
+            } catch (NumberFormatException e) {
+                // not one of ours
+            }
+        }
+        throw new PreconditionFailedException(header);
+    }
+
+    /** Fails the write when the entity moved past the version the client saw. */
+    public static void checkIfMatch(Long expectedVersion, Long currentVersion) {
+        if (
+            expectedVersion != null && !expectedVersion.equals(currentVersion)
+        ) {
+            throw new PreconditionFailedException(of(expectedVersion));
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package crudjava.crudjava.warehouse;
+
+import crudjava.crudjava.model.WarehouseStock;
+import java.util.List;
+
+/**
+ * Decides the order in which warehouses are drawn from when allocating an
+ * order line. The allocator takes as much as it can from each warehouse in
+ * turn, so a line only splits once the first choice runs short.
+ */
+public interface AllocationStrategy {
+
+    /** Name used to select the strategy in {@code app.inventory.allocation-strategy}. */
+    String name();
+
+    /**
+     * @param candidates active warehouses holding the product, with their
+     *     warehouse fetched
+     * @param destinationCountry country the order ships to, or {@code null}
+     */
+    List<WarehouseStock> rank(
+        List<WarehouseStock> candidates,
+        String destinationCountry
+    );
+}
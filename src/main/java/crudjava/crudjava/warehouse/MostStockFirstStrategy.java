@@ -0,0 +1,35 @@
+package crudjava.crudjava.warehouse;
+
+import crudjava.crudjava.model.WarehouseStock;
+import java.util.Comparator;
+import java.util.List;
+import org.springframework.stereotype.Component;
+
+/**
+ * Draws from the warehouse with the most stock first, which keeps lines from
+ * splitting and spreads reservations away from nearly empty rows.
+ */
+@Component
+public class MostStockFirstStrategy implements AllocationStrategy {
+
+    @Override
+    public String name() {
+        return "most-stock";
+    }
+
+    @Override
+    public List<WarehouseStock> rank(
+        List<WarehouseStock> candidates,
+        String destinationCountry
+    ) {
+        return candidates
+            .stream()
+            .sorted(
+                Comparator.comparing(
+                    WarehouseStock::getQuantity,
+                    Comparator.reverseOrder()
+                ).thenComparing(stock -> stock.getWarehouse().getPriority())
+            )
+            .toList();
+    }
+}
@@ -0,0 +1,44 @@
+package crudjava.crudjava.warehouse;
+
+import crudjava.crudjava.model.WarehouseStock;
+import java.util.Comparator;
+import java.util.List;
+import org.springframework.stereotype.Component;
+
+/**
+ * Prefers warehouses in the destination country, then the configured
+ * warehouse priority, then the larger stock so that lines split less often.
+ */
+@Component
+public class NearestWarehouseStrategy implements AllocationStrategy {
+
+    @Override
+    public String name() {
+        return "nearest";
+    }
+
+    @Override
+    public List<WarehouseStock> rank(
+        List<WarehouseStock> candidates,
+        String destinationCountry
+    ) {
+        Comparator<WarehouseStock> sameCountryFirst = Comparator.comparing(
+            stock ->
+                destinationCountry == null ||
+                !destinationCountry.equalsIgnoreCase(
+                    stock.getWarehouse().getCountry()
+                )
+        );
+        return candidates
+            .stream()
+            .sorted(
+                sameCountryFirst
+                    .thenComparing(stock -> stock.getWarehouse().getPriority())
+                    .thenComparing(
+                        WarehouseStock::getQuantity,
+                        Comparator.reverseOrder()
+                    )
+            )
+            .toList();
+    }
+}
@@ -0,0 +1,118 @@
+package crudjava.crudjava.warehouse;
+
+import crudjava.crudjava.model.StockAllocation;
+import crudjava.crudjava.model.WarehouseStock;
+import crudjava.crudjava.repository.WarehouseStockRepository;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Splits an order line across warehouse stock rows. Each row is decremented
+ * with a conditional update, so concurrent orders for the same product
+ * contend on whichever row they draw from rather than on the product row.
+ * Must run inside the order's transaction: when the line cannot be covered
+ * the caller throws and the partial decrements roll back with it.
+ */
+@Component
+@Slf4j
+public class WarehouseAllocator {
+
+    private final WarehouseStockRepository warehouseStockRepository;
+    private final AllocationStrategy strategy;
+
+    public WarehouseAllocator(
+        WarehouseStockRepository warehouseStockRepository,
+        List<AllocationStrategy> strategies,
+        @Value("${app.inventory.allocation-strategy:nearest}") String strategyName
+    ) {
+        this.warehouseStockRepository = warehouseStockRepository;
+        Map<String, AllocationStrategy> byName = strategies
+            .stream()
+            .collect(
+                Collectors.toMap(AllocationStrategy::name, Function.identity())
+            );
+        this.strategy = byName.get(strategyName);
+        if (this.strategy == null) {
+            throw new IllegalStateException(
+                "Unknown allocation strategy '" +
+                strategyName +
+                "', expected one of " +
+                byName.keySet()
+            );
+        }
+    }
+
+    /**
+     * Takes up to {@code quantity} units of the product from its warehouses.
+     * The returned allocations are not yet attached to an order and may add
+     * up to less than requested if stock ran out.
+     */
+    public List<StockAllocation> allocate(
+        Long productId,
+        int quantity,
+        String destinationCountry
+    ) {
+        List<WarehouseStock> ranked = strategy.rank(
+            warehouseStockRepository.findAllocatable(productId),
+            destinationCountry
+        );
+
+        List<StockAllocation> allocations = new ArrayList<>();
+        int remaining = quantity;
+        for (WarehouseStock stock : ranked) {
+            if (remaining == 0) {
+                break;
+            }
+            int taken = take(stock, remaining);
+            if (taken > 0) {
+                allocations.add(
+                    StockAllocation.builder()
+                        .product(stock.getProduct())
+                        .warehouse(stock.getWarehouse())
+                        .quantity(taken)
+                        .build()
+                );
+                remaining -= taken;
+            }
+        }
+
+        if (allocations.size() > 1) {
+            log.debug(
+                "Split {} units of product {} across {} warehouses",
+                quantity,
+                productId,
+                allocations.size()
+            );
+        }
+        return allocations;
+    }
+
+    private int take(WarehouseStock stock, int wanted) {
+        int quantity = Math.min(wanted, stock.getQuantity());
+        if (
+            quantity > 0 &&
+            warehouseStockRepository.decreaseStock(stock.getId(), quantity) == 1
+        ) {
+            return quantity;
+        }
+        // Another order drew from the row since it was read; settle for what
+        // is left there now.
+        Integer current = warehouseStockRepository.findQuantityById(
+            stock.getId()
+        );
+        quantity = Math.min(wanted, current != null ? current : 0);
+        if (
+            quantity > 0 &&
+            warehouseStockRepository.decreaseStock(stock.getId(), quantity) == 1
+        ) {
+            return quantity;
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,97 @@
+package crudjava.crudjava.warehouse;
+
+import crudjava.crudjava.repository.WarehouseStockRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Keeps all instances on the inventory mode recorded in
+ * {@code inventory_settings}. The first start records its mode; later starts
+ * with a different {@code app.inventory.warehouse-mode} fail, so a rolling
+ * or mixed deployment cannot write stock to both places. Switching is an
+ * explicit step: one instance started with {@code app.inventory.mode-change}
+ * while the others are stopped records the new mode. Outside warehouse mode
+ * {@code warehouse_stock} is not maintained, so switching it on moves all
+ * stock to the default warehouse; the other rows are zeroed rather than
+ * deleted.
+ */
+@Component
+@Slf4j
+public class WarehouseModeInitializer implements SmartInitializingSingleton {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final WarehouseStockRepository warehouseStockRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean warehouseMode;
+    private final boolean modeChange;
+    private final String defaultWarehouse;
+
+    public WarehouseModeInitializer(
+        JdbcTemplate jdbcTemplate,
+        WarehouseStockRepository warehouseStockRepository,
+        PlatformTransactionManager transactionManager,
+        @Value("${app.inventory.warehouse-mode:false}") boolean warehouseMode,
+        @Value("${app.inventory.mode-change:false}") boolean modeChange,
+        @Value("${app.inventory.default-warehouse:MAIN}") String defaultWarehouse
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.warehouseStockRepository = warehouseStockRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.warehouseMode = warehouseMode;
+        this.modeChange = modeChange;
+        this.defaultWarehouse = defaultWarehouse;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Boolean recordedMode = jdbcTemplate.queryForObject(
+                "SELECT warehouse_mode FROM inventory_settings FOR UPDATE",
+                Boolean.class
+            );
+            if (recordedMode != null && recordedMode == warehouseMode) {
+                return;
+            }
+            if (recordedMode != null) {
+                if (!modeChange) {
+                    throw new IllegalStateException(
+                        "Inventory runs with warehouse-mode=" +
+                        recordedMode +
+                        " but this instance has warehouse-mode=" +
+                        warehouseMode +
+                        "; stop all instances and start one with " +
+                        "app.inventory.mode-change=true to switch"
+                    );
+                }
+                if (warehouseMode) {
+                    seedDefaultWarehouse();
+                }
+                log.info("Switched inventory to warehouse-mode={}", warehouseMode);
+            }
+            jdbcTemplate.update(
+                "UPDATE inventory_settings SET warehouse_mode = ?, updated_at = CURRENT_TIMESTAMP",
+                warehouseMode
+            );
+        });
+    }
+
+    private void seedDefaultWarehouse() {
+        int cleared = warehouseStockRepository.clearStockOutside(
+            defaultWarehouse
+        );
+        int seeded = warehouseStockRepository.seedFromProductTotals(
+            defaultWarehouse
+        );
+        log.info(
+            "Seeded {} stock rows in {} from product totals, cleared {} elsewhere",
+            seeded,
+            defaultWarehouse,
+            cleared
+        );
+    }
+}
@@ -0,0 +1,10 @@
+-- Highest change feed position removed by the retention cleanup. Cleanup
+-- deletes by age, not by position, so a cursor below this mark may have
+-- missed deleted changes and the client has to resync in full.
+CREATE TABLE entity_change_horizon (
+    id BOOLEAN PRIMARY KEY DEFAULT TRUE CHECK (id),
+    txid XID8 NOT NULL DEFAULT '0',
+    change_id BIGINT NOT NULL DEFAULT 0
+);
+
+INSERT INTO entity_change_horizon DEFAULT VALUES;
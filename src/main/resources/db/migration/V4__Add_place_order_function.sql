@@ -0,0 +1,123 @@
+-- Places an order in a single call: validates the customer and products,
+-- decrements stock for all lines, inserts the order and its items and
+-- returns one row per item. Errors use custom SQLSTATEs so the application
+-- can map them:
+--   CJ001 customer not found, CJ002 product not found, CJ003 insufficient stock
+CREATE OR REPLACE FUNCTION place_order(
+    p_customer_id BIGINT,
+    p_order_number VARCHAR,
+    p_product_ids BIGINT[],
+    p_quantities INTEGER[],
+    p_discounts DECIMAL[]
+)
+RETURNS TABLE (
+    order_id BIGINT,
+    order_number VARCHAR,
+    order_status VARCHAR,
+    total_amount DECIMAL,
+    order_created_at TIMESTAMP,
+    order_updated_at TIMESTAMP,
+    customer_first_name VARCHAR,
+    customer_last_name VARCHAR,
+    customer_email VARCHAR,
+    item_id BIGINT,
+    product_id BIGINT,
+    product_name VARCHAR,
+    product_sku VARCHAR,
+    quantity INTEGER,
+    unit_price DECIMAL,
+    subtotal DECIMAL,
+    old_stock INTEGER,
+    new_stock INTEGER
+) AS $$
+#variable_conflict use_column
+DECLARE
+    v_customer customers%ROWTYPE;
+    v_order_id BIGINT;
+    v_missing_product BIGINT;
+    v_shortage RECORD;
+BEGIN
+    SELECT * INTO v_customer FROM customers WHERE id = p_customer_id;
+    IF NOT FOUND THEN
+        RAISE EXCEPTION 'Customer not found: %', p_customer_id
+            USING ERRCODE = 'CJ001';
+    END IF;
+
+    -- Lock in id order so that concurrent orders for overlapping products
+    -- queue up instead of deadlocking.
+    PERFORM 1 FROM products WHERE id = ANY (p_product_ids) ORDER BY id FOR UPDATE;
+
+    SELECT l.product_id INTO v_missing_product
+    FROM unnest(p_product_ids) AS l(product_id)
+    LEFT JOIN products p ON p.id = l.product_id
+    WHERE p.id IS NULL
+    LIMIT 1;
+    IF FOUND THEN
+        RAISE EXCEPTION 'Product not found: %', v_missing_product
+            USING ERRCODE = 'CJ002';
+    END IF;
+
+    SELECT p.name, p.stock_quantity AS available, d.requested INTO v_shortage
+    FROM (
+        SELECT l.product_id, SUM(l.quantity) AS requested
+        FROM unnest(p_product_ids, p_quantities) AS l(product_id, quantity)
+        GROUP BY l.product_id
+    ) d
+    JOIN products p ON p.id = d.product_id
+    WHERE p.stock_quantity < d.requested
+    LIMIT 1;
+    IF FOUND THEN
+        RAISE EXCEPTION 'Insufficient stock for product: %', v_shortage.name
+            USING ERRCODE = 'CJ003',
+                  DETAIL = format('requested=%s available=%s', v_shortage.requested, v_shortage.available);
+    END IF;
+
+    INSERT INTO orders (order_number, customer_id, status, total_amount)
+    SELECT p_order_number,
+           p_customer_id,
+           'PENDING',
+           COALESCE(SUM(p.price * l.quantity - COALESCE(l.discount, 0)), 0)
+    FROM unnest(p_product_ids, p_quantities, p_discounts) AS l(product_id, quantity, discount)
+    JOIN products p ON p.id = l.product_id
+    RETURNING id INTO v_order_id;
+
+    RETURN QUERY
+    WITH lines AS (
+        SELECT l.product_id, l.quantity, COALESCE(l.discount, 0) AS discount, l.ord
+        FROM unnest(p_product_ids, p_quantities, p_discounts)
+            WITH ORDINALITY AS l(product_id, quantity, discount, ord)
+    ),
+    demand AS (
+        SELECT product_id, SUM(quantity) AS requested
+        FROM lines
+        GROUP BY product_id
+    ),
+    stock AS (
+        UPDATE products p
+        SET stock_quantity = p.stock_quantity - d.requested,
+            version = p.version + 1,
+            updated_at = CURRENT_TIMESTAMP
+        FROM demand d
+        WHERE p.id = d.product_id
+        RETURNING p.id, p.name, p.sku, p.price,
+                  (p.stock_quantity + d.requested)::INTEGER AS old_stock,
+                  p.stock_quantity AS new_stock
+    ),
+    items AS (
+        INSERT INTO order_items (order_id, product_id, quantity, unit_price, discount_amount, subtotal)
+        SELECT v_order_id, l.product_id, l.quantity, s.price, l.discount, s.price * l.quantity - l.discount
+        FROM lines l
+        JOIN stock s ON s.id = l.product_id
+        ORDER BY l.ord
+        RETURNING id, product_id, quantity, unit_price, subtotal
+    )
+    SELECT o.id, o.order_number, o.status, o.total_amount, o.created_at, o.updated_at,
+           v_customer.first_name, v_customer.last_name, v_customer.email,
+           i.id, i.product_id, s.name, s.sku, i.quantity, i.unit_price, i.subtotal,
+           s.old_stock, s.new_stock
+    FROM items i
+    JOIN stock s ON s.id = i.product_id
+    JOIN orders o ON o.id = v_order_id
+    ORDER BY i.id;
+END;
+$$ LANGUAGE plpgsql;
@@ -0,0 +1,12 @@
+-- Application instances reserve order numbers in blocks: one nextval() hands
+-- out INCREMENT BY consecutive numbers starting at the returned value.
+ALTER SEQUENCE order_number_seq INCREMENT BY 100;
+
+-- Pad to 10 digits; LPAD truncates longer values, which at 6 digits would
+-- start producing duplicates after the millionth order.
+CREATE OR REPLACE FUNCTION generate_order_number()
+RETURNS TEXT AS $$
+BEGIN
+    RETURN 'ORD-' || TO_CHAR(NOW(), 'YYYYMMDD') || '-' || LPAD(nextval('order_number_seq')::TEXT, 10, '0');
+END;
+$$ LANGUAGE plpgsql;
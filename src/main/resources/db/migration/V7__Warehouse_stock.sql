@@ -0,0 +1,48 @@
+-- Stock is kept per warehouse. In warehouse mode reservations decrement
+-- warehouse_stock rows and products.stock_quantity becomes an aggregate that
+-- the application refreshes periodically.
+CREATE SEQUENCE IF NOT EXISTS warehouse_sequence START 1 INCREMENT 1;
+CREATE SEQUENCE IF NOT EXISTS warehouse_stock_sequence START 1 INCREMENT 1;
+CREATE SEQUENCE IF NOT EXISTS stock_allocation_sequence START 1 INCREMENT 1;
+
+CREATE TABLE warehouses (
+    id BIGINT PRIMARY KEY DEFAULT nextval('warehouse_sequence'),
+    code VARCHAR(20) UNIQUE NOT NULL,
+    name VARCHAR(100) NOT NULL,
+    country VARCHAR(100),
+    priority INTEGER NOT NULL DEFAULT 0,
+    active BOOLEAN NOT NULL DEFAULT TRUE,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE warehouse_stock (
+    id BIGINT PRIMARY KEY DEFAULT nextval('warehouse_stock_sequence'),
+    warehouse_id BIGINT NOT NULL REFERENCES warehouses(id),
+    product_id BIGINT NOT NULL REFERENCES products(id) ON DELETE CASCADE,
+    quantity INTEGER NOT NULL DEFAULT 0 CHECK (quantity >= 0),
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    version BIGINT DEFAULT 0,
+    CONSTRAINT uk_warehouse_stock_product_warehouse UNIQUE (product_id, warehouse_id)
+);
+
+-- Records which warehouses an order line was taken from, so that a
+-- cancellation returns the stock to the same rows.
+CREATE TABLE stock_allocations (
+    id BIGINT PRIMARY KEY DEFAULT nextval('stock_allocation_sequence'),
+    order_id BIGINT NOT NULL REFERENCES orders(id) ON DELETE CASCADE,
+    product_id BIGINT NOT NULL REFERENCES products(id),
+    warehouse_id BIGINT NOT NULL REFERENCES warehouses(id),
+    quantity INTEGER NOT NULL CHECK (quantity > 0),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_stock_allocations_order ON stock_allocations(order_id);
+
+INSERT INTO warehouses (code, name, priority) VALUES ('MAIN', 'Main warehouse', 0);
+
+INSERT INTO warehouse_stock (warehouse_id, product_id, quantity)
+SELECT w.id, p.id, p.stock_quantity
+FROM products p
+CROSS JOIN warehouses w
+WHERE w.code = 'MAIN';
@@ -0,0 +1,57 @@
+-- Change feed for incremental sync. Triggers append one row per changed
+-- product, customer or order together with the ID of the writing
+-- transaction. Readers page by (txid, id) and only see transactions older
+-- than the oldest one still running (pg_snapshot_xmin), so a page never
+-- skips a change that commits later with a lower position.
+CREATE SEQUENCE IF NOT EXISTS entity_change_sequence START 1 INCREMENT 1;
+
+CREATE TABLE entity_changes (
+    id BIGINT PRIMARY KEY DEFAULT nextval('entity_change_sequence'),
+    txid XID8 NOT NULL DEFAULT pg_current_xact_id(),
+    entity_type VARCHAR(20) NOT NULL,
+    entity_id BIGINT NOT NULL,
+    operation CHAR(1) NOT NULL CHECK (operation IN ('I', 'U', 'D')),
+    version BIGINT,
+    changed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_entity_changes_position ON entity_changes (txid, id);
+CREATE INDEX idx_entity_changes_changed_at ON entity_changes (changed_at);
+
+CREATE OR REPLACE FUNCTION record_entity_change()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        INSERT INTO entity_changes (entity_type, entity_id, operation, version)
+        VALUES (TG_ARGV[0], OLD.id, 'D', OLD.version);
+        RETURN OLD;
+    END IF;
+    INSERT INTO entity_changes (entity_type, entity_id, operation, version)
+    VALUES (TG_ARGV[0], NEW.id, LEFT(TG_OP, 1), NEW.version);
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER products_change_feed
+    AFTER INSERT OR DELETE ON products
+    FOR EACH ROW EXECUTE FUNCTION record_entity_change('PRODUCT');
+CREATE TRIGGER products_change_feed_update
+    AFTER UPDATE ON products
+    FOR EACH ROW WHEN (OLD.* IS DISTINCT FROM NEW.*)
+    EXECUTE FUNCTION record_entity_change('PRODUCT');
+
+CREATE TRIGGER customers_change_feed
+    AFTER INSERT OR DELETE ON customers
+    FOR EACH ROW EXECUTE FUNCTION record_entity_change('CUSTOMER');
+CREATE TRIGGER customers_change_feed_update
+    AFTER UPDATE ON customers
+    FOR EACH ROW WHEN (OLD.* IS DISTINCT FROM NEW.*)
+    EXECUTE FUNCTION record_entity_change('CUSTOMER');
+
+CREATE TRIGGER orders_change_feed
+    AFTER INSERT OR DELETE ON orders
+    FOR EACH ROW EXECUTE FUNCTION record_entity_change('ORDER');
+CREATE TRIGGER orders_change_feed_update
+    AFTER UPDATE ON orders
+    FOR EACH ROW WHEN (OLD.* IS DISTINCT FROM NEW.*)
+    EXECUTE FUNCTION record_entity_change('ORDER');
@@ -0,0 +1,10 @@
+-- Records the inventory mode the deployment runs in, so that instances with a
+-- different app.inventory.warehouse-mode refuse to start instead of writing
+-- stock to the wrong place. NULL until the first start records the mode.
+CREATE TABLE inventory_settings (
+    id BOOLEAN PRIMARY KEY DEFAULT TRUE CHECK (id),
+    warehouse_mode BOOLEAN,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+INSERT INTO inventory_settings DEFAULT VALUES;
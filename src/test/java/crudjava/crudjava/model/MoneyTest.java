@@ -0,0 +1,96 @@
+package crudjava.crudjava.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+import java.util.Currency;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class MoneyTest {
+
+    @Test
+    void ofRoundsHalfUpToCents() {
+        assertEquals(1, Money.of(new BigDecimal("0.005")).getMinorUnits());
+        assertEquals(0, Money.of(new BigDecimal("0.0049")).getMinorUnits());
+        assertEquals(-1, Money.of(new BigDecimal("-0.005")).getMinorUnits());
+        assertEquals(1999, Money.of(new BigDecimal("19.99")).getMinorUnits());
+    }
+
+    @Test
+    void ofUsesCurrencyFractionDigits() {
+        Money yen = Money.of(new BigDecimal("100.5"), Currency.getInstance("JPY"));
+        assertEquals(101, yen.getMinorUnits());
+    }
+
+    @Test
+    void minusBigDecimalRoundsOnce() {
+        Money price = Money.of(new BigDecimal("10.00"));
+        assertEquals(Money.of(new BigDecimal("10.00")), price.minus(new BigDecimal("0.005")));
+        assertEquals(Money.of(new BigDecimal("9.99")), price.minus(Money.of(new BigDecimal("0.005"))));
+    }
+
+    @Test
+    void orderItemSubtotalUsesRequestedDiscount() {
+        OrderItem item = OrderItem.builder()
+            .quantity(3)
+            .unitPrice(Money.of(new BigDecimal("10.00")))
+            .build();
+        item.applyDiscount(new BigDecimal("0.004"));
+
+        assertEquals(Money.of(new BigDecimal("0.00")), item.getDiscountAmount());
+        assertEquals(Money.of(new BigDecimal("30.00")), item.getSubtotal());
+        assertEquals(new BigDecimal("-0.004"), item.getSubtotalRemainder());
+    }
+
+    @Test
+    void orderTotalRoundsRemaindersOnce() {
+        OrderItem first = OrderItem.builder()
+            .quantity(1)
+            .unitPrice(Money.of(new BigDecimal("5.00")))
+            .build();
+        first.applyDiscount(new BigDecimal("0.004"));
+        OrderItem second = OrderItem.builder()
+            .quantity(1)
+            .unitPrice(Money.of(new BigDecimal("5.00")))
+            .build();
+        second.applyDiscount(new BigDecimal("0.004"));
+
+        Order order = Order.builder().orderItems(List.of(first, second)).build();
+        order.calculateTotalAmount();
+
+        assertEquals(Money.of(new BigDecimal("9.99")), order.getTotalAmount());
+    }
+
+    @Test
+    void arithmeticThrowsOnOverflow() {
+        Money max = Money.ofMinor(Long.MAX_VALUE, Money.DEFAULT_CURRENCY);
+        Money cent = Money.ofMinor(1, Money.DEFAULT_CURRENCY);
+
+        assertThrows(ArithmeticException.class, () -> max.plus(cent));
+        assertThrows(ArithmeticException.class, () -> max.times(2));
+        assertThrows(
+            ArithmeticException.class,
+            () -> Money.ofMinor(Long.MIN_VALUE, Money.DEFAULT_CURRENCY).minus(cent)
+        );
+    }
+
+    @Test
+    void ofThrowsWhenAmountDoesNotFitInLong() {
+        assertThrows(
+            ArithmeticException.class,
+            () -> Money.of(new BigDecimal("1e20"))
+        );
+    }
+
+    @Test
+    void rejectsMixedCurrencies() {
+        Money usd = Money.ofMinor(100, Money.DEFAULT_CURRENCY);
+        Money eur = Money.ofMinor(100, Currency.getInstance("EUR"));
+
+        assertThrows(IllegalArgumentException.class, () -> usd.plus(eur));
+        assertThrows(IllegalArgumentException.class, () -> usd.compareTo(eur));
+    }
+}